@@ -0,0 +1,329 @@
+package edu.iuc.crdt;
+
+import edu.iuc.shared.TextOperation;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// CrdtDocument'ın yakınsamasını rastgele senaryolarla sınar. Her senaryoda 2-4 replika vardır:
+// - Eşler arası: işlemler her replikaya karışık sırada ve bazen iki kez ulaşır, bağımlılığı gelmemiş
+//   işlemler bekletilir.
+// - Sunucu üzerinden: sunucu replikası işlemleri FIFO bağlantılarla yayar, istemciler ara sıra katılıp ayrılır
+//   ve mezar taşları sunucudaki öneri/onay/tur sonu akışıyla (düşük eşikle) toplanır.
+// Her uygulamada dönen düzenleme replikanın önceki metnini yeni metnine çevirmeli, sonda bütün replikalar aynı
+// metinde buluşmalı, anlık görüntüden yüklenen replika aynı metni vermeli ve toplanmış belgede mezar taşları
+// görünür koşu sayısını aşmamalı. Uyuşmazlıkta durur.
+// Kullanım: CrdtConvergenceCheck [senaryo sayısı] [tohum]
+public class CrdtConvergenceCheck {
+    private static final int DEFAULT_SCENARIOS = 2_000;
+    private static final int STEPS = 400;
+    private static final int COLLECT_THRESHOLD = 8;
+    private static final String[] ALPHABET = {"a", "b", "c", " ", "\n", "ş", "ğ", "İ", "ı", "ö"};
+
+    private static long deliveries;
+    private static long collected;
+    private static int rounds;
+
+    public static void main(String[] args) {
+        int scenarios = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SCENARIOS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Random random = new Random(seed);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < scenarios; i++) {
+            int replicas = 2 + random.nextInt(3);
+            try {
+                peerToPeer(random, replicas);
+                relayed(random, replicas);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("senaryo " + i + " (" + replicas + " replika): " + e.getMessage(), e);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("%d senaryo, %d teslim, %d toplama turu, %d aralık atıldı %.2f sn: tamam%n",
+                          scenarios, deliveries, rounds, collected, nanos / 1e9);
+    }
+
+    // ---- Eşler arası, sırasız teslim ----
+
+    private static void peerToPeer(Random random, int count) {
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            replicas.add(new Replica(new CrdtDocument(i + 1)));
+        }
+
+        for (int step = 0; step < STEPS; step++) {
+            Replica replica = replicas.get(random.nextInt(count));
+            if (random.nextInt(3) > 0 || replica.inbox.isEmpty()) {
+                String encoded = CrdtOperation.encode(replica.edit(random));
+                for (Replica other : replicas) {
+                    if (other != replica) {
+                        other.inbox.add(encoded);
+                    }
+                }
+            } else {
+                replica.receiveAny(random);
+            }
+
+            // Ara sıra bir replika anlık görüntüsünden yeniden yüklenir; bekleyen işlemler görüntüye girmez
+            if (random.nextInt(STEPS / 4) == 0 && replica.document.getPendingCount() == 0) {
+                replica.reload();
+            }
+        }
+
+        for (Replica replica : replicas) {
+            while (!replica.inbox.isEmpty()) {
+                replica.receiveAny(random);
+            }
+            check(replica.document.getPendingCount() == 0, "bekleyen işlem kaldı");
+        }
+        checkConverged(replicas, replicas.get(0).document.getText());
+    }
+
+    // ---- Sunucu üzerinden, mezar taşı toplamalı ----
+
+    private static void relayed(Random random, int count) {
+        Server server = new Server();
+        int nextReplica = 1;
+        for (int i = 0; i < count; i++) {
+            server.join(nextReplica++);
+        }
+
+        for (int step = 0; step < STEPS; step++) {
+            int roll = random.nextInt(100);
+            Client client = server.clients.get(random.nextInt(server.clients.size()));
+            if (roll < 35) {
+                client.upstream.add(CrdtOperation.encode(client.replica.edit(random)));
+            } else if (roll < 60) {
+                server.receiveFrom(client);
+            } else if (roll < 90) {
+                client.receive();
+            } else if (roll < 95) {
+                server.localEdit(random);
+            } else if (roll < 97 && server.clients.size() < 4) {
+                server.join(nextReplica++);
+            } else if (roll < 99 && server.clients.size() > 1) {
+                server.leave(client);
+            }
+        }
+
+        server.drain();
+        // Her şey teslim edildikten sonraki tur, kararlı bütün silmeleri toplar
+        server.forceCollection();
+        server.drain();
+
+        List<Replica> replicas = new ArrayList<>();
+        replicas.add(server.replica);
+        for (Client client : server.clients) {
+            replicas.add(client.replica);
+        }
+        checkConverged(replicas, server.replica.document.getText());
+        for (Replica replica : replicas) {
+            CrdtDocument document = replica.document;
+            int tombstones = document.getTombstoneCount();
+            check(tombstones <= document.getItemCount() - tombstones + 1,
+                  "mezar taşı görünür koşuları aşıyor: " + tombstones + "/" + document.getItemCount());
+        }
+    }
+
+    private static void checkConverged(List<Replica> replicas, String expected) {
+        for (Replica replica : replicas) {
+            check(replica.document.getText().equals(expected), "replika " + replica.document.getReplicaId()
+                  + " yakınsamadı: '" + replica.document.getText() + "' / '" + expected + "'");
+            check(replica.text.toString().equals(expected), "etkilerle izlenen metin uyuşmuyor");
+            CrdtDocument restored = CrdtDocument.fromState(99, replica.document.encodeState());
+            check(restored.getText().equals(expected), "anlık görüntü metni uyuşmuyor");
+        }
+    }
+
+    // Belge ve ona dönen düzenlemelerle izlenen metin; uzak işlemler kutudan okunur
+    private static final class Replica {
+        CrdtDocument document;
+        final StringBuilder text = new StringBuilder();
+        final List<String> inbox = new ArrayList<>();
+
+        Replica(CrdtDocument document) {
+            this.document = document;
+            text.append(document.getText());
+        }
+
+        List<CrdtOperation> edit(Random random) {
+            int length = document.length();
+            if (length > 0 && random.nextInt(100) < 40) {
+                int position = random.nextInt(length);
+                int count = Math.min(length - position, 1 + random.nextInt(5));
+                text.delete(position, position + count);
+                return document.localDelete(position, count);
+            }
+            int position = random.nextInt(length + 1);
+            StringBuilder inserted = new StringBuilder();
+            for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                inserted.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+            text.insert(position, inserted);
+            return document.localInsert(position, inserted.toString());
+        }
+
+        void apply(String encoded) {
+            String before = document.getText();
+            check(before.equals(text.toString()), "metin etkilerden saptı");
+            TextOperation effect = document.apply(CrdtOperation.decode(encoded));
+            check(effect.isApplicableTo(before.length()), "etki uygulanamaz: " + effect);
+            effect.applyTo(text);
+            check(text.toString().equals(document.getText()), "etki metinle uyuşmuyor: " + effect);
+            deliveries++;
+        }
+
+        void receiveAny(Random random) {
+            int index = random.nextInt(inbox.size());
+            String encoded = inbox.get(index);
+            // Tekrar gelen işlemler yok sayılmalı
+            if (random.nextInt(10) > 0) {
+                inbox.remove(index);
+            }
+            apply(encoded);
+        }
+
+        void reload() {
+            document = CrdtDocument.fromState(document.getReplicaId(), document.encodeState());
+            check(document.getText().equals(text.toString()), "yeniden yüklenen metin uyuşmuyor");
+        }
+    }
+
+    // Sunucuya ve sunucudan FIFO bağlantılar; sunucudan gelen satır işlem, öneri ya da tur sonudur
+    private static final class Client {
+        final Replica replica;
+        final ArrayDeque<String> upstream = new ArrayDeque<>();
+        final ArrayDeque<String> downstream = new ArrayDeque<>();
+
+        Client(Replica replica) {
+            this.replica = replica;
+        }
+
+        boolean receive() {
+            String line = downstream.poll();
+            if (line == null) {
+                return false;
+            }
+            if (line.startsWith("P")) {
+                upstream.add(line);
+            } else if (line.startsWith("C")) {
+                replica.document.discard(CrdtOperation.decode(line.substring(line.indexOf(':') + 1)));
+            } else {
+                replica.apply(line);
+            }
+            return true;
+        }
+    }
+
+    // ClientHandler ve LiveDocument'taki akışın benzeri
+    private static final class Server {
+        final Replica replica = new Replica(new CrdtDocument(0));
+        final List<Client> clients = new ArrayList<>();
+        final Set<Client> awaiting = new HashSet<>();
+        int round;
+        int mark = -1;
+
+        void join(int replicaId) {
+            Client client = new Client(new Replica(CrdtDocument.fromState(replicaId, replica.document.encodeState())));
+            clients.add(client);
+        }
+
+        // Ayrılan istemcinin okunmuş işlemleri işlenir, onayı artık beklenmez
+        void leave(Client client) {
+            while (receiveFrom(client)) {
+                // kuyruk boşalana kadar
+            }
+            clients.remove(client);
+            awaiting.remove(client);
+            finishCollection();
+        }
+
+        boolean receiveFrom(Client client) {
+            String line = client.upstream.poll();
+            if (line == null) {
+                return false;
+            }
+            if (line.startsWith("P")) {
+                if (Integer.parseInt(line.substring(1)) == round) {
+                    awaiting.remove(client);
+                }
+                finishCollection();
+                return true;
+            }
+            replica.apply(line);
+            relay(client, line);
+            return true;
+        }
+
+        void localEdit(Random random) {
+            relay(null, CrdtOperation.encode(replica.edit(random)));
+        }
+
+        private void relay(Client sender, String line) {
+            for (Client client : clients) {
+                if (client != sender) {
+                    client.downstream.add(line);
+                }
+            }
+            if (mark < 0 && replica.document.getDeletionsSinceMark() >= COLLECT_THRESHOLD) {
+                round++;
+                mark = replica.document.beginCollection();
+                awaiting.addAll(clients);
+                for (Client client : clients) {
+                    client.downstream.add("P" + round);
+                }
+            }
+            finishCollection();
+        }
+
+        void forceCollection() {
+            if (mark >= 0) {
+                return;
+            }
+            round++;
+            mark = replica.document.beginCollection();
+            awaiting.addAll(clients);
+            for (Client client : clients) {
+                client.downstream.add("P" + round);
+            }
+        }
+
+        private void finishCollection() {
+            if (mark < 0 || !awaiting.isEmpty()) {
+                return;
+            }
+            List<CrdtOperation> ranges = replica.document.collect(mark);
+            mark = -1;
+            rounds++;
+            for (CrdtOperation range : ranges) {
+                collected += range.getLength();
+            }
+            String line = "C" + round + ":" + CrdtOperation.encode(ranges);
+            for (Client client : clients) {
+                client.downstream.add(line);
+            }
+        }
+
+        void drain() {
+            boolean progressed = true;
+            while (progressed) {
+                progressed = false;
+                for (Client client : new ArrayList<>(clients)) {
+                    progressed |= receiveFrom(client);
+                    progressed |= client.receive();
+                }
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
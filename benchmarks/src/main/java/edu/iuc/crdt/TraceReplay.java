@@ -0,0 +1,227 @@
+package edu.iuc.crdt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Düzenleme izini CrdtDocument üzerinde tekrar oynatıp işlem hızını ve belge başına heap'i ölçer.
+// Tek yazarlı izde her silme hemen kararlıdır; mezar taşları sunucudaki gibi birikmiş silme eşiğinde toplanır.
+// Kullanım: TraceReplay [işlem sayısı] [iz dosyası]
+// İz dosyası yoksa tohumlu bir yazım oturumu üretilir. Dosya biçimi satır başına
+// "i <konum> <metin>" veya "d <konum> <uzunluk>".
+public class TraceReplay {
+    private static final int DEFAULT_OPERATIONS = 1_000_000;
+    // LiveDocument'taki toplama eşiği
+    private static final int COLLECT_THRESHOLD = 1024;
+
+    public static void main(String[] args) throws Exception {
+        int operationCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+        List<TraceStep> trace = args.length > 1 ? readTrace(args[1], operationCount)
+                                                : generateTrace(operationCount, 42);
+        String expected = replayOnString(trace);
+        System.out.println("İz: " + trace.size() + " işlem, son belge " + expected.length() + " karakter");
+
+        // Isınma
+        replayLocal(trace.subList(0, Math.min(trace.size(), 100_000)), true, null);
+
+        measureLocal("Yerel düzenleme (toplamasız)", trace, expected, false);
+        measureLocal("Yerel düzenleme", trace, expected, true);
+
+        // Uzak birleştirme: aynı iz işlemlere dönüştürülüp ikinci bir replikaya uygulanır, kaynağın attığı
+        // aralıklar sunucunun tur sonu mesajındaki gibi aynı noktada uzak replikada da atılır
+        List<Batch> batches = new ArrayList<>(trace.size());
+        CrdtDocument source = replayLocal(trace, true, batches);
+        CrdtDocument remote = new CrdtDocument(2);
+        long start = System.nanoTime();
+        for (Batch batch : batches) {
+            remote.apply(batch.operations);
+            if (batch.collected != null) {
+                remote.discard(batch.collected);
+            }
+        }
+        long remoteNanos = System.nanoTime() - start;
+        check(remote.getText().equals(expected), "uzak replika izle uyuşmuyor");
+        check(remote.getPendingCount() == 0, "bekleyen işlem kaldı");
+        check(remote.getTombstoneCount() == source.getTombstoneCount(), "uzak replikada mezar taşı sayısı farklı");
+        String state = source.encodeState();
+        check(CrdtDocument.fromState(3, state).getText().equals(expected), "anlık görüntü izle uyuşmuyor");
+
+        report("Uzak birleştirme", batches.size(), remoteNanos);
+        System.out.printf("  koşu: %d (mezar taşı %d), durum boyutu: %.2f MB%n",
+            remote.getItemCount(), remote.getTombstoneCount(), state.length() / (1024.0 * 1024.0));
+    }
+
+    private static void measureLocal(String label, List<TraceStep> trace, String expected, boolean collect)
+            throws InterruptedException {
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        CrdtDocument local = replayLocal(trace, collect, null);
+        long localNanos = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+        check(local.getText().equals(expected), "yerel replika izle uyuşmuyor");
+
+        report(label, trace.size(), localNanos);
+        System.out.printf("  koşu: %d (mezar taşı %d), heap: %.2f MB, karakter başına %.1f bayt%n",
+            local.getItemCount(), local.getTombstoneCount(),
+            (heapAfter - heapBefore) / (1024.0 * 1024.0),
+            expected.isEmpty() ? 0.0 : (double) (heapAfter - heapBefore) / expected.length());
+    }
+
+    private static CrdtDocument replayLocal(List<TraceStep> trace, boolean collect, List<Batch> sink) {
+        CrdtDocument document = new CrdtDocument(1);
+        for (TraceStep step : trace) {
+            List<CrdtOperation> result = step.text != null
+                ? document.localInsert(step.position, step.text)
+                : document.localDelete(step.position, step.length);
+            List<CrdtOperation> collected = null;
+            if (collect && document.getDeletionsSinceMark() >= COLLECT_THRESHOLD) {
+                collected = document.collect(document.beginCollection());
+            }
+            if (sink != null) {
+                sink.add(new Batch(result, collected));
+            }
+        }
+        return document;
+    }
+
+    private static String replayOnString(List<TraceStep> trace) {
+        StringBuilder sb = new StringBuilder();
+        for (TraceStep step : trace) {
+            if (step.text != null) {
+                sb.insert(step.position, step.text);
+            } else {
+                sb.delete(step.position, step.position + step.length);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Gerçek yazıma benzer oturum: çoğunlukla imleçte yazım ve geri silme, arada imleç sıçramaları,
+    // seçim silme ve yapıştırma
+    private static List<TraceStep> generateTrace(int count, long seed) {
+        Random random = new Random(seed);
+        List<TraceStep> trace = new ArrayList<>(count);
+        int length = 0;
+        int cursor = 0;
+        while (trace.size() < count) {
+            int roll = random.nextInt(100);
+            if (roll < 8 && length > 0) {
+                cursor = random.nextInt(length + 1);
+                continue;
+            }
+            if (roll < 12 && length > 0) {
+                cursor = Math.max(0, Math.min(length, cursor + random.nextInt(41) - 20));
+                continue;
+            }
+
+            if (roll < 70 || length == 0) {
+                String text = String.valueOf((char) ('a' + random.nextInt(26)));
+                if (random.nextInt(6) == 0) {
+                    text = random.nextInt(10) == 0 ? "\n" : " ";
+                }
+                trace.add(TraceStep.insert(cursor, text));
+                cursor++;
+                length++;
+            } else if (roll < 96) {
+                if (cursor == 0) {
+                    continue;
+                }
+                trace.add(TraceStep.delete(cursor - 1, 1));
+                cursor--;
+                length--;
+            } else if (roll < 99) {
+                int size = Math.min(length - cursor, 1 + random.nextInt(50));
+                if (size == 0) {
+                    continue;
+                }
+                trace.add(TraceStep.delete(cursor, size));
+                length -= size;
+            } else {
+                StringBuilder paste = new StringBuilder();
+                int size = 10 + random.nextInt(90);
+                for (int i = 0; i < size; i++) {
+                    paste.append((char) ('a' + random.nextInt(26)));
+                }
+                trace.add(TraceStep.insert(cursor, paste.toString()));
+                cursor += size;
+                length += size;
+            }
+        }
+        return trace;
+    }
+
+    private static List<TraceStep> readTrace(String path, int limit) throws IOException {
+        List<TraceStep> trace = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && trace.size() < limit) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split(" ", 3);
+                int position = Integer.parseInt(parts[1]);
+                if (parts[0].equals("i")) {
+                    trace.add(TraceStep.insert(position, parts[2].replace("\\n", "\n")));
+                } else {
+                    trace.add(TraceStep.delete(position, Integer.parseInt(parts[2])));
+                }
+            }
+        }
+        return trace;
+    }
+
+    private static void report(String label, int operations, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%s: %d işlem %.2f sn, %.0f işlem/sn%n", label, operations, seconds, operations / seconds);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static final class Batch {
+        final List<CrdtOperation> operations;
+        final List<CrdtOperation> collected;
+
+        Batch(List<CrdtOperation> operations, List<CrdtOperation> collected) {
+            this.operations = operations;
+            this.collected = collected;
+        }
+    }
+
+    private static final class TraceStep {
+        final int position;
+        final int length;
+        final String text;
+
+        private TraceStep(int position, int length, String text) {
+            this.position = position;
+            this.length = length;
+            this.text = text;
+        }
+
+        static TraceStep insert(int position, String text) {
+            return new TraceStep(position, text.length(), text);
+        }
+
+        static TraceStep delete(int position, int length) {
+            return new TraceStep(position, length, null);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.iuc.protocol;
+
+import edu.iuc.shared.Message;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Giden EDIT satırının baytlara çevrilmesi: toProtocolString() + "\n" ve getBytes ile eski yol, tampona
+// doğrudan yazan encodeTo. İçerikte her 64 karakterde bir satır sonu vardır.
+// Kullanım: java -jar target/benchmarks.jar MessageEncoderBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageEncoderBenchmark {
+    @Param({"10", "1024", "1048576", "10485760"})
+    public int payloadBytes;
+
+    private Message message;
+
+    @Setup
+    public void setup() {
+        StringBuilder content = new StringBuilder(payloadBytes);
+        while (content.length() < payloadBytes) {
+            content.append(content.length() % 64 == 63 ? '\n' : 'x');
+        }
+        message = Message.edit("belge.txt", content.toString());
+    }
+
+    @Benchmark
+    public String toProtocolString() {
+        return message.toProtocolString();
+    }
+
+    @Benchmark
+    public byte[] legacy() {
+        return (message.toProtocolString() + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeTo() {
+        ByteBuffer buffer = ByteBuffer.allocate(message.encodedLength());
+        message.encodeTo(buffer);
+        return buffer;
+    }
+
+    // Büyük çerçeveler kanala kopyasız yazılsın diye doğrudan tampona kodlanır (bkz. OutboundFrame)
+    @Benchmark
+    public ByteBuffer encodeToDirect() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(message.encodedLength());
+        message.encodeTo(buffer);
+        return buffer;
+    }
+}
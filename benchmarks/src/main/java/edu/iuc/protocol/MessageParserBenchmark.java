@@ -0,0 +1,98 @@
+package edu.iuc.protocol;
+
+import edu.iuc.shared.Message;
+import edu.iuc.shared.MessageType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Gelen EDIT satırının çözülmesi: eski split tabanlı çözücü, tek geçişli Message.fromRaw ve dizi döndüren
+// MessageParser.parse. lines açıkken içerikte her 64 karakterde bir kaçışlı satır sonu vardır (Swing
+// istemcisinin gönderdiği gibi).
+// Kullanım: java -jar target/benchmarks.jar MessageParserBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageParserBenchmark {
+    @Param({"10", "1024", "1048576", "10485760"})
+    public int payloadBytes;
+
+    @Param({"false", "true"})
+    public boolean lines;
+
+    private String raw;
+
+    @Setup
+    public void setup() {
+        StringBuilder content = new StringBuilder(payloadBytes);
+        while (content.length() < payloadBytes) {
+            content.append(lines && content.length() % 64 == 62 ? "\\n" : "x");
+        }
+        raw = "EDIT#belge.txt#" + content;
+    }
+
+    @Benchmark
+    public Message legacy() {
+        return LegacyParser.fromRaw(raw);
+    }
+
+    @Benchmark
+    public Message fromRaw() {
+        return Message.fromRaw(raw);
+    }
+
+    // İçeriği String olarak isteyen tüketici; görünümün kopyası ertelenmiş olur
+    @Benchmark
+    public String fromRawContent() {
+        return Message.fromRaw(raw).getParameter2();
+    }
+
+    @Benchmark
+    public String[] parse() {
+        return MessageParser.parse(raw);
+    }
+
+    // Tek geçişli çözücüden önceki Message.fromRaw / MessageParser.parse / MessageType.fromCommand
+    static final class LegacyParser {
+        static Message fromRaw(String raw) {
+            if (raw == null || raw.trim().isEmpty()) {
+                return new Message.Builder(MessageType.UNKNOWN).build();
+            }
+            String[] parts = parse(raw);
+            MessageType type = fromCommand(parts[0]);
+            String parameter2 = type == MessageType.EDIT ? parts[2].replace("\\n", "\n") : parts[2];
+            return new Message.Builder(type).parameter1(parts[1]).parameter2(parameter2).build();
+        }
+
+        static String[] parse(String raw) {
+            String[] parts = raw.split("#", 3);
+            String[] result = new String[3];
+            result[0] = parts.length > 0 ? parts[0].trim() : "";
+            result[1] = parts.length > 1 ? parts[1].trim() : "";
+            result[2] = parts.length > 2 ? parts[2] : "";
+            return result;
+        }
+
+        static MessageType fromCommand(String command) {
+            String upperCommand = command.trim().toUpperCase();
+            for (MessageType type : MessageType.values()) {
+                if (type.getCommand().equals(upperCommand)) {
+                    return type;
+                }
+            }
+            return MessageType.UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package edu.iuc.protocol;
+
+import edu.iuc.shared.MessageType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Komut adından türün bulunması; tablonun başındaki, sonundaki ve bilinmeyen komut
+// Kullanım: java -jar target/benchmarks.jar MessageTypeBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTypeBenchmark {
+    @Param({"LOGIN", "chunk_resume", "YOK"})
+    public String command;
+
+    @Benchmark
+    public MessageType fromCommand() {
+        return MessageType.fromCommand(command);
+    }
+
+    @Benchmark
+    public MessageType legacyFromCommand() {
+        return MessageParserBenchmark.LegacyParser.fromCommand(command);
+    }
+}
@@ -0,0 +1,93 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Bir EDIT'in UserManager.broadcastToOthers ile bağlı herkese gönderilmesi: çerçeve bir kez kodlanır, her
+// alıcının kuyruğuna eklenir. Soketler yerine kuyruğu anında boşaltan sahte bağlantılar kullanılır, ölçülen
+// yayının kendisidir.
+// Kullanım: java -jar target/benchmarks.jar BroadcastBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+    @Param({"10", "100", "1000"})
+    public int clients;
+
+    @Param({"10", "1024", "1048576", "10485760"})
+    public int payloadBytes;
+
+    private final List<ClientHandler> handlers = new ArrayList<>();
+    private ClientHandler sender;
+    private Message message;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < clients; i++) {
+            DrainingTransport transport = new DrainingTransport();
+            ClientHandler handler = new ClientHandler(transport);
+            transport.handler = handler;
+            UserManager.addUser("kullanici" + i, handler);
+            handlers.add(handler);
+        }
+        sender = handlers.get(0);
+
+        StringBuilder content = new StringBuilder(payloadBytes);
+        while (content.length() < payloadBytes) {
+            content.append(content.length() % 64 == 63 ? '\n' : 'x');
+        }
+        message = Message.edit("belge.txt", content.toString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (ClientHandler handler : handlers) {
+            UserManager.removeUser(handler);
+        }
+    }
+
+    @Benchmark
+    public void broadcastToOthers() {
+        UserManager.broadcastToOthers(message, sender);
+    }
+
+    // Kuyruğa eklenen çerçeveyi yazmış gibi hemen alır
+    static final class DrainingTransport implements ClientTransport {
+        ClientHandler handler;
+        long bytes;
+
+        @Override
+        public void onFrameQueued() {
+            OutboundFrame frame = handler.getOutboundQueue().poll();
+            if (frame != null) {
+                bytes += frame.size();
+            }
+        }
+
+        @Override
+        public boolean canBlockCurrentThread() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
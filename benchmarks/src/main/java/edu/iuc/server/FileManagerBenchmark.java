@@ -0,0 +1,61 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// SAVE_FILE yolu (içerik ve dizin kaydı diske işlenene kadar) ve dosyanın String olarak okunması. Dosyalar
+// çalışılan dizindeki files/ altına yazılır; sonuçlar diske bağlıdır, aynı makinede karşılaştırılmalıdır.
+// Kullanım: java -jar target/benchmarks.jar FileManagerBenchmark -prof gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileManagerBenchmark {
+    @Param({"10", "1024", "1048576", "10485760"})
+    public int payloadBytes;
+
+    private String fileName;
+    private String content;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder builder = new StringBuilder(payloadBytes);
+        while (builder.length() < payloadBytes) {
+            builder.append(builder.length() % 64 == 63 ? '\n' : 'x');
+        }
+        content = builder.toString();
+        fileName = "jmh-" + payloadBytes + ".txt";
+        FileManager.saveFile(fileName, content);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get("files", fileName));
+    }
+
+    @Benchmark
+    public void saveFile() throws IOException {
+        FileManager.saveFile(fileName, content);
+    }
+
+    @Benchmark
+    public String loadFile() throws IOException {
+        return FileManager.loadFile(fileName);
+    }
+}
@@ -0,0 +1,120 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.TextOperation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Günlük modunun yazma büyütmesini ve kurtarma süresini ölçer, her düzenlemede dosyayı yeniden
+// yazmakla karşılaştırır. Kullanım: JournalBenchmark [düzenleme sayısı] [başlangıç KB] [sıkıştırma KB] [dizin]
+public class JournalBenchmark {
+    private static final int REWRITE_SAMPLE = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int edits = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int initialKb = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        long compactBytes = (args.length > 2 ? Long.parseLong(args[2]) : 1024) * 1024;
+        Path parent = Paths.get(args.length > 3 ? args[3] : ".");
+
+        PieceTable initial = PieceTable.of("lorem ipsum dolor sit amet\n".repeat(initialKb * 1024 / 27));
+        TextOperation[] trace = generateTrace(edits, initial.length(), 42);
+        System.out.printf("%d düzenleme, başlangıç belgesi %d KB, sıkıştırma eşiği %d KB%n",
+            edits, initial.byteLength() / 1024, compactBytes / 1024);
+
+        Path directory = Files.createTempDirectory(parent, "gunluk-olcum");
+        try {
+            Path journalDirectory = Files.createDirectories(directory.resolve(".journal"));
+            GroupCommitWriter writer = new GroupCommitWriter(directory, false);
+            String fileName = "belge.txt";
+            writer.write(fileName, initial);
+
+            // Günlük: her düzenleme eklenir, eşik aşılınca anlık görüntü yazılıp günlük yenilenir
+            DocumentJournal journal = DocumentJournal.create(journalDirectory, fileName, 0, initial);
+            long journalStart = DocumentJournal.getJournalBytes();
+            PieceTable content = initial;
+            long rewriteBytes = 0;
+            long start = System.nanoTime();
+            for (TextOperation operation : trace) {
+                content = content.apply(operation);
+                rewriteBytes += content.byteLength();
+                journal.append(operation);
+                if (journal.getSize() >= Math.max(compactBytes, content.byteLength())) {
+                    writer.write(fileName, content);
+                    journal.rebase(content);
+                }
+            }
+            long journalNanos = System.nanoTime() - start;
+            long written = DocumentJournal.getJournalBytes() - journalStart + DocumentJournal.getSnapshotBytes();
+            System.out.printf("Günlük: %.0f düzenleme/sn, diske %.1f MB, yazma büyütmesi %.1fx%n",
+                edits / (journalNanos / 1e9), written / (1024.0 * 1024.0),
+                (double) written / DocumentJournal.getOperationBytes());
+
+            // Yeniden yazma: her düzenlemede bütün dosya; süre örneklemle ölçülür, bayt hesaplanır
+            PieceTable rewritten = initial;
+            int sample = Math.min(REWRITE_SAMPLE, trace.length);
+            start = System.nanoTime();
+            for (int i = 0; i < sample; i++) {
+                rewritten = rewritten.apply(trace[i]);
+                writer.write(fileName, rewritten);
+            }
+            long rewriteNanos = System.nanoTime() - start;
+            System.out.printf("Dosyayı yeniden yazma: %.0f düzenleme/sn, diske %.1f MB, yazma büyütmesi %.1fx%n",
+                sample / (rewriteNanos / 1e9), rewriteBytes / (1024.0 * 1024.0),
+                (double) rewriteBytes / DocumentJournal.getOperationBytes());
+
+            // Kurtarma: sıkıştırılmamış günlüğün tamamı anlık görüntünün üzerine oynatılır
+            writer.write(fileName, initial);
+            DocumentJournal uncompacted = DocumentJournal.create(journalDirectory, fileName, 0, initial);
+            for (TextOperation operation : trace) {
+                uncompacted.append(operation);
+            }
+            long logBytes = uncompacted.getSize();
+            start = System.nanoTime();
+            PieceTable fileContent = PieceTable.fromUtf8(Files.readAllBytes(directory.resolve(fileName)));
+            DocumentJournal.Recovery recovery = DocumentJournal.recover(journalDirectory, fileName, fileContent);
+            long recoveryNanos = System.nanoTime() - start;
+            if (recovery.replayed != trace.length || !recovery.content.toString().equals(content.toString())) {
+                throw new IllegalStateException("Kurtarılan belge izle uyuşmuyor");
+            }
+            System.out.printf("Kurtarma: %.1f MB günlükten %d işlem %.1f ms%n",
+                logBytes / (1024.0 * 1024.0), recovery.replayed, recoveryNanos / 1e6);
+            uncompacted.delete();
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    // Çoğunlukla imleçte tek karakter yazım ve geri silme, arada imleç sıçramaları
+    private static TextOperation[] generateTrace(int count, int length, long seed) {
+        Random random = new Random(seed);
+        TextOperation[] trace = new TextOperation[count];
+        int cursor = length / 2;
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(100) < 5) {
+                cursor = random.nextInt(length + 1);
+            }
+            if (random.nextInt(100) < 75 || cursor == 0) {
+                trace[i] = TextOperation.insert(cursor, String.valueOf((char) ('a' + random.nextInt(26))));
+                cursor++;
+                length++;
+            } else {
+                trace[i] = TextOperation.delete(cursor - 1, 1);
+                cursor--;
+                length--;
+            }
+        }
+        return trace;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
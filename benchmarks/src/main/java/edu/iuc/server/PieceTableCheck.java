@@ -0,0 +1,168 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.Message;
+import edu.iuc.shared.MessageType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// PieceTable'ı StringBuilder'a karşı rastgele düzenlemelerle sınar: Türkçe harf, emoji ve satır sonlu
+// ekleme/silme, vekil çiftin ortasına düşen konumların reddi, eski anlık görüntülerin değişmemesi, bayt
+// okuma, blok blok okuma ve belge çerçevelerinin Message kodlamasıyla aynı çıkması. Uyuşmazlıkta durur.
+// Kullanım: PieceTableCheck [düzenleme sayısı] [tohum]
+public class PieceTableCheck {
+    private static final int DEFAULT_EDITS = 900_000;
+    private static final int TARGET_LENGTH = 50_000;
+    private static final int VERIFY_EVERY = 10_000;
+    private static final String[] ALPHABET = {"a", "b", "z", " ", "\n", "ş", "ğ", "İ", "ı", "😀", "✓", "#", "%", "\\"};
+    private static final String FILE_NAME = "belge.txt";
+
+    public static void main(String[] args) {
+        int edits = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EDITS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Random random = new Random(seed);
+
+        PieceTable table = PieceTable.empty();
+        StringBuilder expected = new StringBuilder();
+        List<PieceTable> snapshots = new ArrayList<>();
+        List<String> snapshotTexts = new ArrayList<>();
+        int rejected = 0;
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= edits; i++) {
+            int length = expected.length();
+            int position = random.nextInt(length + 1);
+            // Belge hedef boy civarında kalsın diye ekleme olasılığı boya göre değişir
+            boolean insert = length == 0 || random.nextInt(100) < (length < TARGET_LENGTH ? 75 : 55);
+            if (insert) {
+                String text = randomText(random);
+                boolean splits = splitsSurrogate(expected, position);
+                try {
+                    table = table.insert(position, text);
+                    check(!splits, "vekil çift bölen ekleme kabul edildi: " + position);
+                    expected.insert(position, text);
+                } catch (IllegalArgumentException e) {
+                    check(splits, "geçerli ekleme reddedildi: " + position + " - " + e.getMessage());
+                    rejected++;
+                }
+            } else {
+                int count = Math.min(length - position, 1 + random.nextInt(20));
+                boolean splits = splitsSurrogate(expected, position) || splitsSurrogate(expected, position + count);
+                try {
+                    table = table.delete(position, count);
+                    check(!splits, "vekil çift bölen silme kabul edildi: " + position + "+" + count);
+                    expected.delete(position, position + count);
+                } catch (IllegalArgumentException e) {
+                    check(splits, "geçerli silme reddedildi: " + position + "+" + count + " - " + e.getMessage());
+                    rejected++;
+                }
+            }
+
+            check(table.length() == expected.length(), "uzunluk uyuşmuyor, düzenleme " + i);
+            if (i % VERIFY_EVERY == 0) {
+                verify(table, expected.toString(), random);
+                if (snapshots.size() < 50) {
+                    snapshots.add(table);
+                    snapshotTexts.add(expected.toString());
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        String text = expected.toString();
+        verify(table, text, random);
+        // Sonraki düzenlemeler eski sürümleri değiştirmemiş olmalı
+        for (int i = 0; i < snapshots.size(); i++) {
+            check(snapshots.get(i).toString().equals(snapshotTexts.get(i)), "anlık görüntü " + i + " değişmiş");
+        }
+        checkFrames(table, text);
+        checkBlockRead(table, random);
+
+        System.out.printf("%d düzenleme (%d reddedildi) %.2f sn, %.0f düzenleme/sn; son belge %d karakter, "
+                          + "%d anlık görüntü: tamam%n", edits, rejected, nanos / 1e9, edits / (nanos / 1e9),
+                          text.length(), snapshots.size());
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int tokens = 1 + random.nextInt(8);
+        for (int i = 0; i < tokens; i++) {
+            text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return text.toString();
+    }
+
+    private static boolean splitsSurrogate(CharSequence text, int index) {
+        return index > 0 && index < text.length() && Character.isHighSurrogate(text.charAt(index - 1))
+            && Character.isLowSurrogate(text.charAt(index));
+    }
+
+    private static void verify(PieceTable table, String text, Random random) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        check(table.toString().equals(text), "metin uyuşmuyor");
+        check(table.byteLength() == bytes.length, "bayt uzunluğu uyuşmuyor");
+        check(Arrays.equals(table.toByteArray(), bytes), "baytlar uyuşmuyor");
+
+        // Parçalı gönderimdeki gibi rastgele boyutlu dilimlerle okunur
+        ByteBuffer target = ByteBuffer.allocate(bytes.length);
+        long position = 0;
+        while (position < bytes.length) {
+            ByteBuffer slice = ByteBuffer.allocate(1 + random.nextInt(5000));
+            int read = table.read(position, slice);
+            check(read > 0, "okuma ilerlemedi: " + position);
+            target.put(slice.flip());
+            position += read;
+        }
+        check(Arrays.equals(target.array(), bytes), "dilimli okuma uyuşmuyor");
+    }
+
+    // Baytlardan kurulan çerçeve, aynı metinle kurulan Message'ın metin ve ikili kodlamasıyla aynı olmalı
+    private static void checkFrames(PieceTable table, String text) {
+        check(Arrays.equals(bytes(OutboundFrame.ofDocument(MessageType.EDIT, FILE_NAME, table)),
+                            bytes(OutboundFrame.of(Message.edit(FILE_NAME, text)))), "EDIT çerçevesi uyuşmuyor");
+        check(Arrays.equals(bytes(OutboundFrame.ofDocument(MessageType.OPEN_FILE_RESPONSE, FILE_NAME, table)),
+                            (Message.openFileResponse(FILE_NAME, text).toProtocolString() + "\n")
+                                .getBytes(StandardCharsets.UTF_8)),
+              "OPEN_FILE_RESPONSE çerçevesi toProtocolString ile uyuşmuyor");
+        check(Arrays.equals(bytes(OutboundFrame.ofBinaryDocument(MessageType.EDIT, FILE_NAME, table)),
+                            bytes(OutboundFrame.of(Message.edit(FILE_NAME, text)).binary())),
+              "ikili EDIT çerçevesi uyuşmuyor");
+    }
+
+    // Blok blok okuma, geçersiz baytlar ve blok sınırına düşen çok baytlı karakterlerle fromUtf8 ile aynı olmalı
+    private static void checkBlockRead(PieceTable table, Random random) {
+        byte[] bytes = table.toByteArray();
+        for (int i = 0; i < 20 && bytes.length > 0; i++) {
+            bytes[random.nextInt(bytes.length)] = (byte) (0x80 + random.nextInt(0x80));
+        }
+        String expected = PieceTable.fromUtf8(bytes).toString();
+        for (int blockSize : new int[] {1024, 1025, 4099, 65536}) {
+            try {
+                PieceTable read = PieceTable.readUtf8(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                                                      bytes.length, blockSize);
+                check(read.toString().equals(expected), "blok okuma uyuşmuyor, blok " + blockSize);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static byte[] bytes(OutboundFrame frame) {
+        ByteBuffer view = frame.view();
+        byte[] result = new byte[view.remaining()];
+        view.get(result);
+        return result;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
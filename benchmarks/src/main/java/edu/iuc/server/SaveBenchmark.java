@@ -0,0 +1,93 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+// Eşzamanlı kalıcı kayıtların gecikmesini ve hızını ölçer: kayıt başına fsync ile toplu commit
+// karşılaştırılır. Kullanım: SaveBenchmark [kaydeden sayısı] [kaydeden başına kayıt] [içerik baytı] [dizin]
+// Dizin, files/ ile aynı diskte olmalıdır; tmpfs üzerinde fsync ölçülemez.
+public class SaveBenchmark {
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int savesPerWriter = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int contentBytes = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+        Path parent = Paths.get(args.length > 3 ? args[3] : ".");
+
+        PieceTable content = PieceTable.of("x".repeat(contentBytes));
+        System.out.printf("%d kaydeden x %d kayıt, %d bayt%n", writers, savesPerWriter, contentBytes);
+
+        run("Kayıt başına fsync", false, writers, savesPerWriter, content, parent);
+        run("Toplu commit", true, writers, savesPerWriter, content, parent);
+    }
+
+    private static void run(String label, boolean grouped, int writers, int savesPerWriter, PieceTable content,
+                            Path parent) throws Exception {
+        Path directory = Files.createTempDirectory(parent, "kayit-olcum");
+        try {
+            GroupCommitWriter writer = new GroupCommitWriter(directory, grouped);
+            long[] latencies = new long[writers * savesPerWriter];
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[writers];
+            IOException[] failure = {null};
+
+            for (int w = 0; w < writers; w++) {
+                int index = w;
+                // Her kaydeden kendi dosyasını yazar; sunucuda olduğu gibi bir dosyaya tek yazar düşer
+                threads[w] = Thread.ofVirtual().start(() -> {
+                    String fileName = "dosya-" + index + ".txt";
+                    try {
+                        start.await();
+                        for (int i = 0; i < savesPerWriter; i++) {
+                            long begin = System.nanoTime();
+                            writer.writeDurable(fileName, content);
+                            latencies[index * savesPerWriter + i] = System.nanoTime() - begin;
+                        }
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+
+            Arrays.sort(latencies);
+            System.out.printf("%s: %.0f kayıt/sn, p50 %.2f ms, p99 %.2f ms, en kötü %.2f ms, "
+                    + "fsync bariyeri başına %.1f kayıt%n",
+                label, latencies.length / (elapsed / 1e9),
+                percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                latencies[latencies.length - 1] / 1e6,
+                (double) writer.getCommitCount() / Math.max(1, writer.getBarrierCount()));
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
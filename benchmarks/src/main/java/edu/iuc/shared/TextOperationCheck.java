@@ -0,0 +1,107 @@
+package edu.iuc.shared;
+
+import java.util.Random;
+
+// TextOperation.transform'u rastgele işlem çiftleriyle TP1'e karşı sınar: aynı belgeye göre üretilmiş a ve b
+// için b'den sonra a' ile a'dan sonra b' aynı metni vermeli. Her işlemin encode/decode gidiş dönüşü ve bozuk
+// kodlamaların (negatif konum/uzunluk, taşan ekleme uzunluğu) IllegalArgumentException ile reddi de denetlenir.
+// Kullanım: TextOperationCheck [çift sayısı] [tohum]
+public class TextOperationCheck {
+    private static final int DEFAULT_PAIRS = 200_000;
+    private static final int MAX_COMPONENTS = 4;
+    private static final String[] ALPHABET = {
+        "a", "b", "z", " ", "\n", "ş", "ğ", "İ", "😀", ";", ",", ":", "i", "d"
+    };
+    private static final String[] MALFORMED = {
+        "i-1,1:a", "d-3,2", "i0,-1:", "d0,-2", "i0,5:ab", "i0,2147483647:a", "i0,99999999999:a",
+        "i0,1:a;d-1,1", "d0,1;i2,-4:abcd", "x0,1", "i0,1:ab", "d0", "i0,1"
+    };
+
+    public static void main(String[] args) {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PAIRS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Random random = new Random(seed);
+
+        checkMalformed();
+
+        long components = 0;
+        long start = System.nanoTime();
+        for (int i = 1; i <= pairs; i++) {
+            String document = randomText(random, random.nextInt(40));
+            TextOperation a = randomOperation(random, document);
+            TextOperation b = randomOperation(random, document);
+            components += a.getComponents().size() + b.getComponents().size();
+            checkRoundTrip(a);
+            checkRoundTrip(b);
+
+            for (boolean aWins : new boolean[] {true, false}) {
+                TextOperation[] transformed = TextOperation.transform(a, b, aWins);
+                String afterB = b.applyTo(document);
+                String afterA = a.applyTo(document);
+                check(transformed[0].isApplicableTo(afterB.length()), "a' uygulanamaz, çift " + i + ": " + a + b);
+                check(transformed[1].isApplicableTo(afterA.length()), "b' uygulanamaz, çift " + i + ": " + a + b);
+                String left = transformed[0].applyTo(afterB);
+                String right = transformed[1].applyTo(afterA);
+                check(left.equals(right), "TP1 bozuldu, çift " + i + " (aWins=" + aWins + "): belge '" + document
+                                          + "' a=" + a + " b=" + b + " -> '" + left + "' / '" + right + "'");
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("%d çift, %d adım, %d bozuk kodlama %.2f sn, %.0f çift/sn: tamam%n", pairs, components,
+                          MALFORMED.length, nanos / 1e9, pairs / (nanos / 1e9));
+    }
+
+    // Adımlar sırayla uygulandığı için her adımın konumu, önceki adımlardan sonraki belgeye göre seçilir
+    private static TextOperation randomOperation(Random random, String document) {
+        StringBuilder current = new StringBuilder(document);
+        TextOperation operation = TextOperation.empty();
+        int count = 1 + random.nextInt(MAX_COMPONENTS);
+        for (int i = 0; i < count; i++) {
+            int position = random.nextInt(current.length() + 1);
+            TextOperation step;
+            if (current.length() == 0 || random.nextBoolean()) {
+                step = TextOperation.insert(position, randomText(random, 1 + random.nextInt(5)));
+            } else {
+                int length = Math.min(current.length() - position, 1 + random.nextInt(6));
+                step = TextOperation.delete(position, length);
+            }
+            step.applyTo(current);
+            operation = operation.then(step);
+        }
+        check(operation.applyTo(document).equals(current.toString()), "birleştirilen işlem uyuşmuyor: " + operation);
+        return operation;
+    }
+
+    private static String randomText(Random random, int tokens) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return text.toString();
+    }
+
+    private static void checkRoundTrip(TextOperation operation) {
+        TextOperation decoded = TextOperation.decode(operation.encode());
+        check(decoded.encode().equals(operation.encode()), "encode/decode uyuşmuyor: " + operation);
+    }
+
+    // Bozuk kodlamalar StringIndexOutOfBoundsException gibi başka bir hatayla değil, IllegalArgumentException
+    // ile reddedilmeli; günlük kurtarma yarım kalan kaydı bu hatayla tanıyıp orada durur
+    private static void checkMalformed() {
+        for (String encoded : MALFORMED) {
+            try {
+                TextOperation.decode(encoded);
+                throw new IllegalStateException("bozuk kodlama kabul edildi: " + encoded);
+            } catch (IllegalArgumentException expected) {
+                // beklenen
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -110,6 +110,7 @@ class UserManager {
   constructor() {
     this.connectedUsers = new Map(); // username -> socket
     this.allClients = new Set(); // tüm socket'ler
+    this.fileRooms = new Map(); // dosya adı -> dosyayı açık tutan socket'ler
   }
 
   addUser(username, socket) {
@@ -139,6 +140,30 @@ class UserManager {
     }
 
     this.allClients.delete(socket);
+    this.unsubscribeAll(socket);
+  }
+
+  subscribe(fileName, socket) {
+    if (!this.fileRooms.has(fileName)) {
+      this.fileRooms.set(fileName, new Set());
+    }
+    this.fileRooms.get(fileName).add(socket);
+  }
+
+  unsubscribe(fileName, socket) {
+    const members = this.fileRooms.get(fileName);
+    if (members) {
+      members.delete(socket);
+      if (members.size === 0) {
+        this.fileRooms.delete(fileName);
+      }
+    }
+  }
+
+  unsubscribeAll(socket) {
+    for (const fileName of Array.from(this.fileRooms.keys())) {
+      this.unsubscribe(fileName, socket);
+    }
   }
 
   getUsernameBySocket(socket) {
@@ -164,6 +189,18 @@ class UserManager {
     }
   }
 
+  broadcastToRoom(message, fileName, sender) {
+    const members = this.fileRooms.get(fileName);
+    if (!members) {
+      return;
+    }
+    for (const client of members) {
+      if (client !== sender) {
+        client.emit('message', message);
+      }
+    }
+  }
+
   createMessage(type, param1 = '', param2 = '') {
     return `${type}#${param1}#${param2}`;
   }
@@ -260,6 +297,10 @@ io.on('connection', (socket) => {
         await handleSaveFile(param1, param2, socket);
         break;
 
+      case 'CLOSE_FILE':
+        userManager.unsubscribe(param1, socket);
+        break;
+
       default:
         socket.emit('message', userManager.createMessage('ERROR', 'UNKNOWN_COMMAND', 'Bilinmeyen komut: ' + command));
     }
@@ -304,6 +345,7 @@ io.on('connection', (socket) => {
   async function handleOpenFileRequest(fileName, socket) {
     try {
       const content = await fileManager.loadFile(fileName);
+      userManager.subscribe(fileName, socket);
       socket.emit('message', userManager.createMessage('OPEN_FILE_RESPONSE', fileName, content));
     } catch (error) {
       socket.emit('message', userManager.createMessage('ERROR', 'FILE_ERROR', error.message));
@@ -314,9 +356,9 @@ io.on('connection', (socket) => {
     try {
       await fileManager.saveFile(fileName, content);
       
-      // Diğer kullanıcılara değişikliği bildir
+      // Değişikliği sadece dosyayı açık tutan kullanıcılara bildir
       const editMessage = userManager.createMessage('EDIT', fileName, content);
-      userManager.broadcastToOthers(editMessage, socket);
+      userManager.broadcastToRoom(editMessage, fileName, socket);
       
     } catch (error) {
       socket.emit('message', userManager.createMessage('ERROR', 'SAVE_ERROR', error.message));
@@ -0,0 +1,102 @@
+package edu.iuc.client;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+// Parça parça gelen belgeyi doğrudan metin belgesine çözer; aktarım sürerken belgenin dışında en fazla bir
+// parça tutulur. Parça sınırında bölünen UTF-8 karakterinin baytları sonraki parçayla birleştirilir.
+// Aktarım bitene kadar aynı dosyaya gelen düzenlemeler bekletilir, belge yerine konunca sırayla uygulanır.
+class ChunkReceiver {
+    final String fileName;
+    final String transferId;
+    final long total;
+    final long version;
+
+    private final PlainDocument document = new PlainDocument();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CRC32 crc = new CRC32();
+    private final List<String> deferred = new ArrayList<>();
+    private byte[] carry = new byte[0];
+    private long received;
+
+    ChunkReceiver(String fileName, String transferId, long total, long version) {
+        this.fileName = fileName;
+        this.transferId = transferId;
+        this.total = total;
+        this.version = version;
+    }
+
+    // Sırası gelmemiş parça (kesintiden sonra tekrar gönderilen) yok sayılır
+    boolean accept(long offset, byte[] data) {
+        if (offset != received || received + data.length > total) {
+            return false;
+        }
+        crc.update(data);
+        received += data.length;
+
+        ByteBuffer input;
+        if (carry.length == 0) {
+            input = ByteBuffer.wrap(data);
+        } else {
+            input = ByteBuffer.allocate(carry.length + data.length).put(carry).put(data).flip();
+        }
+        decode(input, false);
+        carry = new byte[input.remaining()];
+        input.get(carry);
+        return true;
+    }
+
+    long getReceived() {
+        return received;
+    }
+
+    void defer(String rawMessage) {
+        deferred.add(rawMessage);
+    }
+
+    List<String> getDeferred() {
+        return deferred;
+    }
+
+    // İçerik eksiksiz ve CRC tutuyorsa hazır belge, değilse null
+    Document finish(long expectedCrc) {
+        if (received != total || crc.getValue() != expectedCrc) {
+            return null;
+        }
+        decode(ByteBuffer.wrap(carry), true);
+        CharBuffer tail = CharBuffer.allocate(4);
+        decoder.flush(tail);
+        append(tail.flip());
+        carry = new byte[0];
+        return document;
+    }
+
+    private void decode(ByteBuffer input, boolean endOfInput) {
+        CharBuffer output = CharBuffer.allocate(input.remaining() + 1);
+        decoder.decode(input, output, endOfInput);
+        append(output.flip());
+    }
+
+    private void append(CharBuffer text) {
+        if (!text.hasRemaining()) {
+            return;
+        }
+        try {
+            document.insertString(document.getLength(), text.toString(), null);
+        } catch (BadLocationException e) {
+            // Belgenin sonuna ekleme konum hatası vermez
+            throw new IllegalStateException(e);
+        }
+    }
+}
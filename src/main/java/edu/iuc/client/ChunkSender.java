@@ -0,0 +1,106 @@
+package edu.iuc.client;
+
+import edu.iuc.shared.Chunks;
+import edu.iuc.shared.Message;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Kayıt ya da tam içerikli düzenlemeyi parçalara bölerek gönderir. Metnin anlık görüntüsü bir kez alınır;
+// her parça gönderilirken ondan kodlanır, kodlanmış belge bütün halinde hiç tutulmaz. Sunucu onaylamadıkça
+// pencere kadar parçadan fazlası gönderilmez. Sunucu CHUNK_END'i geri gönderince yükleme tamamlanmıştır.
+class ChunkSender {
+    final String fileName;
+    final String transferId = Chunks.newTransferId();
+    final String kind;
+
+    private final String text;
+    final long total;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer chunk = ByteBuffer.allocate(Chunks.CHUNK_BYTES);
+    // crcPosition'a kadarki baytların CRC'si; kesintiden sonra yeniden kodlanan baytlar tekrar eklenmez
+    private final CRC32 crc = new CRC32();
+    private long crcPosition;
+    private CharBuffer source;
+    private long sent;
+    private long acked;
+    private boolean ended;
+    // CHUNK_BEGIN'e gelen ilk onay sunucunun kaldığı yeri bildirir; sonrakiler yoldaki parçaları onaylar
+    private boolean resuming;
+
+    ChunkSender(String fileName, String kind, String text) {
+        this.fileName = fileName;
+        this.kind = kind;
+        this.text = text;
+        this.total = Chunks.utf8Length(text);
+        rewind();
+    }
+
+    // Yeni bağlantıda da aynı kimlikle gönderilir; sunucu onayla kaldığı yeri bildirir
+    Message begin() {
+        resuming = true;
+        return Message.chunkBegin(fileName, transferId, kind, total, 0);
+    }
+
+    // Parçalı aktarımı desteklemeyen sunucuya aynı içerik tek mesajla gider
+    Message toMessage() {
+        return kind.equals(Chunks.SAVE) ? Message.saveFile(fileName, text) : Message.edit(fileName, text);
+    }
+
+    // Onaydan sonra gönderilebilecek parçalar ve hepsi gittiyse CHUNK_END
+    List<Message> acknowledge(long received) {
+        if (resuming && received != sent) {
+            // Sunucu eksik almış (bağlantı koptu); o noktadan yeniden kodlanır
+            rewind();
+            while (sent < Math.min(received, total)) {
+                nextChunk();
+            }
+            ended = false;
+        }
+        resuming = false;
+        acked = Math.max(acked, Math.min(received, sent));
+
+        List<Message> messages = new ArrayList<>();
+        while (sent < total && sent - acked < (long) Chunks.CHUNK_BYTES * Chunks.WINDOW) {
+            long offset = sent;
+            nextChunk();
+            messages.add(Message.chunkData(transferId, offset, Chunks.encode(chunk.array(), 0, chunk.limit())));
+        }
+        if (sent == total && !ended) {
+            ended = true;
+            messages.add(Message.chunkEnd(transferId, crc.getValue()));
+        }
+        return messages;
+    }
+
+    private void rewind() {
+        encoder.reset();
+        source = CharBuffer.wrap(text);
+        sent = 0;
+        acked = 0;
+    }
+
+    // Sıradaki parçayı kodlar; karakter ortadan bölünmez, o yüzden parça tampondan biraz kısa olabilir
+    private void nextChunk() {
+        chunk.clear();
+        encoder.encode(source, chunk, true);
+        if (!source.hasRemaining()) {
+            encoder.flush(chunk);
+        }
+        chunk.flip();
+        int count = chunk.limit();
+        if (sent + count > crcPosition) {
+            int skip = (int) (crcPosition - sent);
+            crc.update(chunk.array(), skip, count - skip);
+            crcPosition = sent + count;
+        }
+        sent += count;
+    }
+}
@@ -0,0 +1,64 @@
+package edu.iuc.client;
+
+import edu.iuc.shared.TextOperation;
+
+// Açık bir dosyanın delta eşitleme durumu: sunucuda onaylanmayı bekleyen en fazla bir düzenleme
+// ve onun arkasında biriken yerel değişiklikler. Sadece Swing thread'inden kullanılır.
+class DeltaSession {
+    private long serverVersion = -1;
+    private TextOperation inflight;
+    private TextOperation buffer = TextOperation.empty();
+
+    long getServerVersion() {
+        return serverVersion;
+    }
+
+    boolean isSynced() {
+        return serverVersion >= 0;
+    }
+
+    boolean hasPendingChanges() {
+        return inflight != null || !buffer.isEmpty();
+    }
+
+    void recordLocal(TextOperation operation) {
+        buffer = buffer.then(operation);
+    }
+
+    // Gönderilecek düzenleme yoksa veya önceki henüz onaylanmadıysa null döner
+    TextOperation takeOutgoing() {
+        if (!isSynced() || inflight != null || buffer.isEmpty()) {
+            return null;
+        }
+        inflight = buffer;
+        buffer = TextOperation.empty();
+        return inflight;
+    }
+
+    void acknowledge(long version) {
+        inflight = null;
+        serverVersion = Math.max(serverVersion, version);
+    }
+
+    // Sunucudan gelen düzenleme bekleyen yerel değişikliklere göre dönüştürülür.
+    // Sunucu sırası esas alındığı için aynı noktaya eklemelerde uzaktaki metin önce gelir.
+    TextOperation receiveRemote(long version, TextOperation remote) {
+        if (version <= serverVersion) {
+            return null;
+        }
+        serverVersion = version;
+
+        TextOperation result = remote;
+        if (inflight != null) {
+            TextOperation[] transformed = TextOperation.transform(inflight, result, false);
+            inflight = transformed[0];
+            result = transformed[1];
+        }
+        if (!buffer.isEmpty()) {
+            TextOperation[] transformed = TextOperation.transform(buffer, result, false);
+            buffer = transformed[0];
+            result = transformed[1];
+        }
+        return result;
+    }
+}
@@ -1,11 +1,25 @@
 package edu.iuc.client;
 
+import edu.iuc.shared.Capabilities;
+import edu.iuc.shared.Chunks;
+import edu.iuc.shared.FileEntry;
+import edu.iuc.shared.FileSort;
 import edu.iuc.shared.Message;
+import edu.iuc.shared.MessageType;
+import edu.iuc.shared.TextOperation;
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayDeque;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 
 public class EditorFrame extends JFrame {
@@ -24,6 +38,31 @@ public class EditorFrame extends JFrame {
     private Map<String, JTextArea> openFiles = new HashMap<>();
     private Map<String, Boolean> fileChanged = new HashMap<>();
 
+    // Sunucu delta düzenlemeyi destekliyorsa dosya başına eşitleme durumu
+    private boolean deltaEnabled = false;
+    private Map<String, DeltaSession> deltaSessions = new HashMap<>();
+    private boolean applyingRemote = false;
+    private Timer deltaFlushTimer;
+
+    // Sunucu sayfalı listelemeyi destekliyorsa dosya listesi kaydırdıkça ada göre sayfa sayfa yüklenir
+    private static final int FILE_PAGE_SIZE = 100;
+    private boolean pagingEnabled = false;
+    // Sonraki sayfanın imleci; null ise listenin tamamı yüklendi
+    private String nextFileCursor = null;
+    private boolean filePageRequested = false;
+    // Yenilemeden önce istenmiş, gelince atılacak sayfa sayısı
+    private int staleFilePages = 0;
+    // Henüz yüklenmemiş aralığa düşen FILE_ADDED adları; sayfa gelince yerine konur
+    private TreeSet<String> pendingAddedFiles = new TreeSet<>();
+    private Map<String, FileEntry> fileDetails = new HashMap<>();
+
+    // Sunucu parçalı aktarımı destekliyorsa büyük içerik CHUNK_* ile gelir ve gider; bağlantı koparsa
+    // yeniden girişte kaldığı yerden sürer
+    private boolean chunksEnabled = false;
+    private Map<String, ChunkReceiver> downloads = new HashMap<>();
+    // Dosya başına sırayla gönderilir: sunucu yüklemeleri bitiş sırasıyla uygular, eskisi yenisini ezmesin
+    private Map<String, ArrayDeque<ChunkSender>> uploads = new HashMap<>();
+
     public EditorFrame() {
         this("EditorFrame", null);
     }
@@ -126,6 +165,16 @@ public class EditorFrame extends JFrame {
         fileListModel = new DefaultListModel<>();
         fileList = new JList<>(fileListModel);
         fileList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        fileList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                JLabel label = (JLabel) super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                FileEntry entry = fileDetails.get(value);
+                label.setToolTipText(entry != null ? describeFile(entry) : null);
+                return label;
+            }
+        });
         fileList.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
@@ -139,6 +188,7 @@ public class EditorFrame extends JFrame {
         });
 
         JScrollPane scrollPane = new JScrollPane(fileList);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> loadMoreFilesIfVisible());
         panel.add(scrollPane, BorderLayout.CENTER);
 
         JPanel buttonPanel = new JPanel(new GridLayout(4, 1, 5, 5));
@@ -278,7 +328,9 @@ public class EditorFrame extends JFrame {
 
             openFiles.remove(fileName);
             fileChanged.remove(fileName);
+            deltaSessions.remove(fileName);
             tabbedPane.removeTabAt(tabIndex);
+            sendMessage(Message.closeFile(fileName));
             addStatus("Dosya kapatıldı: " + fileName);
         }
     }
@@ -304,7 +356,8 @@ public class EditorFrame extends JFrame {
     private void saveFile(String fileName) {
         JTextArea textArea = openFiles.get(fileName);
         if (textArea != null) {
-            sendMessage(Message.saveFile(fileName, textArea.getText()));
+            flushDeltas();
+            sendContent(fileName, Chunks.SAVE, textArea.getText());
             addStatus("Dosya kaydediliyor: " + fileName);
         }
     }
@@ -364,12 +417,13 @@ public class EditorFrame extends JFrame {
         socketIOClient = new SocketIOClientAdapter();
         
         // Event handler'ları ayarla
-        socketIOClient.setMessageHandler(this::processServerMessage);
+        socketIOClient.setMessageHandler(raw -> SwingUtilities.invokeLater(() -> processServerMessage(raw)));
         
         socketIOClient.setConnectHandler(status -> {
             SwingUtilities.invokeLater(() -> {
                 isConnected = true;
-                sendMessage(Message.login(username));
+                sendMessage(Message.login(username,
+                    Capabilities.join(Capabilities.DELTA, Capabilities.FILES, Capabilities.PAGES, Capabilities.CHUNKS)));
                 addStatus("Sunucuya bağlanıldı: " + username);
                 updateParentStatus("Bağlanıyor...");
             });
@@ -406,10 +460,13 @@ public class EditorFrame extends JFrame {
     private void processServerMessage(String rawMessage) {
         try {
             Message message = Message.fromRaw(rawMessage);
+            if (deferForDownload(message, rawMessage)) {
+                return;
+            }
 
             switch (message.getType()) {
                 case SUCCESS:
-                    handleSuccess(message.getSuccessMessage());
+                    handleSuccess(message.getSuccessMessage(), message.getCapabilities());
                     break;
 
                 case ERROR:
@@ -420,6 +477,23 @@ public class EditorFrame extends JFrame {
                     handleFileListResponse(message.getFileList());
                     break;
 
+                case LIST_FILES_PAGE_RESPONSE:
+                    handleFilePage(message.getPageCursor(), message.getFileEntries());
+                    break;
+
+                case LIST_FILES_REQUEST:
+                    // Artımlı olay göndermeyen sunucu listenin değiştiğini böyle bildirir
+                    requestFileList();
+                    break;
+
+                case FILE_ADDED:
+                    handleFileAdded(message.getFileName());
+                    break;
+
+                case FILE_REMOVED:
+                    handleFileRemoved(message.getFileName());
+                    break;
+
                 case OPEN_FILE_RESPONSE:
                     handleOpenFileResponse(message.getFileName(), message.getFileContent());
                     break;
@@ -428,6 +502,30 @@ public class EditorFrame extends JFrame {
                     handleEditUpdate(message.getFileName(), message.getFileContent());
                     break;
 
+                case EDIT_DELTA:
+                    handleEditDelta(message.getFileName(), message.getDeltaVersion(), message.getDeltaOperation());
+                    break;
+
+                case DELTA_ACK:
+                    handleDeltaAck(message.getFileName(), message.getDeltaVersion());
+                    break;
+
+                case CHUNK_BEGIN:
+                    handleChunkBegin(message);
+                    break;
+
+                case CHUNK_DATA:
+                    handleChunkData(message);
+                    break;
+
+                case CHUNK_END:
+                    handleChunkEnd(message);
+                    break;
+
+                case CHUNK_ACK:
+                    handleChunkAck(message);
+                    break;
+
                 case USER_JOINED:
                     addStatus("👤 Kullanıcı katıldı: " + message.getUsername());
                     break;
@@ -444,9 +542,16 @@ public class EditorFrame extends JFrame {
         }
     }
 
-    private void handleSuccess(String message) {
+    private void handleSuccess(String message, String detail) {
         if (message.equals("Giriş başarılı")) {
             isConnected = true;
+            deltaEnabled = Capabilities.parse(detail).contains(Capabilities.DELTA);
+            pagingEnabled = Capabilities.parse(detail).contains(Capabilities.PAGES);
+            chunksEnabled = Capabilities.parse(detail).contains(Capabilities.CHUNKS);
+            resumeTransfers();
+            if (pagingEnabled) {
+                reloadFileList();
+            }
             statusLabel.setText("✅ Bağlı: " + username);
             statusLabel.setForeground(Color.GREEN);
             addStatus("✅ Başarıyla giriş yapıldı!");
@@ -458,6 +563,21 @@ public class EditorFrame extends JFrame {
     }
 
     private void handleError(String errorType, String errorMessage) {
+        if (errorType.equals("DELTA_REJECTED")) {
+            // Sunucuyla eşitlik bozuldu, belge yeniden istenerek güncel içerik alınır
+            deltaSessions.remove(errorMessage);
+            if (openFiles.containsKey(errorMessage)) {
+                addStatus("🔄 Dosya yeniden eşitleniyor: " + errorMessage);
+                sendMessage(Message.openFileRequest(errorMessage));
+            }
+            return;
+        }
+
+        if (errorType.equals("TRANSFER_EXPIRED") || errorType.equals("TRANSFER_ERROR")) {
+            handleTransferFailure(errorType, errorMessage);
+            return;
+        }
+
         addStatus("❌ Hata [" + errorType + "]: " + errorMessage);
 
         if (errorType.equals("USERNAME_TAKEN")) {
@@ -485,8 +605,385 @@ public class EditorFrame extends JFrame {
         addStatus("📁 Dosya listesi güncellendi (" + fileListModel.size() + " dosya)");
     }
 
-    private void handleOpenFileResponse(String fileName, String content) {
-        openFileInEditor(fileName, content.replace("\\n", "\n"));
+    // Liste sıralı tutulur; aynı ad ikinci kez gelirse yok sayılır
+    private void handleFileAdded(String fileName) {
+        if (isBeyondLoadedFiles(fileName)) {
+            // Yüklenmemiş aralıkta; sayfası önceden hesaplanmışsa içinde olmayabilir, o yüzden saklanır
+            pendingAddedFiles.add(fileName);
+            return;
+        }
+        if (fileListModel.contains(fileName)) {
+            return;
+        }
+        int index = 0;
+        while (index < fileListModel.size() && fileListModel.get(index).compareTo(fileName) < 0) {
+            index++;
+        }
+        fileListModel.add(index, fileName);
+        addStatus("📄 Dosya eklendi: " + fileName);
+    }
+
+    private void handleFileRemoved(String fileName) {
+        pendingAddedFiles.remove(fileName);
+        fileDetails.remove(fileName);
+        if (fileListModel.removeElement(fileName)) {
+            addStatus("🗑 Dosya silindi: " + fileName);
+        }
+    }
+
+    // Sayfalar ada göre artan sırada ve imleçten sonrasını getirir; listenin sonuna eklenir
+    private void handleFilePage(String cursor, List<FileEntry> entries) {
+        if (staleFilePages > 0) {
+            staleFilePages--;
+            return;
+        }
+        filePageRequested = false;
+        for (FileEntry entry : entries) {
+            fileDetails.put(entry.getName(), entry);
+            pendingAddedFiles.remove(entry.getName());
+            fileListModel.addElement(entry.getName());
+        }
+        nextFileCursor = cursor.isEmpty() ? null : cursor;
+
+        // Artık yüklenmiş aralığa düşen bekleyen adlar sıralı yerlerine konur
+        Iterator<String> pending = pendingAddedFiles.iterator();
+        while (pending.hasNext()) {
+            String fileName = pending.next();
+            if (isBeyondLoadedFiles(fileName)) {
+                break;
+            }
+            pending.remove();
+            handleFileAdded(fileName);
+        }
+
+        if (nextFileCursor == null) {
+            addStatus("📁 Dosya listesi yüklendi (" + fileListModel.size() + " dosya)");
+        }
+        // Liste görünür alanı doldurmuyorsa kaydırma olmadan da sonraki sayfa istenir
+        SwingUtilities.invokeLater(this::loadMoreFilesIfVisible);
+    }
+
+    // Sayfalı listede son yüklenen ad imleçtir; ondan sonrası sonraki sayfalarla gelir
+    private boolean isBeyondLoadedFiles(String fileName) {
+        return nextFileCursor != null
+            && (fileListModel.isEmpty() || fileName.compareTo(fileListModel.lastElement()) > 0);
+    }
+
+    private void reloadFileList() {
+        if (filePageRequested) {
+            staleFilePages++;
+        }
+        filePageRequested = false;
+        fileListModel.clear();
+        fileDetails.clear();
+        pendingAddedFiles.clear();
+        nextFileCursor = "";
+        requestNextFilePage();
+    }
+
+    private void requestNextFilePage() {
+        if (!isConnected || nextFileCursor == null || filePageRequested) {
+            return;
+        }
+        filePageRequested = true;
+        sendMessage(Message.listFilesPage(nextFileCursor, FILE_PAGE_SIZE, FileSort.NAME, false, ""));
+    }
+
+    // Son sayfaya yaklaşılınca sonraki sayfa istenir
+    private void loadMoreFilesIfVisible() {
+        if (!pagingEnabled || nextFileCursor == null) {
+            return;
+        }
+        if (fileList.getLastVisibleIndex() >= fileListModel.size() - FILE_PAGE_SIZE / 4) {
+            requestNextFilePage();
+        }
+    }
+
+    private static String describeFile(FileEntry entry) {
+        String version = entry.getVersion() > 0 ? ", sürüm " + entry.getVersion() : "";
+        return String.format("%s - %,d bayt, %tF %<tR%s", entry.getName(), entry.getSize(),
+                             new Date(entry.getModified()), version);
+    }
+
+    private void handleOpenFileResponse(String fileName, String text) {
+        if (deltaEnabled) {
+            deltaSessions.put(fileName, new DeltaSession());
+        }
+
+        JTextArea textArea = openFiles.get(fileName);
+        if (textArea != null) {
+            // Yeniden eşitleme: sürüm DELTA_ACK ile gelecek
+            applyRemote(fileName, () -> textArea.setText(text));
+            return;
+        }
+        openFileInEditor(fileName, text);
+    }
+
+    // Parçalı açılan dosyaya gelen düzenlemeler belge yerine konana kadar bekletilir
+    private boolean deferForDownload(Message message, String rawMessage) {
+        MessageType type = message.getType();
+        if (type != MessageType.EDIT && type != MessageType.EDIT_DELTA && type != MessageType.DELTA_ACK) {
+            return false;
+        }
+        for (ChunkReceiver receiver : downloads.values()) {
+            if (receiver.fileName.equals(message.getFileName())) {
+                receiver.defer(rawMessage);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handleChunkBegin(Message message) {
+        ChunkReceiver receiver = new ChunkReceiver(message.getFileName(), message.getTransferId(),
+            message.getChunkTotal(), message.getChunkVersion());
+        downloads.put(receiver.transferId, receiver);
+    }
+
+    private void handleChunkData(Message message) {
+        ChunkReceiver receiver = downloads.get(message.getTransferId());
+        if (receiver == null) {
+            return;
+        }
+        receiver.accept(message.getChunkPosition(), message.getChunkData());
+        sendMessage(Message.chunkAck(receiver.transferId, receiver.getReceived()));
+    }
+
+    // İndirmenin sonu ya da sunucunun yüklemeyi aldığını bildirmesi
+    private void handleChunkEnd(Message message) {
+        ChunkReceiver receiver = downloads.remove(message.getTransferId());
+        if (receiver == null) {
+            finishUpload(message.getTransferId());
+            return;
+        }
+        // Sunucu aktarımı son onayla bırakır
+        sendMessage(Message.chunkAck(receiver.transferId, receiver.getReceived()));
+
+        Document document = receiver.finish(message.getChunkCrc());
+        if (document == null) {
+            addStatus("❌ Dosya eksik geldi, yeniden isteniyor: " + receiver.fileName);
+            sendMessage(Message.openFileRequest(receiver.fileName));
+            return;
+        }
+
+        String fileName = receiver.fileName;
+        if (deltaEnabled) {
+            deltaSessions.put(fileName, new DeltaSession());
+        }
+        JTextArea textArea = openFiles.get(fileName);
+        if (textArea != null) {
+            applyRemote(fileName, () -> {
+                document.addDocumentListener(createEditListener(fileName));
+                textArea.setDocument(document);
+            });
+        } else {
+            openFileInEditor(fileName, document);
+        }
+        if (deltaEnabled) {
+            handleDeltaAck(fileName, receiver.version);
+        }
+        for (String rawMessage : receiver.getDeferred()) {
+            processServerMessage(rawMessage);
+        }
+    }
+
+    private void handleChunkAck(Message message) {
+        ChunkSender sender = findUpload(message.getTransferId());
+        if (sender == null) {
+            return;
+        }
+        for (Message chunk : sender.acknowledge(message.getChunkPosition())) {
+            sendMessage(chunk);
+        }
+    }
+
+    // Büyük içerik sunucu destekliyorsa parçalara bölünerek gönderilir
+    private void sendContent(String fileName, String kind, String text) {
+        ChunkSender sender = new ChunkSender(fileName, kind, text);
+        if (!chunksEnabled || sender.total <= Chunks.CHUNK_BYTES) {
+            sendMessage(sender.toMessage());
+            return;
+        }
+
+        ArrayDeque<ChunkSender> queue = uploads.computeIfAbsent(fileName, k -> new ArrayDeque<>());
+        // Sırada bekleyen düzenleme yenisiyle geçersizleşir; kayıtlar atlanmaz
+        if (queue.size() > 1 && queue.peekLast().kind.equals(Chunks.EDIT)) {
+            queue.pollLast();
+        }
+        queue.addLast(sender);
+        if (queue.size() == 1) {
+            sendMessage(sender.begin());
+        }
+    }
+
+    // Dosya başına sadece kuyruğun başındaki yükleme gönderilmektedir
+    private ChunkSender findUpload(String transferId) {
+        for (ArrayDeque<ChunkSender> queue : uploads.values()) {
+            ChunkSender sender = queue.peekFirst();
+            if (sender.transferId.equals(transferId)) {
+                return sender;
+            }
+        }
+        return null;
+    }
+
+    private void finishUpload(String transferId) {
+        ChunkSender sender = findUpload(transferId);
+        if (sender == null) {
+            return;
+        }
+        ArrayDeque<ChunkSender> queue = uploads.get(sender.fileName);
+        queue.pollFirst();
+        if (queue.isEmpty()) {
+            uploads.remove(sender.fileName);
+        } else {
+            sendMessage(queue.peekFirst().begin());
+        }
+    }
+
+    private void handleTransferFailure(String errorType, String transferId) {
+        ChunkReceiver receiver = downloads.remove(transferId);
+        if (receiver != null) {
+            // Aktarım sürdürülemiyor; arada kaçırılan düzenlemeler olabileceği için dosya baştan açılır
+            addStatus("🔄 Dosya yeniden açılıyor: " + receiver.fileName);
+            sendMessage(Message.openFileRequest(receiver.fileName));
+            return;
+        }
+
+        ChunkSender sender = findUpload(transferId);
+        if (sender == null) {
+            return;
+        }
+        if (errorType.equals("TRANSFER_EXPIRED")) {
+            // Sunucu yüklemeyi bırakmış; aynı kimlikle baştan başlanır
+            sendMessage(sender.begin());
+            return;
+        }
+        addStatus("❌ Dosya gönderilemedi: " + sender.fileName);
+        finishUpload(transferId);
+    }
+
+    // Yeniden girişte yarım kalan aktarımlar kaldığı yerden sürer. Sunucu parçalı aktarımı artık
+    // desteklemiyorsa dosyalar yeniden açılır, yüklemeler tek mesaj olarak gönderilir.
+    private void resumeTransfers() {
+        for (ChunkReceiver receiver : downloads.values()) {
+            sendMessage(chunksEnabled
+                ? Message.chunkResume(receiver.transferId, receiver.getReceived())
+                : Message.openFileRequest(receiver.fileName));
+        }
+        for (ArrayDeque<ChunkSender> queue : uploads.values()) {
+            if (chunksEnabled) {
+                sendMessage(queue.peekFirst().begin());
+                continue;
+            }
+            for (ChunkSender sender : queue) {
+                sendMessage(sender.toMessage());
+            }
+        }
+        if (!chunksEnabled) {
+            downloads.clear();
+            uploads.clear();
+        }
+    }
+
+    private void handleEditDelta(String fileName, long version, TextOperation operation) {
+        DeltaSession session = deltaSessions.get(fileName);
+        JTextArea textArea = openFiles.get(fileName);
+        if (session == null || textArea == null) {
+            return;
+        }
+
+        TextOperation transformed = session.receiveRemote(version, operation);
+        if (transformed == null || transformed.isEmpty()) {
+            return;
+        }
+
+        applyRemote(fileName, () -> {
+            Document document = textArea.getDocument();
+            try {
+                for (TextOperation.Component component : transformed.getComponents()) {
+                    if (component.isInsert()) {
+                        document.insertString(component.getPosition(), component.getText(), null);
+                    } else {
+                        document.remove(component.getPosition(), component.getLength());
+                    }
+                }
+            } catch (BadLocationException e) {
+                deltaSessions.remove(fileName);
+                sendMessage(Message.openFileRequest(fileName));
+            }
+        });
+    }
+
+    private void handleDeltaAck(String fileName, long version) {
+        DeltaSession session = deltaSessions.get(fileName);
+        if (session == null) {
+            return;
+        }
+        session.acknowledge(version);
+        sendPendingDelta(fileName, session);
+        if (!session.hasPendingChanges()) {
+            setTabModified(fileName, false);
+        }
+    }
+
+    // Sunucudan gelen değişiklik belgeye uygulanırken dinleyici bunu yerel düzenleme saymaz
+    private void applyRemote(String fileName, Runnable change) {
+        applyingRemote = true;
+        try {
+            change.run();
+        } finally {
+            applyingRemote = false;
+        }
+    }
+
+    private void onLocalDelta(String fileName, TextOperation operation) {
+        if (applyingRemote) {
+            return;
+        }
+        DeltaSession session = deltaSessions.get(fileName);
+        if (session == null) {
+            return;
+        }
+        session.recordLocal(operation);
+        setTabModified(fileName, true);
+
+        // Kısa aralıklarla toplanan tuş vuruşları tek düzenleme olarak gönderilir
+        if (deltaFlushTimer == null) {
+            deltaFlushTimer = new Timer(150, e -> flushDeltas());
+            deltaFlushTimer.setRepeats(false);
+        }
+        deltaFlushTimer.restart();
+    }
+
+    private void flushDeltas() {
+        for (Map.Entry<String, DeltaSession> entry : deltaSessions.entrySet()) {
+            sendPendingDelta(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void sendPendingDelta(String fileName, DeltaSession session) {
+        long baseVersion = session.getServerVersion();
+        TextOperation outgoing = session.takeOutgoing();
+        if (outgoing != null) {
+            sendMessage(Message.editDelta(fileName, baseVersion, outgoing));
+        }
+    }
+
+    private void setTabModified(String fileName, boolean modified) {
+        fileChanged.put(fileName, modified);
+        String from = modified ? fileName : fileName + "*";
+        String to = modified ? fileName + "*" : fileName;
+        for (int i = 0; i < tabbedPane.getTabCount(); i++) {
+            Component tabComponent = tabbedPane.getTabComponentAt(i);
+            if (tabComponent instanceof JPanel) {
+                JLabel titleLabel = (JLabel) ((JPanel) tabComponent).getComponent(0);
+                if (titleLabel.getText().equals(from)) {
+                    titleLabel.setText(to);
+                    break;
+                }
+            }
+        }
     }
 
     private void handleEditUpdate(String fileName, String content) {
@@ -494,7 +991,7 @@ public class EditorFrame extends JFrame {
         if (textArea != null) {
 
             int caretPosition = textArea.getCaretPosition();
-            textArea.setText(content.replace("\\n", "\n"));
+            textArea.setText(content);
 
             try {
                 textArea.setCaretPosition(Math.min(caretPosition, textArea.getText().length()));
@@ -531,30 +1028,24 @@ public class EditorFrame extends JFrame {
     }
 
     private void openFileInEditor(String fileName, String content) {
+        PlainDocument document = new PlainDocument();
+        try {
+            document.insertString(0, content, null);
+        } catch (BadLocationException e) {
+            // Boş belgenin başına ekleme konum hatası vermez
+        }
+        openFileInEditor(fileName, document);
+    }
+
+    private void openFileInEditor(String fileName, Document document) {
         if (openFiles.containsKey(fileName)) {
             return;
         }
 
-        JTextArea textArea = new JTextArea(content);
+        JTextArea textArea = new JTextArea(document);
         textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
         textArea.setTabSize(4);
-    
-        textArea.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            @Override
-            public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                onTextChanged(fileName);
-            }
-
-            @Override
-            public void removeUpdate(javax.swing.event.DocumentEvent e) {
-                onTextChanged(fileName);
-            }
-
-            @Override
-            public void changedUpdate(javax.swing.event.DocumentEvent e) {
-                onTextChanged(fileName);
-            }
-        });
+        document.addDocumentListener(createEditListener(fileName));
 
         openFiles.put(fileName, textArea);
         fileChanged.put(fileName, false);
@@ -593,6 +1084,41 @@ public class EditorFrame extends JFrame {
         addStatus("📄 Dosya açıldı: " + fileName);
     }
 
+    private javax.swing.event.DocumentListener createEditListener(String fileName) {
+        return new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                if (deltaEnabled) {
+                    try {
+                        String inserted = e.getDocument().getText(e.getOffset(), e.getLength());
+                        onLocalDelta(fileName, TextOperation.insert(e.getOffset(), inserted));
+                    } catch (BadLocationException ex) {
+                        addStatus("❌ Düzenleme okunamadı: " + ex.getMessage());
+                    }
+                    return;
+                }
+                onTextChanged(fileName);
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                if (deltaEnabled) {
+                    onLocalDelta(fileName, TextOperation.delete(e.getOffset(), e.getLength()));
+                    return;
+                }
+                onTextChanged(fileName);
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                if (deltaEnabled) {
+                    return;
+                }
+                onTextChanged(fileName);
+            }
+        };
+    }
+
     private void onTextChanged(String fileName) {
         if (!fileChanged.getOrDefault(fileName, false)) {
             fileChanged.put(fileName, true);
@@ -612,7 +1138,7 @@ public class EditorFrame extends JFrame {
         Timer timer = new Timer(800, e -> {
             JTextArea textArea = openFiles.get(fileName);
             if (textArea != null && fileChanged.getOrDefault(fileName, false)) {
-                sendMessage(Message.edit(fileName, textArea.getText()));
+                sendContent(fileName, Chunks.EDIT, textArea.getText());
                 fileChanged.put(fileName, false);
 
                 // Tab başlığını normal hale getir
@@ -644,7 +1170,9 @@ public class EditorFrame extends JFrame {
     }
 
     private void requestFileList() {
-        if (isConnected) {
+        if (pagingEnabled) {
+            reloadFileList();
+        } else if (isConnected) {
             sendMessage(Message.listFilesRequest());
         }
     }
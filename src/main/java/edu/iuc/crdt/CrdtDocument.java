@@ -0,0 +1,793 @@
+package edu.iuc.crdt;
+
+import edu.iuc.shared.TextOperation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// YATA tarzı dizi CRDT'si. Her karakter değişmez bir kimlik ve eklendiği andaki sol/sağ komşusunun
+// kimliğini taşır; eşzamanlı eklemeler bu kökenlere göre her replikada aynı sıraya yerleşir.
+// Karakterler koşular halinde tutulduğu için bellek işlem sayısıyla değil belge boyutuyla büyür;
+// kararlı silinmiş koşular collect/discard ile atıldığından mezar taşları da görünür koşu sayısını aşmaz.
+// Thread-safe değildir; çağıran belge başına tek bir thread'den erişmelidir.
+public class CrdtDocument {
+    private final int replicaId;
+    private final Map<Integer, ReplicaRuns> runsByReplica = new HashMap<>();
+    private final List<CrdtOperation> pending = new ArrayList<>();
+    private Item head;
+    private Item root;
+    private int length;
+    private int itemCount;
+    private int prioritySeed = 0x2545F491;
+    // Silinen koşulara işlenir; beginCollection her çağrıda artırır
+    private int collectionMark;
+    private int deletionsSinceMark;
+
+    // Son seek çağrısının bulduğu koşudan önceki görünür karakter sayısı
+    private int seekStart;
+
+    public CrdtDocument(int replicaId) {
+        CrdtId.of(replicaId, 0);
+        this.replicaId = replicaId;
+    }
+
+    public int getReplicaId() {
+        return replicaId;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public String getText() {
+        StringBuilder sb = new StringBuilder(length);
+        for (Item item = head; item != null; item = item.right) {
+            if (!item.deleted) {
+                sb.append(item.content);
+            }
+        }
+        return sb.toString();
+    }
+
+    public int getDeletionsSinceMark() {
+        return deletionsSinceMark;
+    }
+
+    public int getTombstoneCount() {
+        int count = 0;
+        for (Item item = head; item != null; item = item.right) {
+            if (item.deleted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ---- Yerel düzenlemeler ----
+
+    public List<CrdtOperation> localInsert(int index, String text) {
+        if (index < 0 || index > length) {
+            throw new IllegalArgumentException("Geçersiz konum: " + index);
+        }
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Item left = null;
+        if (index > 0) {
+            left = seek(index - 1);
+            int offset = index - 1 - seekStart;
+            if (offset < left.length - 1) {
+                split(left, offset + 1);
+            }
+        }
+        Item right = left == null ? head : left.right;
+
+        ReplicaRuns runs = runs(replicaId);
+        long id = CrdtId.of(replicaId, runs.nextClock);
+        long originLeft = left == null ? CrdtId.NONE : left.lastId();
+        long originRight = right == null ? CrdtId.NONE : right.id;
+
+        if (left != null && !left.deleted && left.lastId() + 1 == id && left.originRight == originRight) {
+            // Aynı noktada yazmaya devam: mevcut koşu uzatılır
+            left.content.append(text);
+            left.length += text.length();
+            refreshUp(left);
+        } else {
+            Item item = newItem(id, originLeft, originRight, new StringBuilder(text), text.length(), false);
+            linkAfter(left, item);
+            runs.items.add(item);
+        }
+        runs.nextClock += text.length();
+        length += text.length();
+        return List.of(CrdtOperation.insert(id, originLeft, originRight, text));
+    }
+
+    public List<CrdtOperation> localDelete(int index, int count) {
+        if (index < 0 || count < 0 || index + count > length) {
+            throw new IllegalArgumentException("Silme belge sınırlarını aşıyor: " + index + "+" + count);
+        }
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        List<CrdtOperation> operations = new ArrayList<>();
+        Item item = seek(index);
+        int offset = index - seekStart;
+        if (offset > 0) {
+            item = split(item, offset);
+        }
+
+        int remaining = count;
+        while (remaining > 0) {
+            if (item.deleted) {
+                item = item.right;
+                continue;
+            }
+            if (item.length > remaining) {
+                split(item, remaining);
+            }
+            remaining -= item.length;
+            addDelete(operations, item.id, item.length);
+            markDeleted(item);
+            mergeAround(item);
+            item = item.right;
+        }
+        return operations;
+    }
+
+    // Sırayla uygulanan konumsal düzenlemeyi yerel CRDT işlemlerine çevirir
+    public List<CrdtOperation> applyLocal(TextOperation operation) {
+        List<CrdtOperation> result = new ArrayList<>();
+        for (TextOperation.Component component : operation.getComponents()) {
+            if (component.isInsert()) {
+                result.addAll(localInsert(component.getPosition(), component.getText()));
+            } else {
+                result.addAll(localDelete(component.getPosition(), component.getLength()));
+            }
+        }
+        return result;
+    }
+
+    // ---- Uzak işlemler ----
+
+    // Dönen düzenleme, işlemlerin bu replikanın görünür metnine etkisidir. Bağımlılığı henüz gelmemiş
+    // işlemler bekletilir, tekrar gelen işlemler yok sayılır.
+    public TextOperation apply(List<CrdtOperation> operations) {
+        TextOperation effect = TextOperation.empty();
+        boolean progressed = false;
+        for (CrdtOperation operation : operations) {
+            if (isReady(operation)) {
+                effect = effect.then(integrate(operation));
+                progressed = true;
+            } else {
+                pending.add(operation);
+            }
+        }
+
+        while (progressed && !pending.isEmpty()) {
+            progressed = false;
+            Iterator<CrdtOperation> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                CrdtOperation operation = iterator.next();
+                if (isReady(operation)) {
+                    iterator.remove();
+                    effect = effect.then(integrate(operation));
+                    progressed = true;
+                }
+            }
+        }
+        return effect;
+    }
+
+    private boolean isReady(CrdtOperation operation) {
+        if (!operation.isInsert()) {
+            return isKnown(operation.getId() + operation.getLength() - 1);
+        }
+        ReplicaRuns runs = runsByReplica.get(CrdtId.replica(operation.getId()));
+        long nextClock = runs == null ? 0 : runs.nextClock;
+        return CrdtId.clock(operation.getId()) <= nextClock
+            && (operation.getOriginLeft() == CrdtId.NONE || isKnown(operation.getOriginLeft()))
+            && (operation.getOriginRight() == CrdtId.NONE || isKnown(operation.getOriginRight()));
+    }
+
+    private boolean isKnown(long id) {
+        ReplicaRuns runs = runsByReplica.get(CrdtId.replica(id));
+        return runs != null && CrdtId.clock(id) < runs.nextClock;
+    }
+
+    private TextOperation integrate(CrdtOperation operation) {
+        return operation.isInsert() ? integrateInsert(operation) : integrateDelete(operation);
+    }
+
+    private TextOperation integrateInsert(CrdtOperation operation) {
+        ReplicaRuns runs = runs(CrdtId.replica(operation.getId()));
+        long clock = CrdtId.clock(operation.getId());
+        long end = clock + operation.getLength();
+        if (end <= runs.nextClock) {
+            return TextOperation.empty();
+        }
+
+        // Kısmen bilinen koşunun sadece yeni kısmı eklenir
+        long id = operation.getId();
+        long originLeft = operation.getOriginLeft();
+        String text = operation.getText();
+        if (clock < runs.nextClock) {
+            int known = (int) (runs.nextClock - clock);
+            id += known;
+            originLeft = id - 1;
+            text = text.substring(known);
+        }
+
+        Item item = newItem(id, originLeft, operation.getOriginRight(), new StringBuilder(text), text.length(), false);
+        place(item);
+        runs.items.add(item);
+        runs.nextClock = end;
+        length += item.length;
+
+        int index = indexOf(item);
+        mergeAround(item);
+        return TextOperation.insert(index, text);
+    }
+
+    private TextOperation integrateDelete(CrdtOperation operation) {
+        TextOperation effect = TextOperation.empty();
+        long id = operation.getId();
+        long end = id + operation.getLength();
+        while (id < end) {
+            ReplicaRuns runs = runsByReplica.get(CrdtId.replica(id));
+            if (runs.indexOf(id) < 0) {
+                // Toplanmış mezar taşı zaten silinmiştir
+                id = runs.nextStart(id, end);
+                continue;
+            }
+            Item item = findCleanStart(id);
+            if (item.length > end - id) {
+                split(item, (int) (end - id));
+            }
+            id += item.length;
+
+            if (!item.deleted) {
+                int index = indexOf(item);
+                effect = effect.then(TextOperation.delete(index, item.length));
+                markDeleted(item);
+                mergeAround(item);
+            }
+        }
+        return effect;
+    }
+
+    // YATA yerleştirme: sol ve sağ köken arasındaki eşzamanlı eklemeler arasında yer bulunur
+    private void place(Item item) {
+        Item left = item.originLeft == CrdtId.NONE ? null : findCleanEnd(item.originLeft);
+        Item right = item.originRight == CrdtId.NONE ? null : findCleanStart(item.originRight);
+
+        Item candidate = left == null ? head : left.right;
+        if (candidate != right) {
+            Set<Item> conflicting = new HashSet<>();
+            Set<Item> beforeOrigin = new HashSet<>();
+            int replica = CrdtId.replica(item.id);
+            while (candidate != null && candidate != right) {
+                beforeOrigin.add(candidate);
+                conflicting.add(candidate);
+                if (candidate.originLeft == item.originLeft) {
+                    if (CrdtId.replica(candidate.id) < replica) {
+                        left = candidate;
+                        conflicting.clear();
+                    } else if (candidate.originRight == item.originRight) {
+                        break;
+                    }
+                } else if (candidate.originLeft != CrdtId.NONE
+                        && beforeOrigin.contains(findPresent(candidate.originLeft))) {
+                    if (!conflicting.contains(findPresent(candidate.originLeft))) {
+                        left = candidate;
+                        conflicting.clear();
+                    }
+                } else {
+                    break;
+                }
+                candidate = candidate.right;
+            }
+        }
+        linkAfter(left, item);
+    }
+
+    // ---- Mezar taşı toplama ----
+
+    // Toplama turu başlatır. Dönen işaretten önce silinmiş koşular, bütün replikalar silmeyi gördükten
+    // (kararlılık) sonra collect ile atılabilir; kararlılığı çağıran sağlar.
+    public int beginCollection() {
+        deletionsSinceMark = 0;
+        return ++collectionMark;
+    }
+
+    // İşaretten önce silinmiş koşuları atar, atılan kimlik aralıklarını diğer replikaların discard'ına
+    // verilmek üzere döner. Yeni eklemeler sadece görünür karakterin ve hemen sağındakinin kimliğini kullanır;
+    // kararlı bir bloğun ilk karakteri görünür komşusunun sağında kalabileceği için tutulur, gerisi atılır.
+    public List<CrdtOperation> collect(int mark) {
+        List<CrdtOperation> collected = new ArrayList<>();
+        boolean previousStable = false;
+        Item item = head;
+        while (item != null) {
+            Item next = item.right;
+            boolean stable = item.deleted && item.deletedAt < mark;
+            if (stable) {
+                Item victim = item;
+                if (!previousStable) {
+                    victim = item.length > 1 ? split(item, 1) : null;
+                }
+                if (victim != null) {
+                    addDelete(collected, victim.id, victim.length);
+                    remove(victim);
+                }
+            }
+            previousStable = stable;
+            item = next;
+        }
+        removeCollected();
+        return collected;
+    }
+
+    // Başka bir replikanın collect ile attığı aralıkları atar; bilinmeyen ya da zaten atılmış kimlikler atlanır
+    public void discard(List<CrdtOperation> collected) {
+        for (CrdtOperation range : collected) {
+            long id = range.getId();
+            long end = id + range.getLength();
+            while (id < end) {
+                ReplicaRuns runs = runsByReplica.get(CrdtId.replica(id));
+                if (runs == null) {
+                    break;
+                }
+                if (runs.indexOf(id) < 0) {
+                    id = runs.nextStart(id, end);
+                    continue;
+                }
+                Item item = findCleanStart(id);
+                if (item.length > end - id) {
+                    split(item, (int) (end - id));
+                }
+                if (!item.deleted) {
+                    throw new IllegalStateException("Görünür koşu atılamaz: " + CrdtId.format(item.id));
+                }
+                id += item.length;
+                remove(item);
+            }
+        }
+        removeCollected();
+    }
+
+    // Atılan koşu listeden ve ağaçtan çıkar; uzunluğu sıfırlanır, replika listesinden topluca silinir
+    private void remove(Item item) {
+        unlink(item);
+        item.length = 0;
+    }
+
+    private void removeCollected() {
+        for (ReplicaRuns runs : runsByReplica.values()) {
+            runs.items.removeIf(item -> item.length == 0);
+        }
+    }
+
+    // ---- Anlık görüntü ----
+
+    // Mezar taşları dahil tüm koşular belge sırasıyla yazılır; yeni katılan replika bunu
+    // tekrar birleştirmeden doğrudan yükler. Son kimlikleri atılmış olabileceği için her replikanın
+    // sayacı ayrıca yazılır.
+    // Biçim: sayaç c<replika.sonraki sayaç>, canlı koşu i<id>,<sol>,<sağ>,<uzunluk>:<metin>,
+    // silinmiş koşu t<id>,<sol>,<sağ>,<uzunluk>
+    public String encodeState() {
+        StringBuilder sb = new StringBuilder(length + itemCount * 24);
+        for (Map.Entry<Integer, ReplicaRuns> entry : runsByReplica.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append('c').append(CrdtId.format(CrdtId.of(entry.getKey(), entry.getValue().nextClock)));
+        }
+        for (Item item = head; item != null; item = item.right) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(item.deleted ? 't' : 'i').append(CrdtId.format(item.id))
+              .append(',').append(CrdtId.format(item.originLeft))
+              .append(',').append(CrdtId.format(item.originRight))
+              .append(',').append(item.length);
+            if (!item.deleted) {
+                sb.append(':').append(item.content);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static CrdtDocument fromState(int replicaId, String state) {
+        CrdtDocument document = new CrdtDocument(replicaId);
+        Item tail = null;
+        int index = 0;
+        while (index < state.length()) {
+            char kind = state.charAt(index);
+            if (kind == 'c') {
+                int end = state.indexOf(';', index);
+                if (end < 0) {
+                    end = state.length();
+                }
+                long clock = CrdtId.parse(state.substring(index + 1, end));
+                ReplicaRuns runs = document.runs(CrdtId.replica(clock));
+                runs.nextClock = Math.max(runs.nextClock, CrdtId.clock(clock));
+                index = end < state.length() ? end + 1 : end;
+                continue;
+            }
+            if (kind != 'i' && kind != 't') {
+                throw new IllegalArgumentException("Geçersiz durum: " + kind);
+            }
+
+            int headerEnd;
+            if (kind == 'i') {
+                headerEnd = state.indexOf(':', index);
+            } else {
+                headerEnd = state.indexOf(';', index);
+                if (headerEnd < 0) {
+                    headerEnd = state.length();
+                }
+            }
+            if (headerEnd < 0) {
+                throw new IllegalArgumentException("Geçersiz koşu başlığı");
+            }
+            String[] header = state.substring(index + 1, headerEnd).split(",");
+            if (header.length != 4) {
+                throw new IllegalArgumentException("Geçersiz koşu başlığı");
+            }
+            int runLength = Integer.parseInt(header[3]);
+
+            Item item;
+            if (kind == 'i') {
+                int textEnd = headerEnd + 1 + runLength;
+                if (textEnd > state.length()) {
+                    throw new IllegalArgumentException("Koşu metni eksik");
+                }
+                item = document.newItem(CrdtId.parse(header[0]), CrdtId.parse(header[1]), CrdtId.parse(header[2]),
+                                        new StringBuilder(state.substring(headerEnd + 1, textEnd)), runLength, false);
+                document.length += runLength;
+                index = textEnd;
+            } else {
+                item = document.newItem(CrdtId.parse(header[0]), CrdtId.parse(header[1]), CrdtId.parse(header[2]),
+                                        null, runLength, true);
+                index = headerEnd;
+            }
+            if (index < state.length()) {
+                index++;
+            }
+
+            document.linkAfter(tail, item);
+            tail = item;
+            ReplicaRuns runs = document.runs(CrdtId.replica(item.id));
+            runs.items.add(item);
+            runs.nextClock = Math.max(runs.nextClock, CrdtId.clock(item.id) + runLength);
+        }
+
+        for (ReplicaRuns runs : document.runsByReplica.values()) {
+            runs.items.sort((a, b) -> Long.compare(a.id, b.id));
+        }
+        return document;
+    }
+
+    // ---- Yapı ----
+
+    private Item newItem(long id, long originLeft, long originRight, StringBuilder content, int length,
+                         boolean deleted) {
+        prioritySeed ^= prioritySeed << 13;
+        prioritySeed ^= prioritySeed >>> 17;
+        prioritySeed ^= prioritySeed << 5;
+        return new Item(id, originLeft, originRight, content, length, deleted, prioritySeed);
+    }
+
+    // Görünür index'teki karakteri içeren koşuyu bulur; koşunun başlangıcı seekStart'a yazılır
+    private Item seek(int index) {
+        Item node = root;
+        int base = 0;
+        while (true) {
+            int leftLength = subtreeLength(node.leftChild);
+            if (index < base + leftLength) {
+                node = node.leftChild;
+            } else if (index < base + leftLength + node.visibleLength()) {
+                seekStart = base + leftLength;
+                return node;
+            } else {
+                base += leftLength + node.visibleLength();
+                node = node.rightChild;
+            }
+        }
+    }
+
+    // Koşudan önceki görünür karakter sayısı
+    private int indexOf(Item item) {
+        int index = subtreeLength(item.leftChild);
+        for (Item node = item; node.parent != null; node = node.parent) {
+            if (node.parent.rightChild == node) {
+                index += subtreeLength(node.parent.leftChild) + node.parent.visibleLength();
+            }
+        }
+        return index;
+    }
+
+    private void markDeleted(Item item) {
+        item.deleted = true;
+        item.deletedAt = collectionMark;
+        deletionsSinceMark++;
+        item.content = null;
+        length -= item.length;
+        refreshUp(item);
+    }
+
+    // Belge sırasında left'in hemen arkasına ekler; left null ise en başa
+    private void linkAfter(Item left, Item item) {
+        Item right = left == null ? head : left.right;
+        item.left = left;
+        item.right = right;
+        if (left == null) {
+            head = item;
+        } else {
+            left.right = item;
+        }
+        if (right != null) {
+            right.left = item;
+        }
+        itemCount++;
+
+        // Sıralı ağaçta left'in ardılı olarak yerleştirilir, sonra önceliğe göre yukarı döndürülür
+        if (root == null) {
+            root = item;
+        } else if (left == null) {
+            attach(right, item, true);
+        } else if (left.rightChild == null) {
+            attach(left, item, false);
+        } else {
+            attach(right, item, true);
+        }
+        while (item.parent != null && item.priority > item.parent.priority) {
+            rotateUp(item);
+        }
+    }
+
+    private void attach(Item parent, Item child, boolean asLeftChild) {
+        if (asLeftChild) {
+            parent.leftChild = child;
+        } else {
+            parent.rightChild = child;
+        }
+        child.parent = parent;
+        refreshUp(parent);
+    }
+
+    private void unlink(Item item) {
+        if (item.left == null) {
+            head = item.right;
+        } else {
+            item.left.right = item.right;
+        }
+        if (item.right != null) {
+            item.right.left = item.left;
+        }
+        itemCount--;
+
+        // En fazla bir çocuğu kalana kadar aşağı döndürülür, sonra yerine çocuğu geçer
+        while (item.leftChild != null && item.rightChild != null) {
+            rotateUp(item.leftChild.priority > item.rightChild.priority ? item.leftChild : item.rightChild);
+        }
+        Item child = item.leftChild != null ? item.leftChild : item.rightChild;
+        Item parent = item.parent;
+        if (child != null) {
+            child.parent = parent;
+        }
+        if (parent == null) {
+            root = child;
+        } else {
+            if (parent.leftChild == item) {
+                parent.leftChild = child;
+            } else {
+                parent.rightChild = child;
+            }
+            refreshUp(parent);
+        }
+        item.parent = null;
+        item.leftChild = null;
+        item.rightChild = null;
+    }
+
+    private void rotateUp(Item node) {
+        Item parent = node.parent;
+        Item grandparent = parent.parent;
+        if (parent.leftChild == node) {
+            parent.leftChild = node.rightChild;
+            if (node.rightChild != null) {
+                node.rightChild.parent = parent;
+            }
+            node.rightChild = parent;
+        } else {
+            parent.rightChild = node.leftChild;
+            if (node.leftChild != null) {
+                node.leftChild.parent = parent;
+            }
+            node.leftChild = parent;
+        }
+        parent.parent = node;
+        node.parent = grandparent;
+        if (grandparent == null) {
+            root = node;
+        } else if (grandparent.leftChild == parent) {
+            grandparent.leftChild = node;
+        } else {
+            grandparent.rightChild = node;
+        }
+        refresh(parent);
+        refresh(node);
+    }
+
+    private static int subtreeLength(Item node) {
+        return node == null ? 0 : node.subtreeLength;
+    }
+
+    private static void refresh(Item node) {
+        node.subtreeLength = subtreeLength(node.leftChild) + node.visibleLength() + subtreeLength(node.rightChild);
+    }
+
+    private static void refreshUp(Item node) {
+        for (; node != null; node = node.parent) {
+            refresh(node);
+        }
+    }
+
+    // Koşuyu offset'ten böler, sağ parçayı döner
+    private Item split(Item item, int offset) {
+        StringBuilder rightContent = null;
+        if (!item.deleted) {
+            rightContent = new StringBuilder(item.content.substring(offset));
+            item.content.setLength(offset);
+            item.content.trimToSize();
+        }
+        Item right = newItem(item.id + offset, item.id + offset - 1, item.originRight,
+                             rightContent, item.length - offset, item.deleted);
+        right.deletedAt = item.deletedAt;
+        item.length = offset;
+        refreshUp(item);
+        linkAfter(item, right);
+
+        ReplicaRuns runs = runs(CrdtId.replica(item.id));
+        runs.items.add(runs.indexOf(item.id) + 1, right);
+        return right;
+    }
+
+    private Item findItem(long id) {
+        ReplicaRuns runs = runsByReplica.get(CrdtId.replica(id));
+        int index = runs == null ? -1 : runs.indexOf(id);
+        if (index < 0) {
+            throw new IllegalStateException("Bilinmeyen kimlik: " + CrdtId.format(id));
+        }
+        return runs.items.get(index);
+    }
+
+    // Atılmış kimlik için null; atılmış mezar taşı hiçbir yeni eklemenin tarama aralığına girmez
+    private Item findPresent(long id) {
+        ReplicaRuns runs = runsByReplica.get(CrdtId.replica(id));
+        int index = runs == null ? -1 : runs.indexOf(id);
+        return index < 0 ? null : runs.items.get(index);
+    }
+
+    // Kimliği içeren koşu, kimlik koşunun son karakteri olacak şekilde bölünür
+    private Item findCleanEnd(long id) {
+        Item item = findItem(id);
+        int offset = (int) (id - item.id);
+        if (offset < item.length - 1) {
+            split(item, offset + 1);
+        }
+        return item;
+    }
+
+    // Kimliği içeren koşu, kimlik koşunun ilk karakteri olacak şekilde bölünür
+    private Item findCleanStart(long id) {
+        Item item = findItem(id);
+        int offset = (int) (id - item.id);
+        return offset > 0 ? split(item, offset) : item;
+    }
+
+    // Komşu koşular aynı replikanın kesintisiz yazımıysa ve durumları aynıysa tek koşuda birleşir.
+    // Silinen aralıklar böylece tek bir kimlik aralığına iner.
+    private void mergeAround(Item item) {
+        if (canMerge(item, item.right)) {
+            merge(item, item.right);
+        }
+        if (canMerge(item.left, item)) {
+            merge(item.left, item);
+        }
+    }
+
+    private boolean canMerge(Item left, Item right) {
+        return left != null && right != null
+            && left.deleted == right.deleted
+            && CrdtId.replica(left.id) == CrdtId.replica(right.id)
+            && right.id == left.lastId() + 1
+            && right.originLeft == left.lastId()
+            && right.originRight == left.originRight;
+    }
+
+    private void merge(Item left, Item right) {
+        unlink(right);
+        if (!left.deleted) {
+            left.content.append(right.content);
+        }
+        left.length += right.length;
+        // Birleşen koşu daha geç silinen parçanın işaretini alır, erken toplanmaz
+        left.deletedAt = Math.max(left.deletedAt, right.deletedAt);
+        refreshUp(left);
+
+        // Sol koşu artık sağın aralığını da kapsadığı için sağ, hemen arkasındaki kayıttır
+        ReplicaRuns runs = runs(CrdtId.replica(right.id));
+        runs.items.remove(runs.indexOf(left.id) + 1);
+    }
+
+    private static void addDelete(List<CrdtOperation> operations, long id, int count) {
+        int last = operations.size() - 1;
+        if (last >= 0) {
+            CrdtOperation previous = operations.get(last);
+            if (previous.getId() + previous.getLength() == id
+                    && CrdtId.replica(previous.getId()) == CrdtId.replica(id)) {
+                operations.set(last, CrdtOperation.delete(previous.getId(), previous.getLength() + count));
+                return;
+            }
+        }
+        operations.add(CrdtOperation.delete(id, count));
+    }
+
+    private ReplicaRuns runs(int replica) {
+        return runsByReplica.computeIfAbsent(replica, key -> new ReplicaRuns());
+    }
+
+    // Bir replikanın koşuları sayaç sırasıyla; kimlikten koşuya ikili aramayla ulaşılır
+    private static final class ReplicaRuns {
+        final ArrayList<Item> items = new ArrayList<>();
+        long nextClock;
+
+        int indexOf(long id) {
+            int low = 0;
+            int high = items.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                Item item = items.get(mid);
+                if (id < item.id) {
+                    high = mid - 1;
+                } else if (id >= item.id + item.length) {
+                    low = mid + 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        // id'den sonra başlayan ilk koşunun başı; yoksa end
+        long nextStart(long id, long end) {
+            int low = 0;
+            int high = items.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (items.get(mid).id <= id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low < items.size() ? Math.min(end, items.get(low).id) : end;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package edu.iuc.crdt;
+
+// Karakter kimliği tek bir long'a sıkıştırılır: üst 24 bit replika, alt 40 bit o replikanın sayacı.
+// Bir koşudaki ardışık karakterlerin kimlikleri id, id + 1, ... şeklinde ilerler.
+public final class CrdtId {
+    public static final long NONE = -1L;
+    public static final int MAX_REPLICA = (1 << 24) - 1;
+
+    private static final int CLOCK_BITS = 40;
+    private static final long CLOCK_MASK = (1L << CLOCK_BITS) - 1;
+
+    private CrdtId() {
+    }
+
+    public static long of(int replica, long clock) {
+        if (replica < 0 || replica > MAX_REPLICA) {
+            throw new IllegalArgumentException("Geçersiz replika: " + replica);
+        }
+        if (clock < 0 || clock > CLOCK_MASK) {
+            throw new IllegalArgumentException("Geçersiz sayaç: " + clock);
+        }
+        return ((long) replica << CLOCK_BITS) | clock;
+    }
+
+    public static int replica(long id) {
+        return (int) (id >>> CLOCK_BITS);
+    }
+
+    public static long clock(long id) {
+        return id & CLOCK_MASK;
+    }
+
+    static String format(long id) {
+        return id == NONE ? "-" : replica(id) + "." + clock(id);
+    }
+
+    static long parse(String value) {
+        if (value.equals("-")) {
+            return NONE;
+        }
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Geçersiz kimlik: " + value);
+        }
+        return of(Integer.parseInt(value.substring(0, dot)), Long.parseLong(value.substring(dot + 1)));
+    }
+}
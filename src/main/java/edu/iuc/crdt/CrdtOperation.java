@@ -0,0 +1,131 @@
+package edu.iuc.crdt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Replikalar arasında taşınan işlem: bir koşu ekleme veya bir kimlik aralığını silme.
+// Konum yerine komşu kimlikler taşındığı için işlemler her sırada birleştirilebilir.
+public final class CrdtOperation {
+    private final long id;
+    private final long originLeft;
+    private final long originRight;
+    private final String text;
+    private final int length;
+
+    private CrdtOperation(long id, long originLeft, long originRight, String text, int length) {
+        this.id = id;
+        this.originLeft = originLeft;
+        this.originRight = originRight;
+        this.text = text;
+        this.length = length;
+    }
+
+    static CrdtOperation insert(long id, long originLeft, long originRight, String text) {
+        return new CrdtOperation(id, originLeft, originRight, text, text.length());
+    }
+
+    static CrdtOperation delete(long id, int length) {
+        return new CrdtOperation(id, CrdtId.NONE, CrdtId.NONE, null, length);
+    }
+
+    public boolean isInsert() {
+        return text != null;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getOriginLeft() {
+        return originLeft;
+    }
+
+    public long getOriginRight() {
+        return originRight;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    // Biçim: i<id>,<sol>,<sağ>,<uzunluk>:<metin> veya d<id>,<uzunluk>; kimlikler replika.sayaç, yoksa '-'
+    public static String encode(List<CrdtOperation> operations) {
+        StringBuilder sb = new StringBuilder();
+        for (CrdtOperation operation : operations) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            if (operation.isInsert()) {
+                sb.append('i').append(CrdtId.format(operation.id))
+                  .append(',').append(CrdtId.format(operation.originLeft))
+                  .append(',').append(CrdtId.format(operation.originRight))
+                  .append(',').append(operation.length)
+                  .append(':').append(operation.text);
+            } else {
+                sb.append('d').append(CrdtId.format(operation.id)).append(',').append(operation.length);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static List<CrdtOperation> decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<CrdtOperation> result = new ArrayList<>();
+        int index = 0;
+        while (index < encoded.length()) {
+            char kind = encoded.charAt(index);
+            if (kind == 'i') {
+                int colon = encoded.indexOf(':', index);
+                if (colon < 0) {
+                    throw new IllegalArgumentException("Geçersiz ekleme: " + encoded);
+                }
+                String[] header = encoded.substring(index + 1, colon).split(",");
+                if (header.length != 4) {
+                    throw new IllegalArgumentException("Geçersiz ekleme başlığı: " + encoded);
+                }
+                int length = Integer.parseInt(header[3]);
+                int textEnd = colon + 1 + length;
+                if (length <= 0 || textEnd > encoded.length()) {
+                    throw new IllegalArgumentException("Ekleme metni eksik: " + encoded);
+                }
+                result.add(insert(CrdtId.parse(header[0]), CrdtId.parse(header[1]), CrdtId.parse(header[2]),
+                                  encoded.substring(colon + 1, textEnd)));
+                index = textEnd;
+            } else if (kind == 'd') {
+                int end = encoded.indexOf(';', index);
+                if (end < 0) {
+                    end = encoded.length();
+                }
+                String[] header = encoded.substring(index + 1, end).split(",");
+                if (header.length != 2 || Integer.parseInt(header[1]) <= 0) {
+                    throw new IllegalArgumentException("Geçersiz silme: " + encoded);
+                }
+                result.add(delete(CrdtId.parse(header[0]), Integer.parseInt(header[1])));
+                index = end;
+            } else {
+                throw new IllegalArgumentException("Geçersiz işlem: " + encoded);
+            }
+
+            if (index < encoded.length()) {
+                if (encoded.charAt(index) != ';') {
+                    throw new IllegalArgumentException("Geçersiz ayraç: " + encoded);
+                }
+                index++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CrdtOperation{" + encode(List.of(this)) + "}";
+    }
+}
@@ -0,0 +1,48 @@
+package edu.iuc.crdt;
+
+// Aynı replikanın ardışık yazdığı karakterlerden oluşan koşu. Silinen koşunun sadece
+// kimlik aralığı tutulur, metni bırakılır. Koşular hem belge sırasıyla bağlı listede hem de
+// görünür uzunluklara göre konum araması yapan bir treap'te durur.
+final class Item {
+    long id;
+    final long originLeft;
+    final long originRight;
+    StringBuilder content;
+    int length;
+    boolean deleted;
+    // Silindiği andaki toplama işareti; bu işaretten sonra başlatılan tur koşuyu toplayabilir
+    int deletedAt;
+    Item left;
+    Item right;
+
+    // Treap düğümü: alt ağaçtaki görünür karakter toplamı
+    final int priority;
+    Item parent;
+    Item leftChild;
+    Item rightChild;
+    int subtreeLength;
+
+    Item(long id, long originLeft, long originRight, StringBuilder content, int length, boolean deleted,
+         int priority) {
+        this.id = id;
+        this.originLeft = originLeft;
+        this.originRight = originRight;
+        this.content = content;
+        this.length = length;
+        this.deleted = deleted;
+        this.priority = priority;
+        this.subtreeLength = deleted ? 0 : length;
+    }
+
+    long lastId() {
+        return id + length - 1;
+    }
+
+    int visibleLength() {
+        return deleted ? 0 : length;
+    }
+
+    boolean contains(long charId) {
+        return charId >= id && charId < id + length;
+    }
+}
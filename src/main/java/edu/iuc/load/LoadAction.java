@@ -0,0 +1,27 @@
+package edu.iuc.load;
+
+public enum LoadAction {
+    // Bağlanınca bir kez; karışımda yer almaz
+    LOGIN,
+    // Açık dosya kapatılıp havuzdan başka bir dosya açılır
+    OPEN,
+    // Bir tuş vuruşu: bir karakter eklenmiş tam içerik EDIT olarak gönderilir
+    EDIT,
+    // Kullanıcının kendi metni SAVE_FILE ile kaydedilir
+    SAVE,
+    // Kullanıcıya özel adla yeni dosya oluşturulur
+    CREATE;
+
+    public static LoadAction fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return EDIT;
+        }
+
+        for (LoadAction action : values()) {
+            if (action.name().equalsIgnoreCase(value.trim())) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen yük işlemi: " + value);
+    }
+}
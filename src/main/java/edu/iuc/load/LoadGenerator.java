@@ -0,0 +1,166 @@
+package edu.iuc.load;
+
+import edu.iuc.shared.LatencyHistogram;
+import edu.iuc.shared.Message;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ServerMain'e CTP konuşan binlerce başsız kullanıcı bağlayıp yük altında davranışını ölçer. Her aralıkta
+// gönderilen/alınan mesaj hızı, EDIT yayın gecikmesi yüzdelikleri ve (server= verildiyse) sunucunun heap ve
+// thread sayısı yazılır; sonunda işlem türü başına yanıt süreleri özetlenir.
+// Kullanım: LoadGenerator [anahtar=değer ...], ör. users=2000 rate=5 mix=edit:92,save:4,open:3,create:1
+// server=<sunucu pid>. Ayarların tamamı için bkz. LoadProfile.
+public class LoadGenerator {
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.parse(args);
+        System.out.println("Yük: " + profile.describe());
+
+        String baseText = baseText(profile.documentBytes);
+        preparePool(profile, baseText);
+
+        ServerProbe probe = null;
+        if (!profile.server.isEmpty()) {
+            try {
+                probe = ServerProbe.connect(profile.server);
+            } catch (IOException e) {
+                System.err.println("Sunucu ölçülemeyecek: " + e.getMessage());
+            }
+        }
+
+        LoadStats stats = new LoadStats();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(profile.durationSeconds);
+        List<SimulatedUser> users = new ArrayList<>(profile.users);
+        Thread reporter = Thread.ofPlatform().daemon().name("yuk-rapor").start(
+            new Reporter(profile, stats, probe, start));
+
+        // Kullanıcılar saniyede ramp kadar bağlanır; kabul kuyruğu bir anda dolmaz
+        long rampNanos = TimeUnit.SECONDS.toNanos(1) / profile.rampPerSecond;
+        for (int i = 0; i < profile.users && System.nanoTime() < deadline; i++) {
+            SimulatedUser user = new SimulatedUser(i, profile, stats, baseText, deadline);
+            users.add(user);
+            Thread.ofVirtual().name("yuk-" + i).start(user);
+            long wait = start + (i + 1) * rampNanos - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+        for (SimulatedUser user : users) {
+            user.stop();
+        }
+        reporter.interrupt();
+        reporter.join();
+        if (probe != null) {
+            probe.close();
+        }
+
+        summarize(stats, System.nanoTime() - start);
+    }
+
+    // Havuz dosyaları oluşturulur (varsa hata yok sayılır) ve başlangıç içeriğiyle kaydedilir
+    private static void preparePool(LoadProfile profile, String baseText) throws IOException, InterruptedException {
+        LoadStats setupStats = new LoadStats();
+        SimulatedUser setup = new SimulatedUser(-1, profile, setupStats, baseText, Long.MAX_VALUE);
+        setup.connect();
+        try {
+            if (!setup.call(LoadAction.LOGIN, Message.login(profile.prefix + "-kurulum", "files,pages"))) {
+                throw new IOException("Kurulum bağlantısı giriş yapamadı");
+            }
+            for (int i = 0; i < profile.files; i++) {
+                setup.call(LoadAction.CREATE, Message.createFile(profile.poolFile(i)));
+                if (!setup.call(LoadAction.SAVE, Message.saveFile(profile.poolFile(i), baseText))) {
+                    throw new IOException("Havuz dosyası kaydedilemedi: " + profile.poolFile(i));
+                }
+            }
+        } finally {
+            setup.stop();
+        }
+    }
+
+    // Swing editöründeki gibi satırlara bölünmüş düz metin
+    private static String baseText(int bytes) {
+        StringBuilder text = new StringBuilder(bytes);
+        while (text.length() < bytes) {
+            text.append(text.length() % 64 == 63 ? '\n' : (char) ('a' + text.length() % 26));
+        }
+        return text.toString();
+    }
+
+    private static void summarize(LoadStats stats, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        stats.broadcastTotal.add(stats.broadcastLatency.drain());
+        System.out.printf("Toplam %.0f sn: gönderilen %d mesaj (%.0f/sn, %.1f MB), "
+                + "alınan %d mesaj (%.0f/sn, %.1f MB)%n",
+            seconds, stats.sentMessages.sum(), stats.sentMessages.sum() / seconds, stats.sentBytes.sum() / 1e6,
+            stats.receivedMessages.sum(), stats.receivedMessages.sum() / seconds, stats.receivedBytes.sum() / 1e6);
+        System.out.printf("Hata %d, zaman aşımı %d, kopan bağlantı %d%n",
+            stats.errors.sum(), stats.timeouts.sum(), stats.disconnects.sum());
+        System.out.println("Yayın gecikmesi: " + stats.broadcastTotal.format());
+        for (LoadAction action : LoadAction.values()) {
+            LatencyHistogram responses = stats.getResponses(action);
+            if (action == LoadAction.EDIT) {
+                System.out.printf("  %-6s %d gönderildi%n", action, stats.getActionCount(action));
+            } else if (stats.getActionCount(action) > 0) {
+                System.out.printf("  %-6s %d gönderildi, yanıt %s%n", action, stats.getActionCount(action),
+                                  responses.format());
+            }
+        }
+    }
+
+    // Her aralıkta bir satır; yayın gecikmesi sadece o aralıktakileri kapsar
+    private static final class Reporter implements Runnable {
+        private final LoadProfile profile;
+        private final LoadStats stats;
+        private final ServerProbe probe;
+        private final long start;
+
+        Reporter(LoadProfile profile, LoadStats stats, ServerProbe probe, long start) {
+            this.profile = profile;
+            this.stats = stats;
+            this.probe = probe;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            long sent = 0;
+            long received = 0;
+            long broadcasts = 0;
+            long intervalNanos = TimeUnit.SECONDS.toNanos(profile.reportSeconds);
+            long next = start + intervalNanos;
+            try {
+                while (true) {
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, next - System.nanoTime()));
+                    next += intervalNanos;
+
+                    long sentNow = stats.sentMessages.sum();
+                    long receivedNow = stats.receivedMessages.sum();
+                    long broadcastsNow = stats.broadcasts.sum();
+                    LatencyHistogram interval = stats.broadcastLatency.drain();
+                    stats.broadcastTotal.add(interval);
+                    System.out.printf("%4d sn  bağlı %d  gönderilen %.0f/sn  alınan %.0f/sn  yayın %.0f/sn  "
+                            + "gecikme p50 %.2f p99 %.2f p99.9 %.2f ms  hata %d%s%n",
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), stats.connected.get(),
+                        (sentNow - sent) / (double) profile.reportSeconds,
+                        (receivedNow - received) / (double) profile.reportSeconds,
+                        (broadcastsNow - broadcasts) / (double) profile.reportSeconds,
+                        interval.percentile(0.50) / 1e6, interval.percentile(0.99) / 1e6,
+                        interval.percentile(0.999) / 1e6, stats.errors.sum() + stats.timeouts.sum(),
+                        probe == null ? "" : "  sunucu " + probe.sample());
+                    sent = sentNow;
+                    received = receivedNow;
+                    broadcasts = broadcastsNow;
+                }
+            } catch (InterruptedException e) {
+                // Yük bitti
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package edu.iuc.load;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Yük testinin ayarları; komut satırında anahtar=değer olarak verilir, verilmeyenler varsayılandır
+final class LoadProfile {
+    private static final Set<String> KEYS = Set.of("host", "port", "users", "ramp", "duration", "rate", "files",
+        "size", "report", "prefix", "server", "mix");
+
+    final String host;
+    final int port;
+    final int users;
+    // Saniyede bağlanan kullanıcı
+    final int rampPerSecond;
+    final int durationSeconds;
+    // Kullanıcı başına saniyede işlem (tuş vuruşu)
+    final double actionsPerSecond;
+    // Kullanıcıların dağıldığı ortak dosya sayısı; oda boyu users / files olur
+    final int files;
+    // Ortak dosyaların başlangıç içeriği
+    final int documentBytes;
+    final int reportSeconds;
+    final String prefix;
+    // Sunucunun heap ve thread ölçümü için süreç numarası ya da JMX host:port; boşsa ölçülmez
+    final String server;
+    private final LoadAction[] mixActions;
+    private final int[] mixWeights;
+    private final int mixTotal;
+
+    private LoadProfile(Map<String, String> values) {
+        host = values.getOrDefault("host", "localhost");
+        port = Integer.parseInt(values.getOrDefault("port", "9999"));
+        users = Integer.parseInt(values.getOrDefault("users", "1000"));
+        rampPerSecond = Integer.parseInt(values.getOrDefault("ramp", "200"));
+        durationSeconds = Integer.parseInt(values.getOrDefault("duration", "60"));
+        actionsPerSecond = Double.parseDouble(values.getOrDefault("rate", "5"));
+        files = Integer.parseInt(values.getOrDefault("files", "100"));
+        documentBytes = Integer.parseInt(values.getOrDefault("size", "2048"));
+        reportSeconds = Integer.parseInt(values.getOrDefault("report", "5"));
+        prefix = values.getOrDefault("prefix", "yuk");
+        server = values.getOrDefault("server", "");
+
+        Map<LoadAction, Integer> mix = parseMix(values.getOrDefault("mix", "edit:92,save:4,open:3,create:1"));
+        mixActions = mix.keySet().toArray(new LoadAction[0]);
+        mixWeights = new int[mixActions.length];
+        int total = 0;
+        for (int i = 0; i < mixActions.length; i++) {
+            total += mix.get(mixActions[i]);
+            mixWeights[i] = total;
+        }
+        mixTotal = total;
+
+        if (users <= 0 || files <= 0 || rampPerSecond <= 0 || durationSeconds <= 0 || actionsPerSecond <= 0
+                || reportSeconds <= 0 || documentBytes < 0 || mixTotal <= 0) {
+            throw new IllegalArgumentException("Yük ayarları pozitif olmalıdır");
+        }
+    }
+
+    static LoadProfile parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Ayar anahtar=değer biçiminde olmalıdır: " + arg);
+            }
+            values.put(arg.substring(0, equals).trim().toLowerCase(Locale.ROOT), arg.substring(equals + 1).trim());
+        }
+        for (String key : values.keySet()) {
+            if (!KEYS.contains(key)) {
+                throw new IllegalArgumentException("Bilinmeyen ayar: " + key);
+            }
+        }
+        return new LoadProfile(values);
+    }
+
+    // "edit:92,save:4,open:3,create:1"
+    private static Map<LoadAction, Integer> parseMix(String value) {
+        Map<LoadAction, Integer> mix = new EnumMap<>(LoadAction.class);
+        for (String part : value.split(",")) {
+            if (part.trim().isEmpty()) {
+                continue;
+            }
+            String[] pair = part.split(":", 2);
+            LoadAction action = LoadAction.fromString(pair[0]);
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+            if (action == LoadAction.LOGIN || weight < 0) {
+                throw new IllegalArgumentException("Geçersiz karışım: " + part);
+            }
+            mix.merge(action, weight, Integer::sum);
+        }
+        return mix;
+    }
+
+    LoadAction nextAction(Random random) {
+        int pick = random.nextInt(mixTotal);
+        for (int i = 0; i < mixActions.length; i++) {
+            if (pick < mixWeights[i]) {
+                return mixActions[i];
+            }
+        }
+        return LoadAction.EDIT;
+    }
+
+    String poolFile(int index) {
+        return prefix + "-" + index + ".txt";
+    }
+
+    String describe() {
+        StringBuilder mix = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < mixActions.length; i++) {
+            if (mix.length() > 0) {
+                mix.append(',');
+            }
+            mix.append(mixActions[i].name().toLowerCase(Locale.ROOT)).append(':').append(mixWeights[i] - previous);
+            previous = mixWeights[i];
+        }
+        return String.format("%s:%d, %d kullanıcı (saniyede %d bağlanır), %d sn, kullanıcı başına %.1f işlem/sn, "
+                + "%d dosya x %d bayt, karışım %s", host, port, users, rampPerSecond, durationSeconds,
+            actionsPerSecond, files, documentBytes, mix);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.iuc.load;
+
+import edu.iuc.shared.LatencyHistogram;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bütün simüle kullanıcıların ortak sayaçları. Yayın gecikmesi EDIT'i gönderen kullanıcının damgasından
+// başka bir kullanıcının onu okuduğu ana kadardır; kullanıcılar aynı süreçte olduğu için saatler ortaktır.
+final class LoadStats {
+    final AtomicInteger connected = new AtomicInteger();
+    final LongAdder sentMessages = new LongAdder();
+    final LongAdder sentBytes = new LongAdder();
+    final LongAdder receivedMessages = new LongAdder();
+    final LongAdder receivedBytes = new LongAdder();
+    final LongAdder broadcasts = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder disconnects = new LongAdder();
+    // Aralık raporunda boşaltılır, sonra toplama eklenir
+    final LatencyHistogram broadcastLatency = new LatencyHistogram();
+    final LatencyHistogram broadcastTotal = new LatencyHistogram();
+    private final Map<LoadAction, LongAdder> actions = new EnumMap<>(LoadAction.class);
+    private final Map<LoadAction, LatencyHistogram> responses = new EnumMap<>(LoadAction.class);
+
+    LoadStats() {
+        for (LoadAction action : LoadAction.values()) {
+            actions.put(action, new LongAdder());
+            responses.put(action, new LatencyHistogram());
+        }
+    }
+
+    void recordAction(LoadAction action) {
+        actions.get(action).increment();
+    }
+
+    void recordResponse(LoadAction action, long nanos) {
+        responses.get(action).record(nanos);
+    }
+
+    long getActionCount(LoadAction action) {
+        return actions.get(action).sum();
+    }
+
+    LatencyHistogram getResponses(LoadAction action) {
+        return responses.get(action);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.iuc.load;
+
+import com.sun.tools.attach.AttachNotSupportedException;
+import com.sun.tools.attach.VirtualMachine;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+// Sunucu sürecinin heap ve thread sayısını JMX ile okur. Hedef süreç numarasıysa aynı makinedeki sürece
+// bağlanılıp yerel yönetim ajanı başlatılır; host:port ise sunucu -Dcom.sun.management.jmxremote.port ile
+// başlatılmış olmalıdır.
+final class ServerProbe implements AutoCloseable {
+    private final JMXConnector connector;
+    private final MemoryMXBean memory;
+    private final ThreadMXBean threads;
+
+    private ServerProbe(JMXConnector connector) throws IOException {
+        this.connector = connector;
+        MBeanServerConnection connection = connector.getMBeanServerConnection();
+        this.memory = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.MEMORY_MXBEAN_NAME,
+                                                               MemoryMXBean.class);
+        this.threads = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.THREAD_MXBEAN_NAME,
+                                                                ThreadMXBean.class);
+    }
+
+    static ServerProbe connect(String target) throws IOException {
+        String url = target.contains(":")
+            ? "service:jmx:rmi:///jndi/rmi://" + target + "/jmxrmi"
+            : attach(target);
+        return new ServerProbe(JMXConnectorFactory.connect(new JMXServiceURL(url)));
+    }
+
+    private static String attach(String pid) throws IOException {
+        try {
+            VirtualMachine vm = VirtualMachine.attach(pid);
+            try {
+                return vm.startLocalManagementAgent();
+            } finally {
+                vm.detach();
+            }
+        } catch (AttachNotSupportedException e) {
+            throw new IOException("Sunucu sürecine bağlanılamadı: " + e.getMessage(), e);
+        }
+    }
+
+    // "heap 312/1024 MB, thread 2015"; sunucu kapandıysa okunamadığı yazılır
+    String sample() {
+        try {
+            MemoryUsage heap = memory.getHeapMemoryUsage();
+            return String.format("heap %d/%d MB, thread %d", heap.getUsed() >> 20, heap.getCommitted() >> 20,
+                                 threads.getThreadCount());
+        } catch (RuntimeException e) {
+            return "sunucu ölçülemedi";
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            connector.close();
+        } catch (IOException e) {
+            System.err.println("JMX bağlantısı kapatılamadı: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package edu.iuc.load;
+
+import edu.iuc.shared.Message;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Tek bir CTP bağlantısı: giriş yapar, havuzdan bir dosya açar ve bitiş anına kadar karışımdan seçtiği
+// işlemleri yazma hızında yapar. İstemci Swing editörü gibi tam içerikli EDIT gönderir; içeriğin başında
+// gönderim anının damgası vardır, aynı dosyadaki diğer kullanıcılar yayını alınca gecikmeyi ölçer.
+// Yanıt bekleyen işlemde (giriş, açma, kayıt, oluşturma) yanıt gelene kadar yazma durur. Her kullanıcı biri
+// okuyan biri yazan iki sanal thread kullanır; beklemeler sanal thread'i taşıyıcıya sabitlememek için
+// synchronized yerine kilitle yapılır.
+final class SimulatedUser implements Runnable {
+    private static final long RESPONSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final String TYPED = "abcdefghijklmnopqrstuvwxyz ";
+    private static final int TYPED_LIMIT = 4096;
+    // Damgalar bu andan itibaren sayılır; nanoTime negatif olabilir
+    private static final long ORIGIN = System.nanoTime();
+
+    private final int id;
+    private final LoadProfile profile;
+    private final LoadStats stats;
+    private final String baseText;
+    private final long deadline;
+    private final StringBuilder typed = new StringBuilder();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition answered = lock.newCondition();
+    private Socket socket;
+    private OutputStream output;
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+    private String file;
+    private int created;
+    private volatile boolean stopping;
+    // Yanıtı beklenen işlem; lock ile korunur
+    private LoadAction pending;
+    private long pendingSince;
+    private boolean pendingOk;
+
+    SimulatedUser(int id, LoadProfile profile, LoadStats stats, String baseText, long deadline) {
+        this.id = id;
+        this.profile = profile;
+        this.stats = stats;
+        this.baseText = baseText;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void run() {
+        try {
+            connect();
+            if (!call(LoadAction.LOGIN, Message.login(profile.prefix + "-" + id, "files,pages"))) {
+                return;
+            }
+            open(profile.poolFile(id % profile.files));
+
+            long intervalNanos = (long) (1e9 / profile.actionsPerSecond);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (!stopping && System.nanoTime() < deadline) {
+                // Aralık ortalama etrafında dağılır, kullanıcılar aynı anda göndermez
+                TimeUnit.NANOSECONDS.sleep(intervalNanos / 2 + random.nextLong(intervalNanos));
+                act(profile.nextAction(random));
+            }
+        } catch (IOException e) {
+            if (!stopping) {
+                stats.disconnects.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stop();
+        }
+    }
+
+    void stop() {
+        stopping = true;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Kapanırken hata önemsiz
+            }
+        }
+    }
+
+    // Havuz dosyalarını hazırlayan bağlantı da aynı yolla çalışır
+    void connect() throws IOException {
+        socket = new Socket(profile.host, profile.port);
+        socket.setTcpNoDelay(true);
+        output = socket.getOutputStream();
+        stats.connected.incrementAndGet();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new CountingInput(new BufferedInputStream(socket.getInputStream()), stats.receivedBytes),
+            StandardCharsets.UTF_8));
+        Thread.ofVirtual().name("yuk-okuma-" + id).start(() -> read(reader));
+    }
+
+    private void act(LoadAction action) throws IOException, InterruptedException {
+        switch (action) {
+            case OPEN:
+                int next = ThreadLocalRandom.current().nextInt(profile.files);
+                send(Message.closeFile(file));
+                open(profile.poolFile(next));
+                break;
+
+            case SAVE:
+                call(LoadAction.SAVE, Message.saveFile(file, text(false)));
+                break;
+
+            case CREATE:
+                call(LoadAction.CREATE, Message.createFile(profile.prefix + "-" + id + "-" + (++created) + ".txt"));
+                break;
+
+            case EDIT:
+            default:
+                type();
+                stats.recordAction(LoadAction.EDIT);
+                send(Message.edit(file, text(true)));
+        }
+    }
+
+    private void open(String fileName) throws IOException, InterruptedException {
+        file = fileName;
+        typed.setLength(0);
+        call(LoadAction.OPEN, Message.openFileRequest(fileName));
+    }
+
+    // Bir tuş: harf ya da satır sonu; metin sınırı aşınca kullanıcı yazdıklarını silmiş sayılır
+    private void type() {
+        if (typed.length() >= TYPED_LIMIT) {
+            typed.setLength(0);
+        }
+        typed.append(typed.length() % 64 == 63 ? '\n'
+            : TYPED.charAt(ThreadLocalRandom.current().nextInt(TYPED.length())));
+    }
+
+    private String text(boolean stamped) {
+        StringBuilder text = new StringBuilder(baseText.length() + typed.length() + 24);
+        if (stamped) {
+            text.append(System.nanoTime() - ORIGIN).append(';');
+        }
+        return text.append(baseText).append(typed).toString();
+    }
+
+    // Yanıt gelene ya da zaman aşımına kadar bekler; yanıt başarılıysa true
+    boolean call(LoadAction action, Message message) throws IOException, InterruptedException {
+        stats.recordAction(action);
+        lock.lock();
+        try {
+            pending = action;
+            pendingSince = System.nanoTime();
+            pendingOk = false;
+        } finally {
+            lock.unlock();
+        }
+        send(message);
+
+        lock.lock();
+        try {
+            long remaining = RESPONSE_TIMEOUT_NANOS;
+            while (pending != null) {
+                if (remaining <= 0 || stopping) {
+                    pending = null;
+                    if (!stopping) {
+                        stats.timeouts.increment();
+                    }
+                    return false;
+                }
+                remaining = answered.awaitNanos(remaining);
+            }
+            return pendingOk;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(Message message) throws IOException {
+        int length = message.encodedLength();
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        message.encodeTo(buffer);
+        output.write(buffer.array(), 0, length);
+        stats.sentMessages.increment();
+        stats.sentBytes.add(length);
+    }
+
+    private void read(BufferedReader reader) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                stats.receivedMessages.increment();
+                handle(Message.fromRaw(line));
+            }
+        } catch (IOException e) {
+            // Kapanınca okuma hata verir; aşağıda sayılır
+        }
+        if (!stopping) {
+            stats.disconnects.increment();
+        }
+        stats.connected.decrementAndGet();
+        stopping = true;
+        complete(false);
+    }
+
+    private void handle(Message message) {
+        switch (message.getType()) {
+            case EDIT:
+                stats.broadcasts.increment();
+                long stamp = parseStamp(message.getContentView());
+                if (stamp >= 0) {
+                    stats.broadcastLatency.record(System.nanoTime() - ORIGIN - stamp);
+                }
+                break;
+
+            case SUCCESS:
+            case OPEN_FILE_RESPONSE:
+                complete(true);
+                break;
+
+            case ERROR:
+                stats.errors.increment();
+                complete(false);
+                break;
+
+            default:
+                // FILE_ADDED vb. sadece sayılır
+        }
+    }
+
+    private void complete(boolean ok) {
+        lock.lock();
+        try {
+            if (pending != null) {
+                stats.recordResponse(pending, System.nanoTime() - pendingSince);
+                pendingOk = ok;
+                pending = null;
+                answered.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // İçeriğin başındaki "<nanosaniye>;" damgası; damgasız içerikte -1
+    private static long parseStamp(CharSequence content) {
+        long value = 0;
+        int limit = Math.min(content.length(), 20);
+        for (int i = 0; i < limit; i++) {
+            char c = content.charAt(i);
+            if (c == ';') {
+                return i == 0 ? -1 : value;
+            }
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return -1;
+    }
+
+    // Okunan baytları sayar; satırlar karakter olarak okunduğu için bayt sayısı buradan alınır
+    private static final class CountingInput extends FilterInputStream {
+        private final LongAdder counter;
+
+        CountingInput(InputStream input, LongAdder counter) {
+            super(input);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = super.read(bytes, offset, length);
+            if (count > 0) {
+                counter.add(count);
+            }
+            return count;
+        }
+    }
+}
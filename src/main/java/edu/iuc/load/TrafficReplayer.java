@@ -0,0 +1,221 @@
+package edu.iuc.load;
+
+import edu.iuc.protocol.TraceFormat;
+import edu.iuc.shared.MessageType;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sunucunun trafik kaydını (bkz. TrafficRecorder) yeni bir sunucuya tekrar oynatır: kayıttaki her bağlantı için bir
+// soket açılır, gelen mesajlar kayıttaki aralıklarla (hız katsayısına bölünerek ya da beklemeden) aynı sırayla
+// gönderilir, kayıtta kapanan bağlantının yazma yönü kapatılır. Sunucunun yanıtları okunup sayılır; sonunda kayıttaki
+// giden bayt sayısıyla karşılaştırılır. Birebir aynı sonuç için sunucu, kayıt başladığındaki files/ kopyasıyla
+// açılmalıdır. Bağlantı içindeki sıra her hızda korunur; bağlantılar arası sıra ise sadece zamanlamayla korunduğu için
+// hızlandırılmış oynatmada (ör. havuz dosyası oluşmadan açılmaya çalışılırsa) sonuç ayrışabilir.
+// Kullanım: TrafficReplayer <kayıt dosyası> [hız: 1, 10, max] [host] [port]
+public class TrafficReplayer {
+    // Son mesajdan sonra yanıtların gelmesi için beklenen en uzun süre
+    private static final long DRAIN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Map<Long, Connection> connections = new HashMap<>();
+    // Kayıtta kapanmış olsa da yanıtları okunmaya devam edenler dahil
+    private final List<Connection> open = new ArrayList<>();
+    private final Map<MessageType, Long> expectedByType = new EnumMap<>(MessageType.class);
+    private final LongAdder receivedBytes = new LongAdder();
+    private final String host;
+    private final int port;
+    private final double speed;
+    private long sentMessages;
+    private long sentBytes;
+    private long expectedMessages;
+    private long expectedBytes;
+    private long connectionCount;
+    private long maxLagNanos;
+
+    private TrafficReplayer(String host, int port, double speed) {
+        this.host = host;
+        this.port = port;
+        this.speed = speed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Kullanım: TrafficReplayer <kayıt dosyası> [hız: 1, 10, max] [host] [port]");
+            return;
+        }
+        Path path = Paths.get(args[0]);
+        String speedArg = args.length > 1 ? args[1].trim().toLowerCase(Locale.ROOT) : "1";
+        double speed = speedArg.equals("max") ? 0 : Double.parseDouble(speedArg.replace("x", ""));
+        String host = args.length > 2 ? args[2] : "localhost";
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : 9999;
+
+        new TrafficReplayer(host, port, speed).replay(path);
+    }
+
+    private void replay(Path path) throws IOException, InterruptedException {
+        long traceNanos = 0;
+        long firstNanos = -1;
+        long begin = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path),
+                                                                                   64 * 1024))) {
+            long startedMillis = TraceFormat.readHeader(input);
+            System.out.printf("Kayıt: %s (%tF %<tT), hız %s%n", path, startedMillis,
+                              speed == 0 ? "beklemesiz" : speed + "x");
+
+            int kind;
+            while ((kind = input.read()) >= 0) {
+                long connection = TraceFormat.readVarLong(input);
+                traceNanos += TraceFormat.readVarLong(input);
+                switch (kind) {
+                    case TraceFormat.INBOUND:
+                        byte[] frame = new byte[Math.toIntExact(TraceFormat.readVarLong(input))];
+                        input.readFully(frame);
+                        // İlk mesajdan önceki boşluk beklenmez
+                        if (firstNanos < 0) {
+                            firstNanos = traceNanos;
+                            begin = System.nanoTime();
+                        }
+                        pace(begin, traceNanos - firstNanos);
+                        send(connection, frame);
+                        break;
+
+                    case TraceFormat.OUTBOUND:
+                        MessageType type = MessageType.fromCode(input.readUnsignedByte());
+                        expectedBytes += TraceFormat.readVarLong(input);
+                        expectedMessages++;
+                        expectedByType.merge(type, 1L, Long::sum);
+                        break;
+
+                    case TraceFormat.CLOSE:
+                        if (firstNanos >= 0) {
+                            pace(begin, traceNanos - firstNanos);
+                        }
+                        Connection closed = connections.remove(connection);
+                        if (closed != null) {
+                            closed.finish();
+                        }
+                        break;
+
+                    default:
+                        throw new IOException("Bozuk kayıt: bilinmeyen tür " + kind);
+                }
+            }
+        } catch (EOFException e) {
+            // Sunucu kapanırken yarım kalan son kayıt
+            System.err.println("Kayıt yarım bitiyor, son kayıt atlandı");
+        }
+        long replayNanos = begin == 0 ? 0 : System.nanoTime() - begin;
+
+        // Yanıtlar kesilene kadar (en fazla DRAIN_NANOS) beklenir
+        long deadline = System.nanoTime() + DRAIN_NANOS;
+        long last = -1;
+        while (System.nanoTime() < deadline && receivedBytes.sum() != last) {
+            last = receivedBytes.sum();
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+        for (Connection connection : open) {
+            connection.close();
+        }
+
+        System.out.printf("Gönderilen: %d mesaj, %.1f MB, %d bağlantı%n", sentMessages, sentBytes / 1e6,
+                          connectionCount);
+        System.out.printf("Süre: kayıtta %.2f sn, oynatmada %.2f sn, en büyük gecikme %.2f ms%n",
+                          firstNanos < 0 ? 0 : (traceNanos - firstNanos) / 1e9, replayNanos / 1e9,
+                          maxLagNanos / 1e6);
+        System.out.printf("Sunucudan: kayıtta %d mesaj %.1f MB, oynatmada %.1f MB alındı%n",
+                          expectedMessages, expectedBytes / 1e6, receivedBytes.sum() / 1e6);
+        for (Map.Entry<MessageType, Long> entry : expectedByType.entrySet()) {
+            System.out.printf("  %-24s %d%n", entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Kayıttaki zamana kadar bekler; geride kalındıysa gecikme not edilir
+    private void pace(long begin, long offsetNanos) throws InterruptedException {
+        if (speed == 0) {
+            return;
+        }
+        long wait = begin + (long) (offsetNanos / speed) - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } else {
+            maxLagNanos = Math.max(maxLagNanos, -wait);
+        }
+    }
+
+    private void send(long id, byte[] frame) throws IOException {
+        Connection connection = connections.get(id);
+        if (connection == null) {
+            connection = new Connection(new Socket(host, port));
+            connections.put(id, connection);
+            open.add(connection);
+            connectionCount++;
+        }
+        try {
+            connection.output.write(frame);
+        } catch (IOException e) {
+            // Sunucu bağlantıyı kesmiş olabilir (ör. yavaş istemci); oynatma sürer
+            connections.remove(id);
+            connection.close();
+            return;
+        }
+        sentMessages++;
+        sentBytes += frame.length;
+    }
+
+    // Yanıtlar bir sanal thread'de okunup sadece sayılır; soket sunucu kapatınca ya da oynatma bitince kapanır
+    private final class Connection {
+        private final Socket socket;
+        private final OutputStream output;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.output = socket.getOutputStream();
+            InputStream input = socket.getInputStream();
+            Thread.ofVirtual().start(() -> {
+                byte[] buffer = new byte[8192];
+                try {
+                    int read;
+                    while ((read = input.read(buffer)) >= 0) {
+                        receivedBytes.add(read);
+                    }
+                } catch (IOException e) {
+                    // Bağlantı kapandı
+                }
+                close();
+            });
+        }
+
+        // Kayıtta istemci bağlantıyı kapatmış: sunucu gönderilenleri işleyip kapatana kadar yanıtlar okunur
+        void finish() {
+            try {
+                socket.shutdownOutput();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Kapanırken hata önemsiz
+            }
+        }
+    }
+}
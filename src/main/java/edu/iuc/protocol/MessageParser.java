@@ -2,27 +2,237 @@ package edu.iuc.protocol;
 
 import edu.iuc.shared.Message;
 import edu.iuc.shared.MessageType;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+// İki kodlama: CTP metin satırı (KOMUT#PARAM1#PARAM2\n) ve v2 ikili çerçeve. İkili çerçeve
+// [0x80 | tür kodu][varint uzunluk][param1][varint uzunluk][param2] biçimindedir; uzunluklar bayt cinsindendir,
+// içerik kaçışsız UTF-8'dir. Metin komutları ASCII harfle başladığı için ilk baytın en yüksek biti çerçevenin
+// türünü belirler, iki kodlama aynı bağlantıda karışık gelebilir.
 public class MessageParser {
+    public static final int BINARY_FLAG = 0x80;
+    // varint en fazla 5 bayt; uzunluklar int sınırını aşamaz
+    public static final int MAX_VARINT_BYTES = 5;
+    // Bu uzunluğun altındaki aralıklar kodlayıcıya verilmeden kodlanır
+    private static final int BULK_CHARS = 32;
+    private static final int SCRATCH_CHARS = 4 * 1024;
     
+    public static boolean isBinaryFrame(byte first) {
+        return (first & BINARY_FLAG) != 0;
+    }
+    
+    // Eski dizi biçimi; ayırıcılar Message.fromRaw'daki gibi indeksle bulunur
     public static String[] parse(String raw) {
-        if (raw == null || raw.trim().isEmpty()) {
+        int end = raw != null ? raw.length() : 0;
+        int start = trimStart(raw, 0, end);
+        if (start == end) {
             return new String[]{"", "", ""};
         }
         
-        String[] parts = raw.split("#", 3);
-        String[] result = new String[3];
-        result[0] = parts.length > 0 ? parts[0].trim() : "";
-        result[1] = parts.length > 1 ? parts[1].trim() : "";
-        result[2] = parts.length > 2 ? parts[2] : "";
-        
-        return result;
+        int first = raw.indexOf('#', 0);
+        if (first < 0) {
+            return new String[]{trimmed(raw, 0, end), "", ""};
+        }
+        int second = raw.indexOf('#', first + 1);
+        return new String[]{
+            trimmed(raw, 0, first),
+            trimmed(raw, first + 1, second < 0 ? end : second),
+            second < 0 ? "" : raw.substring(second + 1)
+        };
+    }
+    
+    // String.trim ile aynı boşluk tanımı (<= ' '), aralık üzerinde kopyasız
+    public static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+    
+    public static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+    
+    public static String trimmed(String text, int start, int end) {
+        start = trimStart(text, start, end);
+        return text.substring(start, trimEnd(text, start, end));
     }
     
     public static Message parseMessage(String raw) {
         return Message.fromRaw(raw);
     }
     
+    // Tam bir ikili çerçeveyi çözer
+    public static Message parseBinary(ByteBuffer frame) {
+        MessageType type = MessageType.fromCode(frame.get() & 0x7F);
+        String parameter1 = readString(frame);
+        String parameter2 = readString(frame);
+        return new Message.Builder(type).parameter1(parameter1).parameter2(parameter2).build();
+    }
+    
+    public static byte[] formatBinary(Message message) {
+        ByteBuffer frame = ByteBuffer.allocate(message.binaryLength());
+        message.encodeBinaryTo(frame);
+        return frame.array();
+    }
+    
+    // İkinci parametrenin baytlarına kadar olan kısım; içerik ayrıca (parça parça ya da diskten) eklenebilir
+    public static byte[] binaryHeader(MessageType type, String parameter1, long parameter2Length) {
+        byte[] name = parameter1.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(1 + 2 * MAX_VARINT_BYTES + name.length);
+        header.put((byte) (BINARY_FLAG | type.getCode()));
+        writeVarint(header, name.length);
+        header.put(name);
+        writeVarint(header, Math.toIntExact(parameter2Length));
+        return Arrays.copyOf(header.array(), header.position());
+    }
+    
+    public static int varintLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+    
+    public static void writeVarint(ByteBuffer target, int value) {
+        while ((value & ~0x7F) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+    
+    public static int readVarint(ByteBuffer source) {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+            byte b = source.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Geçersiz uzunluk alanı");
+    }
+    
+    private static String readString(ByteBuffer source) {
+        byte[] bytes = new byte[readVarint(source)];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    // Aralığın putUtf8 ile yazılınca kaplayacağı bayt sayısı
+    public static long utf8Length(CharSequence text, int start, int end, boolean escapeNewlines) {
+        long bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += c == '\n' && escapeNewlines ? 2 : 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                // Eşsiz vekil karakter String.getBytes'taki gibi tek '?' olur
+                bytes += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return bytes;
+    }
+    
+    // Aralığı String.getBytes(UTF_8) ile aynı baytlar olarak hedefe yazar; escapeNewlines ile satır sonları
+    // protokoldeki gibi \\n olur. Hedefte utf8Length kadar yer olmalıdır. Satır sonları arasındaki uzun
+    // aralıklar parça parça char dizisine alınıp JDK kodlayıcısına verilir (ASCII döngüsü karakter karakter
+    // yazmaktan kat kat hızlıdır), kısa olanlar doğrudan kodlanır. Aralığın String kopyası oluşmaz.
+    public static void putUtf8(ByteBuffer target, String text, int start, int end, boolean escapeNewlines) {
+        // Doğrudan tampona bayt bayt yazmak yavaş; önce yığındaki küçük bir diziye kodlanıp toplu kopyalanır
+        ByteBuffer output = target.hasArray() ? target
+            : ByteBuffer.allocate((int) Math.min(3L * SCRATCH_CHARS, 3L * (end - start)) + 4);
+        CharsetEncoder encoder = null;
+        CharBuffer input = null;
+        
+        while (start < end) {
+            int newline = escapeNewlines ? text.indexOf('\n', start) : -1;
+            int runEnd = newline >= 0 && newline < end ? newline : end;
+            if (runEnd - start < BULK_CHARS) {
+                putUtf8Scalar(output, text, start, runEnd);
+                start = runEnd;
+            }
+            while (start < runEnd) {
+                if (encoder == null) {
+                    encoder = StandardCharsets.UTF_8.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                    input = CharBuffer.allocate(Math.min(SCRATCH_CHARS, end - start));
+                }
+                int count = Math.min(input.capacity(), runEnd - start);
+                // Vekil çifti iki parçaya bölünmez
+                if (count < runEnd - start && Character.isHighSurrogate(text.charAt(start + count - 1))) {
+                    count--;
+                }
+                text.getChars(start, start + count, input.array(), 0);
+                input.clear().limit(count);
+                encoder.reset();
+                encoder.encode(input, output, true);
+                encoder.flush(output);
+                start += count;
+                drain(output, target);
+            }
+            if (runEnd < end) {
+                output.put((byte) '\\').put((byte) 'n');
+                start = runEnd + 1;
+            }
+            drain(output, target);
+        }
+    }
+    
+    private static void drain(ByteBuffer output, ByteBuffer target) {
+        if (output != target) {
+            target.put(output.flip());
+            output.clear();
+        }
+    }
+    
+    private static void putUtf8Scalar(ByteBuffer target, String text, int start, int end) {
+        byte[] array = target.array();
+        int out = target.arrayOffset() + target.position();
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                array[out++] = (byte) c;
+            } else if (c < 0x800) {
+                array[out++] = (byte) (0xC0 | c >> 6);
+                array[out++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                array[out++] = (byte) (0xF0 | codePoint >> 18);
+                array[out++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                array[out++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                array[out++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Eşsiz vekil karakter String.getBytes'taki gibi tek '?' olur
+                array[out++] = '?';
+            } else {
+                array[out++] = (byte) (0xE0 | c >> 12);
+                array[out++] = (byte) (0x80 | c >> 6 & 0x3F);
+                array[out++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        target.position(out - target.arrayOffset());
+    }
+    
     @Deprecated
     public static String formatLogin(String username) {
         return Message.login(username).toProtocolString();
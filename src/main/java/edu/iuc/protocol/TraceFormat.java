@@ -0,0 +1,69 @@
+package edu.iuc.protocol;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Sunucu trafik kaydının dosya biçimi. Başlık: "CTPTRACE", sürüm baytı ve kaydın başladığı duvar saati (ms,
+// 8 bayt). Ardından kayıtlar gelir; her kayıt tür baytı, bağlantı numarası (varlong) ve önceki kayıttan bu
+// yana geçen nanosaniye (varlong) ile başlar:
+// INBOUND  - uzunluk (varlong) ve gelen mesajın ikili çerçevesi (bkz. MessageParser), kaçışsız ve eksiksiz
+// OUTBOUND - mesaj türü kodu (1 bayt) ve çerçevenin bayt sayısı (varlong); giden içerik yeniden üretilebildiği
+//            için saklanmaz, yayınlarda alıcı sayısı kadar büyümez
+// CLOSE    - ek alan yok
+public final class TraceFormat {
+    private static final byte[] MAGIC = "CTPTRACE".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = MAGIC.length + 1 + Long.BYTES;
+
+    public static final int INBOUND = 1;
+    public static final int OUTBOUND = 2;
+    public static final int CLOSE = 3;
+
+    public static final int MAX_VARLONG_BYTES = 10;
+    // Tür, bağlantı ve zaman alanlarının en fazla bayt sayısı
+    public static final int MAX_RECORD_HEADER_BYTES = 1 + 2 * MAX_VARLONG_BYTES;
+
+    private TraceFormat() {
+    }
+
+    public static void writeHeader(ByteBuffer target, long startedMillis) {
+        target.put(MAGIC).put((byte) VERSION).putLong(startedMillis);
+    }
+
+    // Başlığı okur ve kaydın başladığı duvar saatini döner
+    public static long readHeader(DataInput input) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        input.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Trafik kaydı dosyası değil");
+        }
+        int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Desteklenmeyen trafik kaydı sürümü: " + version);
+        }
+        return input.readLong();
+    }
+
+    public static void writeVarLong(ByteBuffer target, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    public static long readVarLong(DataInput input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARLONG_BYTES; shift += 7) {
+            byte b = input.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Geçersiz trafik kaydı alanı");
+    }
+}
@@ -0,0 +1,104 @@
+package edu.iuc.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Süren parçalı aktarımlar. Bağlantı kopunca aktarım silinmez, sahibinin yeni bağlantısı devam ettirebilsin
+// diye bir süre tutulur; o süre boyunca onaylanmayan aktarımlar temizleyici thread'de bırakılır.
+// Aktarımların kendisi sadece dosyalarının kutusunda değiştirilir.
+final class ChunkTransfers {
+    private static final Map<String, OutgoingTransfer> outgoing = new ConcurrentHashMap<>();
+    private static final Map<String, IncomingTransfer> incoming = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("aktarim-temizleyici").daemon().factory());
+
+    static {
+        long interval = Math.max(1000L, ServerConfig.getChunkResumeMillis() / 4);
+        sweeper.scheduleWithFixedDelay(ChunkTransfers::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private ChunkTransfers() {
+    }
+
+    static void register(OutgoingTransfer transfer) {
+        outgoing.put(transfer.id, transfer);
+    }
+
+    // Kimliği istemci seçer; başka bir yükleme aynı kimliği kullanıyorsa kayıt yapılmaz
+    static boolean register(IncomingTransfer transfer) {
+        return incoming.putIfAbsent(transfer.id, transfer) == null;
+    }
+
+    // Sahibi olmayan kullanıcıya aktarım görünmez
+    static OutgoingTransfer outgoing(String id, String owner) {
+        OutgoingTransfer transfer = outgoing.get(id);
+        return transfer != null && transfer.owner.equals(owner) ? transfer : null;
+    }
+
+    static IncomingTransfer incoming(String id, String owner) {
+        IncomingTransfer transfer = incoming.get(id);
+        return transfer != null && transfer.owner.equals(owner) ? transfer : null;
+    }
+
+    static boolean isActive(OutgoingTransfer transfer) {
+        return outgoing.get(transfer.id) == transfer;
+    }
+
+    static boolean isActive(IncomingTransfer transfer) {
+        return incoming.get(transfer.id) == transfer;
+    }
+
+    static void finish(OutgoingTransfer transfer) {
+        if (outgoing.remove(transfer.id, transfer)) {
+            transfer.release();
+        }
+    }
+
+    static void finish(IncomingTransfer transfer) {
+        if (incoming.remove(transfer.id, transfer)) {
+            transfer.release();
+        }
+    }
+
+    // Başka bir dosyanın kutusundan bırakılan yükleme kayıttan hemen düşer, dosyası kendi kutusunda kapatılır
+    static void abandon(IncomingTransfer transfer) {
+        if (incoming.remove(transfer.id, transfer)) {
+            DocumentActor.execute(transfer.fileName, transfer::release);
+        }
+    }
+
+    // Bağlantı kapanırken; aktarımlar süre dolana kadar devam ettirilmeyi bekler
+    static void detach(ClientHandler handler) {
+        for (OutgoingTransfer transfer : outgoing.values()) {
+            DocumentActor.execute(transfer.fileName, () -> transfer.detach(handler));
+        }
+        for (IncomingTransfer transfer : incoming.values()) {
+            DocumentActor.execute(transfer.fileName, () -> transfer.detach(handler));
+        }
+    }
+
+    private static void sweep() {
+        long now = System.currentTimeMillis();
+        for (OutgoingTransfer transfer : outgoing.values()) {
+            if (transfer.isExpired(now)) {
+                DocumentActor.execute(transfer.fileName, () -> {
+                    if (transfer.isExpired(now)) {
+                        finish(transfer);
+                    }
+                });
+            }
+        }
+        for (IncomingTransfer transfer : incoming.values()) {
+            if (transfer.isExpired(now)) {
+                DocumentActor.execute(transfer.fileName, () -> {
+                    if (transfer.isExpired(now)) {
+                        finish(transfer);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -1,44 +1,98 @@
 package edu.iuc.server;
 
+import edu.iuc.crdt.CrdtId;
+import edu.iuc.crdt.CrdtOperation;
+import edu.iuc.shared.Capabilities;
+import edu.iuc.shared.Chunks;
 import edu.iuc.shared.Message;
+import edu.iuc.shared.MessageType;
+import edu.iuc.shared.TextOperation;
 import java.io.*;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ClientHandler implements Runnable {
-    private Socket socket;
-    private BufferedReader reader;
-    private BufferedWriter writer;
+    private static final AtomicInteger nextReplicaId = new AtomicInteger(LiveDocument.SERVER_REPLICA + 1);
+    private static final AtomicInteger nextConnectionId = new AtomicInteger(1);
+
+    private static final int READ_BUFFER_BYTES = 8192;
+
+    // Trafik kaydında bağlantıyı ayırt eder
+    private final int connectionId = nextConnectionId.getAndIncrement();
+    // Okuyan thread ve yayın yapan thread'ler günceller; STATS raporu okur
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private InputStream input;
+    private ClientTransport transport;
+    private final OutboundQueue outbound = new OutboundQueue(
+        ServerConfig.getOutboundCapacity(),
+        ServerConfig.getOverflowPolicy(),
+        ServerConfig.getOutboundBlockTimeoutMillis());
     private String username;
     private boolean isLoggedIn = false;
+    private Set<String> capabilities = Collections.emptySet();
+    // Girişten sonra bu istemciye giden çerçeveler ikili kodlanır; yayın thread'leri de okur
+    private volatile boolean binaryWire = false;
+    private EditFormat editFormat = EditFormat.FULL;
+    private int replicaId;
+    // Akışla açılıp henüz belleğe alınmamış belgeler; ilk düzenlemede yüklenir
+    private final Set<String> streamedFiles = ConcurrentHashMap.newKeySet();
+    // Mesajı işleyen thread'de kalır: işleme süresi kutuya bırakılan işte ölçülecekse true
+    private boolean timedElsewhere;
 
     public ClientHandler(Socket socket) {
-        this.socket = socket;
+        this(socket, Thread.ofPlatform().factory());
+    }
+
+    public ClientHandler(Socket socket, ThreadFactory writerFactory) {
         try {
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+            input = socket.getInputStream();
+            transport = new SocketTransport(socket, outbound, writerFactory);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    ClientHandler(ClientTransport transport) {
+        this.transport = transport;
+    }
+
     public void run() {
-        String line;
+        FrameDecoder decoder = new FrameDecoder(this);
+        byte[] chunk = new byte[READ_BUFFER_BYTES];
         try {
-            while ((line = reader.readLine()) != null) {
-                processMessage(line);
+            int read;
+            while ((read = input.read(chunk)) >= 0) {
+                countInbound(read);
+                ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, read);
+                while (buffer.hasRemaining()) {
+                    Message message = decoder.feed(buffer);
+                    if (message != null) {
+                        processMessage(message);
+                    }
+                }
             }
         } catch (IOException e) {
             
         } finally {
+            decoder.close();
             cleanup();
         }
     }
     
-    private void processMessage(String rawMessage) {
+    void processMessage(Message message) {
+        TrafficRecorder.inbound(connectionId, message);
+        long start = System.nanoTime();
+        timedElsewhere = false;
         try {
-            Message message = Message.fromRaw(rawMessage);
-            
             if (!message.isValid()) {
                 sendMessage(Message.error("INVALID_MESSAGE", "Geçersiz mesaj formatı"));
                 return;
@@ -51,13 +105,17 @@ public class ClientHandler implements Runnable {
             
             switch (message.getType()) {
                 case LOGIN:
-                    handleLogin(message.getUsername());
+                    handleLogin(message.getUsername(), message.getCapabilities());
                     break;
                     
                 case LIST_FILES_REQUEST:
                     handleListFilesRequest();
                     break;
                     
+                case LIST_FILES_PAGE:
+                    handleListFilesPage(message);
+                    break;
+                    
                 case OPEN_FILE_REQUEST:
                     handleOpenFileRequest(message.getFileName());
                     break;
@@ -71,7 +129,51 @@ public class ClientHandler implements Runnable {
                     break;
                     
                 case SAVE_FILE:
-                    handleSaveFile(message.getFileName(), message.getFileContent());
+                    handleSaveFile(message.getFileName(), message.getContentView());
+                    break;
+                    
+                case EDIT_DELTA:
+                    handleEditDelta(message);
+                    break;
+                    
+                case CRDT_OP:
+                    handleCrdtOperation(message);
+                    break;
+                    
+                case CRDT_GC:
+                    handleCrdtCollect(message);
+                    break;
+                    
+                case CHUNK_BEGIN:
+                    handleChunkBegin(message);
+                    break;
+                    
+                case CHUNK_DATA:
+                    handleChunkData(message);
+                    break;
+                    
+                case CHUNK_END:
+                    handleChunkEnd(message);
+                    break;
+                    
+                case CHUNK_ACK:
+                    handleChunkAck(message);
+                    break;
+                    
+                case CHUNK_RESUME:
+                    handleChunkResume(message);
+                    break;
+                    
+                case CLOSE_FILE:
+                    UserManager.unsubscribe(message.getFileName(), this);
+                    break;
+                    
+                case TRACE:
+                    handleTrace(message.getParameter1(), message.getParameter2());
+                    break;
+                    
+                case STATS:
+                    handleStats();
                     break;
                     
                 default:
@@ -79,10 +181,31 @@ public class ClientHandler implements Runnable {
             }
         } catch (Exception e) {
             sendMessage(Message.error("PARSE_ERROR", "Mesaj ayrıştırılamadı: " + e.getMessage()));
+        } finally {
+            // Başka thread'e bırakılan işin süresi orada, iş bitince kaydedilir
+            if (!timedElsewhere) {
+                ServerMetrics.processed(message.getType(), System.nanoTime() - start);
+            }
         }
     }
+
+    // Dosyanın kutusuna ya da listeleme thread'ine bırakılan işte processMessage sadece kuyruğa eklemeyi
+    // ölçerdi. Süre işin kuyruktan alınmasından bitmesine kadardır; kuyrukta bekleme ayrıca kaydedilir.
+    private Runnable timed(MessageType type, Runnable task) {
+        timedElsewhere = true;
+        long queued = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            ServerMetrics.queued(start - queued);
+            try {
+                task.run();
+            } finally {
+                ServerMetrics.processed(type, System.nanoTime() - start);
+            }
+        };
+    }
     
-    private void handleLogin(String requestedUsername) {
+    private void handleLogin(String requestedUsername, String requestedCapabilities) {
         if (isLoggedIn) {
             sendMessage(Message.error("ALREADY_LOGGED_IN", "Zaten giriş yapılmış"));
             return;
@@ -96,9 +219,23 @@ public class ClientHandler implements Runnable {
         if (UserManager.addUser(requestedUsername, this)) {
             this.username = requestedUsername;
             this.isLoggedIn = true;
-            sendMessage(Message.success("Giriş başarılı"));
+            this.capabilities = Capabilities.parse(requestedCapabilities);
+            if (capabilities.contains(Capabilities.CRDT)) {
+                this.editFormat = EditFormat.CRDT;
+                this.replicaId = nextReplicaId.getAndIncrement();
+            } else if (capabilities.contains(Capabilities.DELTA)) {
+                this.editFormat = EditFormat.DELTA;
+            }
+            sendMessage(Message.success("Giriş başarılı",
+                Capabilities.join(Capabilities.DELTA, Capabilities.CRDT, Capabilities.FILES, Capabilities.PAGES,
+                    Capabilities.STREAM, Capabilities.CHUNKS, Capabilities.BINARY)));
+            // Giriş yanıtı metin olarak gider; istemci ikili çerçeveleri ilk baytından ayırt eder
+            binaryWire = capabilities.contains(Capabilities.BINARY);
             
-            handleListFilesRequest();
+            // Sayfalı istemci listeyi kendisi ister; büyük dizinlerde tek parça liste gönderilmez
+            if (!capabilities.contains(Capabilities.PAGES)) {
+                handleListFilesRequest();
+            }
         } else {
             sendMessage(Message.error("USERNAME_TAKEN", "Bu kullanıcı adı zaten kullanılıyor"));
         }
@@ -110,79 +247,618 @@ public class ClientHandler implements Runnable {
         sendMessage(Message.listFilesResponse(fileList));
     }
     
+    private void handleListFilesPage(Message message) {
+        // I/O thread'i sayfa hazırlanırken diğer bağlantıları bekletmesin
+        if (!transport.canBlockCurrentThread()) {
+            FileListing.execute(timed(MessageType.LIST_FILES_PAGE, () -> listFilesPage(message)));
+            return;
+        }
+        listFilesPage(message);
+    }
+
+    private void listFilesPage(Message message) {
+        FileListing.Page page;
+        try {
+            page = FileListing.page(message.getPageCursor(), message.getPageSize(), message.getPageSort(),
+                                    message.isPageDescending(), message.getPagePrefix());
+        } catch (IllegalArgumentException e) {
+            sendMessage(Message.error("LIST_ERROR", "Geçersiz listeleme isteği: " + e.getMessage()));
+            return;
+        }
+        sendMessage(Message.listFilesPageResponse(page.nextCursor, page.entries));
+    }
+    
     private void handleOpenFileRequest(String fileName) {
+        // Önce odaya girilir, böylece anlık görüntüden sonraki hiçbir düzenleme kaçırılmaz
+        UserManager.subscribe(fileName, this);
+        // Anlık görüntü dosyanın kutusunda gönderilir: öncesindeki düzenlemeler içindedir, sonrakiler yayınla gelir
+        DocumentActor.execute(fileName, timed(MessageType.OPEN_FILE_REQUEST, () -> {
+            // Parçalı aktarım akıştan önce gelir: alıcının tamponu da parçayla sınırlı kalır. İkili istemciye
+            // akış çerçevesi kaçışsız OPEN_FILE_RESPONSE olarak gider.
+            boolean chunked = capabilities.contains(Capabilities.CHUNKS) && editFormat != EditFormat.CRDT;
+            boolean stream = !chunked && (capabilities.contains(Capabilities.STREAM) || binaryWire)
+                && editFormat != EditFormat.CRDT;
+            LiveDocument document;
+            try {
+                // Kimse düzenlemiyorsa dosya belleğe alınmadan diskten doğrudan sokete aktarılır;
+                // belge ilk düzenlemede yüklenir
+                if ((chunked || stream) && DocumentManager.get(fileName) == null) {
+                    DocumentStorage.Region region = FileManager.openStored(fileName);
+                    if (region != null) {
+                        streamedFiles.add(fileName);
+                        if (chunked) {
+                            startTransfer(OutgoingTransfer.ofRegion(fileName, username, region,
+                                                                    FileManager.storedMetadata(fileName)));
+                            return;
+                        }
+                        sendFrame(OutboundFrame.ofStream(fileName, region));
+                        if (editFormat == EditFormat.DELTA) {
+                            sendMessage(Message.deltaAck(fileName, 0));
+                        }
+                        return;
+                    }
+                }
+                document = DocumentManager.acquire(fileName);
+                if (chunked) {
+                    // Sürüm CHUNK_BEGIN'de gider; delta istemcisine ayrıca DELTA_ACK gönderilmez
+                    startTransfer(OutgoingTransfer.ofDocument(fileName, username, document.snapshot(),
+                                                              document.getVersion()));
+                    return;
+                }
+            } catch (IOException e) {
+                UserManager.unsubscribe(fileName, this);
+                sendMessage(Message.error("FILE_ERROR", e.getMessage()));
+                return;
+            }
+            
+            if (binaryWire) {
+                sendFrame(OutboundFrame.ofBinaryDocument(MessageType.OPEN_FILE_RESPONSE, fileName, document.snapshot()));
+            } else if (stream) {
+                sendFrame(OutboundFrame.ofStream(fileName, document.snapshot()));
+            } else {
+                sendFrame(OutboundFrame.ofDocument(MessageType.OPEN_FILE_RESPONSE, fileName, document.snapshot()));
+            }
+            if (editFormat == EditFormat.CRDT) {
+                sendMessage(Message.crdtSync(fileName, replicaId, document.getCrdt().encodeState()));
+                document.addCrdtReplica(this);
+            } else if (editFormat == EditFormat.DELTA) {
+                sendMessage(Message.deltaAck(fileName, document.getVersion()));
+            }
+        }));
+    }
+    
+    // Dosyanın kutusunda çağrılır
+    private void startTransfer(OutgoingTransfer transfer) throws IOException {
+        ChunkTransfers.register(transfer);
         try {
-            String content = FileManager.loadFile(fileName);
-            sendMessage(Message.openFileResponse(fileName, content));
+            transfer.start(this);
         } catch (IOException e) {
-            sendMessage(Message.error("FILE_ERROR", e.getMessage()));
+            ChunkTransfers.finish(transfer);
+            throw e;
+        }
+    }
+    
+    private void handleChunkAck(Message message) {
+        OutgoingTransfer transfer = ChunkTransfers.outgoing(message.getTransferId(), username);
+        if (transfer == null) {
+            return;
+        }
+        long received = message.getChunkPosition();
+        DocumentActor.execute(transfer.fileName, timed(MessageType.CHUNK_ACK, () -> {
+            try {
+                if (ChunkTransfers.isActive(transfer) && transfer.acknowledge(this, received)) {
+                    ChunkTransfers.finish(transfer);
+                }
+            } catch (IOException e) {
+                ChunkTransfers.finish(transfer);
+                sendMessage(Message.error("FILE_ERROR", e.getMessage()));
+            }
+        }));
+    }
+    
+    // Bağlantı koptuktan sonra yarım kalan indirme. Belge bu arada değiştiyse istemci kaçırdığı düzenlemeleri
+    // alamayacağı için aktarım bırakılır; istemci TRANSFER_EXPIRED alınca dosyayı yeniden açar.
+    private void handleChunkResume(Message message) {
+        String transferId = message.getTransferId();
+        OutgoingTransfer transfer = ChunkTransfers.outgoing(transferId, username);
+        if (transfer == null) {
+            sendMessage(Message.error("TRANSFER_EXPIRED", transferId));
+            return;
+        }
+        long received = message.getChunkPosition();
+        UserManager.subscribe(transfer.fileName, this);
+        DocumentActor.execute(transfer.fileName, timed(MessageType.CHUNK_RESUME, () -> {
+            boolean resumed = false;
+            try {
+                resumed = ChunkTransfers.isActive(transfer) && transfer.resume(this, received);
+            } catch (IOException e) {
+                System.err.println("Aktarım sürdürülemedi: " + e.getMessage());
+            }
+            if (!resumed) {
+                ChunkTransfers.finish(transfer);
+                UserManager.unsubscribe(transfer.fileName, this);
+                sendMessage(Message.error("TRANSFER_EXPIRED", transferId));
+            } else if (transfer.isRegion()) {
+                streamedFiles.add(transfer.fileName);
+            }
+        }));
+    }
+    
+    // Aynı kimlikle gelen ikinci BEGIN kesintiden sonra devam demektir; onay kaldığı yeri bildirir.
+    // Bildirilen boy sınırlıdır: yükleme hem geçici dosyada hem CHUNK_END'de bellekte bu kadar yer tutar.
+    private void handleChunkBegin(Message message) {
+        String transferId = message.getTransferId();
+        String fileName = message.getFileName();
+        String kind = message.getChunkKind();
+        long total = message.getChunkTotal();
+        if (!Chunks.SAVE.equals(kind) && !Chunks.EDIT.equals(kind) || total < 0
+            || total > ServerConfig.getChunkUploadMaxBytes() || transferId.isEmpty()) {
+            sendMessage(Message.error("TRANSFER_ERROR", transferId));
+            return;
+        }
+        
+        DocumentActor.execute(fileName, timed(MessageType.CHUNK_BEGIN, () -> {
+            IncomingTransfer transfer = ChunkTransfers.incoming(transferId, username);
+            if (transfer != null && !transfer.fileName.equals(fileName)) {
+                // Kimlik başka bir dosya için yeniden kullanıldı; eski yükleme bırakılır
+                ChunkTransfers.abandon(transfer);
+                transfer = null;
+            }
+            if (transfer == null) {
+                try {
+                    transfer = IncomingTransfer.create(transferId, fileName, username, kind, total);
+                } catch (IOException e) {
+                    sendMessage(Message.error("SAVE_ERROR", e.getMessage()));
+                    return;
+                }
+                // Kimlik başka bir kullanıcının süren yüklemesinde
+                if (!ChunkTransfers.register(transfer)) {
+                    transfer.release();
+                    sendMessage(Message.error("TRANSFER_ERROR", transferId));
+                    return;
+                }
+            }
+            transfer.attach(this);
+            sendMessage(Message.chunkAck(transferId, transfer.getReceived()));
+        }));
+    }
+    
+    private void handleChunkData(Message message) {
+        IncomingTransfer transfer = ChunkTransfers.incoming(message.getTransferId(), username);
+        if (transfer == null) {
+            sendMessage(Message.error("TRANSFER_EXPIRED", message.getTransferId()));
+            return;
+        }
+        long offset = message.getChunkPosition();
+        byte[] data = message.getChunkData();
+        if (data.length > ServerConfig.getChunkBytes()) {
+            sendMessage(Message.error("TRANSFER_ERROR", transfer.id));
+            return;
         }
+        DocumentActor.execute(transfer.fileName, timed(MessageType.CHUNK_DATA, () -> {
+            if (!ChunkTransfers.isActive(transfer) || !transfer.isSender(this)) {
+                return;
+            }
+            try {
+                transfer.append(offset, data);
+                sendMessage(Message.chunkAck(transfer.id, transfer.getReceived()));
+            } catch (IOException e) {
+                ChunkTransfers.finish(transfer);
+                sendMessage(Message.error("TRANSFER_ERROR", transfer.id));
+            }
+        }));
+    }
+    
+    // İçerik doğrulanınca tek satırlık SAVE_FILE / EDIT gibi uygulanır; CHUNK_END geri gönderilerek onaylanır
+    private void handleChunkEnd(Message message) {
+        IncomingTransfer transfer = ChunkTransfers.incoming(message.getTransferId(), username);
+        if (transfer == null) {
+            sendMessage(Message.error("TRANSFER_EXPIRED", message.getTransferId()));
+            return;
+        }
+        long crc = message.getChunkCrc();
+        DocumentActor.execute(transfer.fileName, timed(MessageType.CHUNK_END, () -> {
+            if (!ChunkTransfers.isActive(transfer) || !transfer.isSender(this)) {
+                return;
+            }
+            PieceTable content;
+            try {
+                content = transfer.finish(crc);
+            } catch (IOException e) {
+                sendMessage(Message.error("TRANSFER_ERROR", transfer.id));
+                return;
+            } finally {
+                ChunkTransfers.finish(transfer);
+            }
+            
+            if (Chunks.SAVE.equals(transfer.kind)) {
+                applyUploadedSave(transfer.fileName, content);
+            } else {
+                // Tam metin tek bir EDIT satırı olarak yayınlandığı için String'e çevrilmesi gerekir
+                applyFullText(transfer.fileName, content.toString());
+            }
+            sendMessage(Message.chunkEnd(transfer.id, crc));
+        }));
     }
     
+    // Düzenleme işleri dosyanın kutusuna bırakılır; okuma thread'i (NIO'da I/O thread'i) beklemez
     private void handleEdit(String fileName, String content) {
+        DocumentActor.execute(fileName, timed(MessageType.EDIT, () -> applyFullText(fileName, content)));
+    }
+    
+    private void applyFullText(String fileName, String text) {
+        try {
+            LiveDocument document = liveDocument(fileName);
+            if (document == null) {
+                FileManager.saveDocument(fileName, text);
+                UserManager.broadcastToRoom(Message.edit(fileName, text), fileName, this);
+                return;
+            }
+            
+            TextOperation operation = document.replaceAll(text);
+            FileManager.updateDocument(fileName, document.snapshot(), operation);
+            broadcastDocumentChange(document, operation);
+        } catch (IOException e) {
+            sendMessage(Message.error("SAVE_ERROR", e.getMessage()));
+        }
+    }
+    
+    private void handleEditDelta(Message message) {
+        String fileName = message.getFileName();
+        DocumentActor.execute(fileName, timed(MessageType.EDIT_DELTA, () -> applyEditDelta(message)));
+    }
+    
+    private void applyEditDelta(Message message) {
+        String fileName = message.getFileName();
         try {
-            FileManager.saveFile(fileName, content);
+            LiveDocument document = liveDocument(fileName);
+            if (document == null) {
+                sendMessage(Message.error("DELTA_REJECTED", fileName));
+                return;
+            }
+            
+            TextOperation operation = document.apply(message.getDeltaVersion(), message.getDeltaOperation());
+            FileManager.updateDocument(fileName, document.snapshot(), operation);
+            broadcastDocumentChange(document, operation);
+            sendMessage(Message.deltaAck(fileName, document.getVersion()));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // İstemci belgeyi yeniden açarak eşitlenir
+            sendMessage(Message.error("DELTA_REJECTED", fileName));
+        } catch (IOException e) {
+            sendMessage(Message.error("SAVE_ERROR", e.getMessage()));
+        }
+    }
+    
+    // Akışla açılan belge ilk düzenlemeye kadar bellekte değildir; o istemci düzenlediğinde yüklenir
+    private LiveDocument liveDocument(String fileName) throws IOException {
+        LiveDocument document = DocumentManager.get(fileName);
+        boolean streamed = streamedFiles.remove(fileName);
+        if (document == null && streamed) {
+            document = DocumentManager.acquire(fileName);
+            // CLOSE_FILE düzenlemeden önce işlenip oda boşaldıysa belge yine bırakılır
+            if (UserManager.getSubscriberCount(fileName) == 0) {
+                DocumentManager.release(fileName);
+            }
+        }
+        return document;
+    }
+    
+    private void handleCrdtOperation(Message message) {
+        String fileName = message.getFileName();
+        DocumentActor.execute(fileName, timed(MessageType.CRDT_OP, () -> applyCrdtOperation(message)));
+    }
+    
+    private void applyCrdtOperation(Message message) {
+        String fileName = message.getFileName();
+        LiveDocument document = DocumentManager.get(fileName);
+        if (document == null || editFormat != EditFormat.CRDT) {
+            sendMessage(Message.error("CRDT_REJECTED", fileName));
+            return;
+        }
+        
+        try {
+            List<CrdtOperation> operations = message.getCrdtOperations();
+            for (CrdtOperation operation : operations) {
+                // İstemci sadece kendi replika kimliğiyle karakter ekleyebilir
+                if (operation.isInsert() && CrdtId.replica(operation.getId()) != replicaId) {
+                    throw new IllegalArgumentException("Yabancı replika kimliği");
+                }
+            }
             
-            Message editMessage = Message.edit(fileName, content);
-            UserManager.broadcastToOthers(editMessage.toProtocolString(), this);
+            TextOperation effect = document.getCrdt().apply(operations);
+            if (!effect.isEmpty()) {
+                document.applyCurrent(effect);
+                FileManager.updateDocument(fileName, document.snapshot(), effect);
+            }
             
+            OutboundFrame relay = OutboundFrame.of(Message.crdtOperation(fileName, operations));
+            broadcastDocumentChange(document, effect, relay);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            sendMessage(Message.error("CRDT_REJECTED", fileName));
         } catch (IOException e) {
             sendMessage(Message.error("SAVE_ERROR", e.getMessage()));
         }
     }
     
+    // İstemcinin onayı, ondan önce gönderdiği CRDT_OP'lardan sonra dosyanın kutusunda işlenir
+    private void handleCrdtCollect(Message message) {
+        String fileName = message.getFileName();
+        DocumentActor.execute(fileName, timed(MessageType.CRDT_GC, () -> {
+            LiveDocument document = DocumentManager.get(fileName);
+            if (document == null || editFormat != EditFormat.CRDT) {
+                return;
+            }
+            try {
+                document.acknowledgeCollection(this, message.getCrdtRound());
+            } catch (NumberFormatException e) {
+                sendMessage(Message.error("CRDT_REJECTED", fileName));
+                return;
+            }
+            finishCollection(document);
+        }));
+    }
+    
+    // Dosyanın kutusunda çağrılır. Öneri, önceki silmelerin yayınından sonra kuyruğa girer.
+    private static void collectTombstones(LiveDocument document) {
+        List<ClientHandler> replicas = document.beginCollection();
+        if (!replicas.isEmpty()) {
+            OutboundFrame proposal = OutboundFrame.of(
+                Message.crdtCollect(document.getFileName(), document.getCollectionRound()));
+            for (ClientHandler replica : replicas) {
+                replica.sendFrame(proposal);
+            }
+        }
+        finishCollection(document);
+    }
+    
+    private static void finishCollection(LiveDocument document) {
+        List<CrdtOperation> collected = document.finishCollection();
+        if (collected == null) {
+            return;
+        }
+        OutboundFrame frame = OutboundFrame.of(
+            Message.crdtCollected(document.getFileName(), document.getCollectionRound(), collected));
+        for (ClientHandler replica : document.getCrdtReplicas()) {
+            replica.sendFrame(frame);
+        }
+    }
+    
+    private void broadcastDocumentChange(LiveDocument document, TextOperation operation) {
+        List<CrdtOperation> crdtOperations = document.mirrorToCrdt(operation);
+        OutboundFrame crdtFrame = crdtOperations.isEmpty() ? null
+            : OutboundFrame.of(Message.crdtOperation(document.getFileName(), crdtOperations));
+        broadcastDocumentChange(document, operation, crdtFrame);
+    }
+    
+    // Her istemci biçimine göre değişikliği, eski istemciler tam içeriği alır; her biçim bir kez kodlanır
+    private void broadcastDocumentChange(LiveDocument document, TextOperation operation, OutboundFrame crdtFrame) {
+        String fileName = document.getFileName();
+        UserManager.broadcastToRoom(fileName, this, format -> {
+            if (format == EditFormat.CRDT) {
+                return crdtFrame;
+            }
+            if (operation.isEmpty()) {
+                return null;
+            }
+            if (format == EditFormat.DELTA) {
+                return OutboundFrame.of(Message.editDelta(fileName, document.getVersion(), operation));
+            }
+            return OutboundFrame.ofDocument(MessageType.EDIT, fileName, document.snapshot());
+        });
+        collectTombstones(document);
+    }
+    
+    // Yeni ad FileManager'da dosya dizinine eklenirken herkese FILE_ADDED (eski istemcilere
+    // LIST_FILES_REQUEST) olarak yayınlanır; olayları anlamayan oluşturan, listeyi yine hemen alır
+    // Oluşturma dosyanın kutusunda yapılır; NIO modunda I/O thread'i diski beklemez
     private void handleCreateFile(String fileName) {
+        DocumentActor.execute(fileName, timed(MessageType.CREATE_FILE, () -> applyCreateFile(fileName)));
+    }
+    
+    private void applyCreateFile(String fileName) {
         if (FileManager.createFile(fileName)) {
             sendMessage(Message.success("Dosya oluşturuldu: " + fileName));
             
-            handleListFilesRequest();
-            UserManager.broadcastToOthers(Message.listFilesRequest().toProtocolString(), this);
+            if (!supportsFileEvents()) {
+                handleListFilesRequest();
+            }
         } else {
             sendMessage(Message.error("CREATE_ERROR", "Dosya oluşturulamadı (zaten var olabilir)"));
         }
     }
     
-    private void handleSaveFile(String fileName, String content) {
+    // İçerik satırdan String'e kopyalanmadan diske kodlanır
+    private void handleSaveFile(String fileName, CharSequence content) {
+        DocumentActor.execute(fileName, timed(MessageType.SAVE_FILE, () -> applySaveFile(fileName, content)));
+    }
+    
+    private void applySaveFile(String fileName, CharSequence content) {
+        LiveDocument document = DocumentManager.get(fileName);
         try {
-            FileManager.saveFile(fileName, content);
+            if (document != null) {
+                // Canlı belge sunucuda güncel; delta istemcisinin gönderdiği içerik yerine o yazılır.
+                // Yazma-arkası modunda da SAVE_FILE beklemeden diske yazılır ve fsync edilir.
+                if (editFormat == EditFormat.FULL) {
+                    applyFullText(fileName, content.toString());
+                }
+                FileManager.checkpoint(fileName, document.snapshot());
+            } else {
+                FileManager.saveFile(fileName, content);
+            }
             sendMessage(Message.success("Dosya kaydedildi: " + fileName));
         } catch (IOException e) {
             sendMessage(Message.error("SAVE_ERROR", e.getMessage()));
         }
     }
     
-    public void sendMessage(String message) {
+    // Parçalı yüklemeyle gelen kayıt; belge açık değilse geçici dosyadan okunan belge olduğu gibi yazılır
+    private void applyUploadedSave(String fileName, PieceTable content) {
+        LiveDocument document = DocumentManager.get(fileName);
+        try {
+            if (document != null) {
+                if (editFormat == EditFormat.FULL) {
+                    applyFullText(fileName, content.toString());
+                }
+                FileManager.checkpoint(fileName, document.snapshot());
+            } else {
+                FileManager.saveFile(fileName, content);
+            }
+            sendMessage(Message.success("Dosya kaydedildi: " + fileName));
+        } catch (IOException e) {
+            sendMessage(Message.error("SAVE_ERROR", e.getMessage()));
+        }
+    }
+    
+    // STATS# raporu STATS#<çalışma süresi sn>#<çok satırlı metin> olarak döner
+    private void handleStats() {
+        if (!ServerConfig.getAdminUsers().contains(username)) {
+            sendMessage(Message.error("NOT_ADMIN", "Bu komut için yönetici yetkisi gerekir"));
+            return;
+        }
+        sendMessage(Message.stats(ServerMetrics.getUptimeSeconds(), ServerMetrics.report()));
+    }
+    
+    // TRACE#start#<ad> kaydı files/.traces/<ad> dosyasına başlatır, TRACE#stop# durdurur
+    private void handleTrace(String action, String traceName) {
+        if (!ServerConfig.getAdminUsers().contains(username)) {
+            sendMessage(Message.error("NOT_ADMIN", "Bu komut için yönetici yetkisi gerekir"));
+            return;
+        }
+        
         try {
-            writer.write(message + "\n");
-            writer.flush();
+            if ("start".equalsIgnoreCase(action.trim())) {
+                Path path = TrafficRecorder.start(traceName);
+                sendMessage(Message.success("Trafik kaydı başladı", path.toString()));
+            } else if ("stop".equalsIgnoreCase(action.trim())) {
+                Path path = TrafficRecorder.stop();
+                if (path == null) {
+                    sendMessage(Message.error("TRACE_ERROR", "Açık trafik kaydı yok"));
+                } else {
+                    sendMessage(Message.success("Trafik kaydı durdu", path.toString()));
+                }
+            } else {
+                sendMessage(Message.error("TRACE_ERROR", "Bilinmeyen kayıt komutu: " + action));
+            }
         } catch (IOException e) {
-            System.err.println("Mesaj gönderilirken hata: " + e.getMessage());
+            sendMessage(Message.error("TRACE_ERROR", e.getMessage()));
         }
     }
     
+    public void sendMessage(String message) {
+        sendFrame(OutboundFrame.ofLine(message));
+    }
+    
     public void sendMessage(Message message) {
-        sendMessage(message.toProtocolString());
+        if (message.getType() == MessageType.ERROR) {
+            ServerMetrics.error(message.getParameter1());
+        }
+        sendFrame(OutboundFrame.of(message));
+    }
+    
+    void sendFrame(OutboundFrame frame) {
+        if (transport == null) {
+            return;
+        }
+        
+        if (binaryWire) {
+            frame = frame.binary();
+        }
+        TrafficRecorder.outbound(connectionId, frame);
+        // Giden bayt kuyruğa alınırken sayılır; kuyrukta sonradan atılan EDIT'ler de dahildir
+        long size = frame.size() + (frame.hasRegion() ? frame.regionCount() : 0);
+        if (!outbound.offer(frame, transport.canBlockCurrentThread())) {
+            frame.release();
+            ServerMetrics.error("SLOW_CLIENT");
+            System.err.println("Yavaş istemcinin bağlantısı kesiliyor: " + username + " (" + getOutboundStats() + ")");
+            transport.close();
+            return;
+        }
+        bytesOut.addAndGet(size);
+        ServerMetrics.sent(size);
+        transport.onFrameQueued();
+    }
+    
+    OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+    
+    // Okuma döngüsü (bloklayan modda) ya da NioConnection okunan her parçayı bildirir
+    void countInbound(int bytes) {
+        bytesIn.addAndGet(bytes);
+        ServerMetrics.received(bytes);
+    }
+    
+    long getBytesIn() {
+        return bytesIn.get();
+    }
+    
+    long getBytesOut() {
+        return bytesOut.get();
+    }
+    
+    public int getOutboundQueueDepth() {
+        return outbound.size();
+    }
+    
+    public long getDroppedMessageCount() {
+        return outbound.getDroppedCount();
+    }
+    
+    public String getOutboundStats() {
+        return "kuyruk=" + outbound.size() + "/" + outbound.getCapacity()
+            + ", en yüksek=" + outbound.getMaxDepth()
+            + ", gönderilen=" + outbound.getEnqueuedCount()
+            + ", düşürülen=" + outbound.getDroppedCount()
+            + ", politika=" + outbound.getPolicy();
     }
     
     public String getUsername() {
         return username;
     }
     
+    int getConnectionId() {
+        return connectionId;
+    }
+    
+    // Girişte bildirilen özellikler, LOGIN mesajındaki biçimde
+    String getCapabilityList() {
+        return Capabilities.join(capabilities.toArray(new String[0]));
+    }
+    
     public boolean isLoggedIn() {
         return isLoggedIn;
     }
     
-    private void cleanup() {
+    EditFormat getEditFormat() {
+        return editFormat;
+    }
+
+    boolean supportsFileEvents() {
+        return capabilities.contains(Capabilities.FILES);
+    }
+    
+    // Mesajın geri kalanı okunmadan atılır; bağlantı açık kalır
+    void rejectFrame(int maxBytes) {
+        sendMessage(Message.error("FRAME_TOO_LARGE", "Mesaj en fazla " + maxBytes + " bayt olabilir"));
+    }
+    
+    void cleanup() {
+        TrafficRecorder.closed(connectionId);
+        if (outbound.getDroppedCount() > 0) {
+            System.out.println("İstemci " + username + " giden kuyruk özeti: " + getOutboundStats());
+        }
+        
         try {
             if (isLoggedIn) {
                 UserManager.removeUser(this);
+                ChunkTransfers.detach(this);
             }
             
-            if (reader != null) reader.close();
-            if (writer != null) writer.close();
-            if (socket != null) socket.close();
+            if (input != null) input.close();
         } catch (IOException e) {
             System.err.println("Cleanup sırasında hata: " + e.getMessage());
+        } finally {
+            if (transport != null) transport.close();
         }
     }
 }
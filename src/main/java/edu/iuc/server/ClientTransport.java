@@ -0,0 +1,11 @@
+package edu.iuc.server;
+
+interface ClientTransport {
+    // Kuyruğa yeni çerçeve eklendiğinde yazıcıyı uyandırır
+    void onFrameQueued();
+
+    // Kuyruğu boşaltan thread kendi kuyruğu dolduğunda bekletilemez
+    boolean canBlockCurrentThread();
+
+    void close();
+}
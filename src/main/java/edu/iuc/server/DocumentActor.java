@@ -0,0 +1,128 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Bir dosyanın bütün işleri (yükleme, düzenleme, kaydetme) o dosyanın posta kutusunda sırayla,
+// tek yazarla çalışır; kilit gerekmez. Farklı dosyaların kutuları ayrı sanal thread'lerde paralel
+// boşaltılır. Kutu sadece işi varken kayıtta durur, boşalınca silinir.
+final class DocumentActor implements Runnable {
+    private static final Map<String, DocumentActor> actors = new ConcurrentHashMap<>();
+    private static final Executor executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("belge-", 0).factory());
+
+    private final String fileName;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private volatile Thread owner;
+
+    private DocumentActor(String fileName) {
+        this.fileName = fileName;
+    }
+
+    // İş kutuya eklenir ve hemen dönülür; aynı dosyanın işleri geliş sırasıyla çalışır
+    static void execute(String fileName, Runnable task) {
+        boolean[] created = {false};
+        // Ekleme ile boşalınca silme aynı anahtar üzerinde compute içinde yapılır, iş kaybolmaz
+        DocumentActor actor = actors.compute(fileName, (key, current) -> {
+            if (current == null) {
+                current = new DocumentActor(key);
+                created[0] = true;
+            }
+            current.mailbox.add(task);
+            return current;
+        });
+        if (created[0]) {
+            executor.execute(actor);
+        }
+    }
+
+    static <T> CompletableFuture<T> submit(String fileName, IoTask<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(fileName, () -> {
+            try {
+                result.complete(task.call());
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    // Sonucu bekler; dosyanın kendi kutusundan çağrılırsa kilitlenmemek için iş yerinde çalıştırılır
+    static <T> T call(String fileName, IoTask<T> task) throws IOException {
+        if (isOwner(fileName)) {
+            return task.call();
+        }
+
+        try {
+            return submit(fileName, task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Dosya işi beklenirken kesildi: " + fileName);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    static boolean isOwner(String fileName) {
+        DocumentActor actor = actors.get(fileName);
+        return actor != null && actor.owner == Thread.currentThread();
+    }
+
+    static int getActiveCount() {
+        return actors.size();
+    }
+
+    @Override
+    public void run() {
+        owner = Thread.currentThread();
+        try {
+            while (true) {
+                Runnable task = mailbox.poll();
+                if (task != null) {
+                    runSafely(task);
+                    continue;
+                }
+
+                boolean[] retired = {false};
+                actors.computeIfPresent(fileName, (key, current) -> {
+                    if (current == this && mailbox.isEmpty()) {
+                        retired[0] = true;
+                        return null;
+                    }
+                    return current;
+                });
+                if (retired[0]) {
+                    return;
+                }
+            }
+        } finally {
+            owner = null;
+        }
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // Bir işin hatası kutudaki sonraki işleri durdurmaz
+            System.err.println("Belge işi başarısız: " + fileName + " - " + e);
+        }
+    }
+
+    interface IoTask<T> {
+        T call() throws IOException;
+    }
+}
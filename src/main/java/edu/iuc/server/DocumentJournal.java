@@ -0,0 +1,236 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.TextOperation;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+// Belgenin anlık görüntüsü dosyanın kendisidir (files/<ad>); sonraki düzenlemeler <ad>.log günlüğüne
+// sadece eklenerek yazılır, böylece bir düzenlemenin disk maliyeti dosya boyuna değil değişikliğe bağlıdır.
+// Günlük, hangi anlık görüntünün üzerine yazıldığını (boyut + CRC) bildiren bir BASE kaydıyla başlar.
+// Sıkıştırma: önce yeni anlık görüntü atomik yazılır, sonra günlük tek BASE kaydıyla yenilenir.
+// İkisinin arasında çökülürse dosya BASE ile uyuşmaz ve zaten güncel olduğu için günlük yok sayılır.
+// Kayıt biçimi: [uzunluk int][crc32 int][tür byte][sürüm long][veri]
+final class DocumentJournal {
+    private static final byte BASE = 1;
+    private static final byte OPERATION = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_PREFIX_BYTES = 9;
+
+    // Yazma büyütmesi ölçümü: günlüğe ve anlık görüntülere yazılan baytlar, düzenlemelerin kendi baytları
+    private static final AtomicLong journalBytes = new AtomicLong();
+    private static final AtomicLong snapshotBytes = new AtomicLong();
+    private static final AtomicLong operationBytes = new AtomicLong();
+
+    private final Path directory;
+    private final String fileName;
+    private FileChannel channel;
+    private long baseVersion;
+    private long version;
+    private long size;
+
+    private DocumentJournal(Path directory, String fileName) {
+        this.directory = directory;
+        this.fileName = fileName;
+    }
+
+    // Verilen anlık görüntünün üzerine boş bir günlük açar; varsa eskisinin yerine geçer
+    static DocumentJournal create(Path directory, String fileName, long version, PieceTable snapshot)
+            throws IOException {
+        DocumentJournal journal = new DocumentJournal(directory, fileName);
+        journal.startSegment(version, snapshot);
+        return journal;
+    }
+
+    static Path logPath(Path directory, String fileName) {
+        return directory.resolve(fileName + ".log");
+    }
+
+    void append(TextOperation operation) throws IOException {
+        byte[] encoded = operation.encode().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = record(OPERATION, version + 1, encoded);
+        int length = record.remaining();
+        writeFully(channel, record);
+        version++;
+        size += length;
+        journalBytes.addAndGet(length);
+        operationBytes.addAndGet(encoded.length);
+    }
+
+    // Yeni anlık görüntü dosyaya yazıldıktan sonra çağrılır; önceki kayıtlar atılır
+    void rebase(PieceTable snapshot) throws IOException {
+        channel.close();
+        startSegment(version, snapshot);
+        snapshotWritten(snapshot.byteLength());
+    }
+
+    // Sıkıştırma dışında (belge kapanırken) yazılan anlık görüntüler de büyütmeye sayılır
+    static void snapshotWritten(long bytes) {
+        snapshotBytes.addAndGet(bytes);
+    }
+
+    // Belge kapanırken anlık görüntü güncel olduğu için günlük silinir
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(logPath(directory, fileName));
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    // Anlık görüntüden sonra eklenmiş düzenleme var mı
+    boolean hasOperations() {
+        return version > baseVersion;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    static long getJournalBytes() {
+        return journalBytes.get();
+    }
+
+    static long getSnapshotBytes() {
+        return snapshotBytes.get();
+    }
+
+    static long getOperationBytes() {
+        return operationBytes.get();
+    }
+
+    // Diske yazılan toplam baytın düzenlemelerin kendi baytına oranı
+    static double getWriteAmplification() {
+        long operations = operationBytes.get();
+        return operations == 0 ? 0.0 : (double) (journalBytes.get() + snapshotBytes.get()) / operations;
+    }
+
+    // Dosyadaki anlık görüntünün üzerine günlük kuyruğunu oynatır. Yırtık ya da bozuk kayıtta durulur;
+    // dosya günlüğün tabanıyla uyuşmuyorsa dosya daha yenidir ve olduğu gibi döner.
+    static Recovery recover(Path directory, String fileName, PieceTable fileContent) throws IOException {
+        Path logPath = logPath(directory, fileName);
+        if (!Files.exists(logPath)) {
+            return new Recovery(fileContent, 0, 0);
+        }
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(logPath));
+        ByteBuffer base = readRecord(data);
+        if (base == null || base.get() != BASE) {
+            return new Recovery(fileContent, 0, 0);
+        }
+        long version = base.getLong();
+        if (base.getLong() != fileContent.byteLength() || base.getLong() != checksum(fileContent)) {
+            return new Recovery(fileContent, version, 0);
+        }
+
+        PieceTable content = fileContent;
+        int replayed = 0;
+        ByteBuffer record;
+        while ((record = readRecord(data)) != null) {
+            if (record.get() != OPERATION || record.getLong() != version + 1) {
+                break;
+            }
+            byte[] encoded = new byte[record.remaining()];
+            record.get(encoded);
+            TextOperation operation;
+            try {
+                operation = TextOperation.decode(new String(encoded, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            if (!operation.isApplicableTo(content.length())) {
+                break;
+            }
+            content = content.apply(operation);
+            version++;
+            replayed++;
+        }
+        return new Recovery(content, version, replayed);
+    }
+
+    private void startSegment(long baseVersion, PieceTable snapshot) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(16);
+        payload.putLong(snapshot.byteLength()).putLong(checksum(snapshot)).flip();
+        byte[] descriptor = new byte[16];
+        payload.get(descriptor);
+        ByteBuffer record = record(BASE, baseVersion, descriptor);
+        int length = record.remaining();
+
+        Path logPath = logPath(directory, fileName);
+        Path temp = directory.resolve(fileName + ".log.tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, record);
+        }
+        Files.move(temp, logPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        channel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.baseVersion = baseVersion;
+        version = baseVersion;
+        size = length;
+        journalBytes.addAndGet(length);
+    }
+
+    private static ByteBuffer record(byte type, long version, byte[] data) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + RECORD_PREFIX_BYTES + data.length);
+        buffer.putInt(RECORD_PREFIX_BYTES + data.length).putInt(0);
+        buffer.put(type).putLong(version).put(data);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, RECORD_PREFIX_BYTES + data.length);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    // Sıradaki kaydın gövdesini döner; eksik ya da CRC'si tutmayan kayıtta null
+    private static ByteBuffer readRecord(ByteBuffer data) {
+        if (data.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = data.getInt();
+        int expected = data.getInt();
+        if (length < RECORD_PREFIX_BYTES || length > data.remaining()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.array(), data.position(), length);
+        if ((int) crc.getValue() != expected) {
+            return null;
+        }
+        ByteBuffer body = data.slice(data.position(), length);
+        data.position(data.position() + length);
+        return body;
+    }
+
+    private static long checksum(PieceTable content) {
+        CRC32 crc = new CRC32();
+        content.forEachPiece(crc::update);
+        return crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static final class Recovery {
+        final PieceTable content;
+        final long version;
+        final int replayed;
+
+        Recovery(PieceTable content, long version, int replayed) {
+            this.content = content;
+            this.version = version;
+            this.replayed = replayed;
+        }
+    }
+}
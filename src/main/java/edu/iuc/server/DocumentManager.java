@@ -0,0 +1,44 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Odası boş olmayan dosyalar bellekte LiveDocument olarak tutulur. Yükleme ve bırakma dosyanın
+// kutusunda yapılır, böylece açma, düzenleme ve bırakma aynı sırayla görülür.
+public class DocumentManager {
+    private static final Map<String, LiveDocument> documents = new ConcurrentHashMap<>();
+
+    static LiveDocument acquire(String fileName) throws IOException {
+        LiveDocument document = documents.get(fileName);
+        if (document != null) {
+            return document;
+        }
+
+        LiveDocument loaded = new LiveDocument(fileName, FileManager.loadDocument(fileName));
+        LiveDocument existing = documents.putIfAbsent(fileName, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    static LiveDocument get(String fileName) {
+        return documents.get(fileName);
+    }
+
+    static void release(String fileName) {
+        DocumentActor.execute(fileName, () -> {
+            // Bırakma sırası gelene kadar odaya yeniden girilmiş olabilir
+            if (UserManager.getSubscriberCount(fileName) == 0) {
+                documents.remove(fileName);
+                FileManager.evict(fileName);
+            }
+        });
+    }
+
+    public static boolean isResident(String fileName) {
+        return documents.containsKey(fileName);
+    }
+
+    public static int getResidentCount() {
+        return documents.size();
+    }
+}
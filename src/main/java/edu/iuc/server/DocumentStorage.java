@@ -0,0 +1,52 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+// FileManager'ın arkasındaki kalıcı depo. Ad doğrulaması, önbellek ve günlük FileManager'dadır; depo
+// sadece belgelerin baytlarını saklar. Aynı adın işleri o dosyanın kutusundan sırayla gelir, farklı
+// adlar eşzamanlı çağrılabilir.
+interface DocumentStorage {
+    boolean exists(String fileName);
+
+    // Belge yoksa "Dosya bulunamadı" IOException'ı atılır
+    byte[] read(String fileName) throws IOException;
+
+    // durable ise içerik diske işlenmeden dönülmez
+    void write(String fileName, PieceTable content, boolean durable) throws IOException;
+
+    // Boş belge oluşturur; zaten varsa false
+    boolean create(String fileName) throws IOException;
+
+    List<String> list() throws IOException;
+
+    // Belge yoksa null
+    Metadata stat(String fileName) throws IOException;
+
+    // Belgenin diskteki baytlarını okumak için kendi kanalı olan bölge; belge yoksa null.
+    // Sonraki yazımlar bölgeyi değiştirmez: dosyalar yerinde yazılmaz, Bitcask segmentleri sadece eklenir.
+    Region openRegion(String fileName) throws IOException;
+
+    final class Region {
+        final FileChannel channel;
+        final long position;
+        final long count;
+
+        Region(FileChannel channel, long position, long count) {
+            this.channel = channel;
+            this.position = position;
+            this.count = count;
+        }
+    }
+
+    final class Metadata {
+        final long size;
+        final long modified;
+
+        Metadata(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+}
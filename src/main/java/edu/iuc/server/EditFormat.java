@@ -0,0 +1,8 @@
+package edu.iuc.server;
+
+// Bir istemcinin belge değişikliklerini hangi biçimde aldığı
+enum EditFormat {
+    FULL,   // Tam içerikli EDIT
+    DELTA,  // Sürümlü EDIT_DELTA
+    CRDT    // Kimlik tabanlı CRDT_OP
+}
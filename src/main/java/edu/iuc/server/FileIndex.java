@@ -0,0 +1,228 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.Message;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Belge adlarının bellekteki sıralı dizini: listeleme depoyu taramaz. Sunucunun kendi oluşturma ve
+// yazımları doğrudan işlenir; files/ dizinine dışarıdan eklenen ya da silinen dosyalar WatchService ile
+// yakalanır. Dizine yeni giren ya da çıkan her ad bağlı istemcilere tek bir olay olarak yayınlanır.
+// Boyut ve değişme zamanı da burada tutulur: sunucunun yazımları ve izleyicinin gördüğü değişiklikler
+// günceller, hiç okunmamış olanlar ilk listelemede bir kez okunur. Sayfalar dizini yeniden taramaz.
+final class FileIndex {
+    private static final long WATCH_COALESCE_MILLIS = 100;
+
+    private static final NavigableSet<String> names = new ConcurrentSkipListSet<>();
+    // Değişmediği sürece bütün listeleme istekleri aynı kopyayı paylaşır
+    private static volatile List<String> snapshot = List.of();
+    private static final Map<String, DocumentStorage.Metadata> metadata = new ConcurrentHashMap<>();
+
+    private FileIndex() {
+    }
+
+    static synchronized void load(List<String> fileNames) {
+        names.addAll(fileNames);
+        snapshot = List.copyOf(names);
+    }
+
+    static List<String> list() {
+        return snapshot;
+    }
+
+    static boolean contains(String fileName) {
+        return names.contains(fileName);
+    }
+
+    static int size() {
+        return names.size();
+    }
+
+    // Sıralı dizinde after'dan sonraki (azalan sırada önceki) önekle başlayan en fazla limit ad;
+    // maliyet dizinin boyuna değil sayfanın boyuna bağlıdır
+    static List<String> namesAfter(String after, String prefix, boolean descending, int limit) {
+        List<String> page = new ArrayList<>(Math.min(limit, 256));
+        Iterator<String> iterator;
+        if (descending) {
+            // Önekle başlayan en büyük ad önek + en büyük karakterden küçüktür
+            String upper = prefix + Character.MAX_VALUE;
+            String start = after.isEmpty() || after.compareTo(upper) > 0 ? upper : after;
+            iterator = names.headSet(start, false).descendingIterator();
+        } else {
+            String start = after.compareTo(prefix) > 0 ? after : prefix;
+            iterator = names.tailSet(start, !start.equals(after)).iterator();
+        }
+        while (iterator.hasNext() && page.size() < limit) {
+            String fileName = iterator.next();
+            // Önekle başlayan adlar sıralı dizinde art arda durur; ilk uymayanda aralık biter
+            if (!fileName.startsWith(prefix)) {
+                break;
+            }
+            page.add(fileName);
+        }
+        return page;
+    }
+
+    static List<String> namesWithPrefix(String prefix) {
+        return namesAfter("", prefix, false, Integer.MAX_VALUE);
+    }
+
+    // Henüz okunmamışsa null
+    static DocumentStorage.Metadata metadata(String fileName) {
+        return metadata.get(fileName);
+    }
+
+    // Listelemede okunan üst veri; bu arada yazımla gelen daha yeni değerin üzerine yazılmaz
+    static void remember(String fileName, DocumentStorage.Metadata current) {
+        if (current != null && names.contains(fileName)) {
+            metadata.putIfAbsent(fileName, current);
+        }
+    }
+
+    // Sunucunun kendi yazımı: üst veri her durumda yenilenir, ad yoksa eklenip yayınlanır
+    static boolean add(String fileName, DocumentStorage.Metadata current) {
+        if (current != null) {
+            metadata.put(fileName, current);
+        }
+        return add(fileName);
+    }
+
+    // Ad dizinde yoksa eklenir ve yayınlanır; varsa hiçbir şey yapılmaz
+    static boolean add(String fileName) {
+        if (!update(fileName, true)) {
+            return false;
+        }
+        UserManager.broadcastFileEvent(Message.fileAdded(fileName));
+        return true;
+    }
+
+    static boolean remove(String fileName) {
+        if (!update(fileName, false)) {
+            return false;
+        }
+        UserManager.broadcastFileEvent(Message.fileRemoved(fileName));
+        return true;
+    }
+
+    // Değişiklik ve kopya birlikte yapılır ki eşzamanlı iki değişiklikten biri kopyada kaybolmasın;
+    // yayın kilit dışında, yavaş istemciyi beklerken diğer değişiklikler durmasın diye
+    private static synchronized boolean update(String fileName, boolean present) {
+        boolean changed = present ? names.add(fileName) : names.remove(fileName);
+        if (!present) {
+            metadata.remove(fileName);
+        }
+        if (changed) {
+            snapshot = List.copyOf(names);
+        }
+        return changed;
+    }
+
+    // Dizin dışarıdan değiştirilebilen depolar için (her belge ayrı dosya) izleyici thread'i başlatır.
+    // İzleme kurulamazsa dizin sadece sunucunun kendi değişiklikleriyle güncel tutulur.
+    static void watch(Path directory, DocumentStorage storage) {
+        WatchService service;
+        try {
+            service = directory.getFileSystem().newWatchService();
+            // Yerinde değiştirilen dosyaların boyutu da güncel kalsın diye değişiklik olayları da dinlenir
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                               StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Dosya dizini izlenemiyor: " + e.getMessage());
+            return;
+        }
+        // Kayıttan önce eklenmiş ya da silinmiş dosyalar kaçmasın
+        rescan(storage);
+        Thread.ofPlatform().name("dosya-izleyici").daemon().start(() -> watchLoop(directory, storage, service));
+    }
+
+    private static void watchLoop(Path directory, DocumentStorage storage, WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+                // Sunucunun her yazımı da taşıma olayı üretir; olaylar biriktirilip her ad bir kez denetlenir
+                Thread.sleep(WATCH_COALESCE_MILLIS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Set<String> changed = new LinkedHashSet<>();
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                } else {
+                    changed.add(event.context().toString());
+                }
+            }
+            boolean valid = key.reset();
+
+            if (overflow) {
+                // Olaylar kaçırıldı; dizin baştan taranıp farklar yayınlanır
+                rescan(storage);
+            } else {
+                for (String fileName : changed) {
+                    // Karar olayın türüne değil dosyanın şimdiki haline göre verilir
+                    Path path = directory.resolve(fileName);
+                    if (Files.isRegularFile(path)) {
+                        refresh(storage, fileName);
+                    } else if (!Files.exists(path)) {
+                        remove(fileName);
+                    }
+                }
+            }
+
+            if (!valid) {
+                System.err.println("Dosya dizini izlemesi sona erdi: " + directory);
+                return;
+            }
+        }
+    }
+
+    private static void refresh(DocumentStorage storage, String fileName) {
+        DocumentStorage.Metadata current = null;
+        try {
+            current = storage.stat(fileName);
+        } catch (IOException e) {
+            // Okunamayan üst veri ilk listelemede yeniden denenir
+            metadata.remove(fileName);
+        }
+        add(fileName, current);
+    }
+
+    private static void rescan(DocumentStorage storage) {
+        Set<String> current;
+        try {
+            current = new HashSet<>(storage.list());
+        } catch (IOException e) {
+            System.err.println("Dosyalar listelenirken hata: " + e.getMessage());
+            return;
+        }
+        // Kaçırılan olaylar yüzünden eskimiş olabilecek üst veri ilk listelemede yeniden okunur
+        metadata.clear();
+        for (String fileName : current) {
+            add(fileName);
+        }
+        for (String fileName : names) {
+            // Tarama sırasında sunucunun oluşturduğu dosya listede olmayabilir
+            if (!current.contains(fileName) && !storage.exists(fileName)) {
+                remove(fileName);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.FileEntry;
+import edu.iuc.shared.FileSort;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// LIST_FILES_PAGE: önek süzgeci, sıralama ve imleçle sayfa sayfa listeleme. Ada göre sıralamada sayfa
+// doğrudan FileIndex'in sıralı adlarından okunur ve sadece sayfadaki dosyaların üst verisi okunur.
+// Boyut ve zamana göre sıralamada önekle eşleşen bütün dosyalar FileIndex'teki üst veriyle sıralanır;
+// NIO modunda bu iş I/O thread'inde değil listeleme thread'lerinde yapılır.
+// İmleç sayfanın son satırıdır ("ad" ya da "anahtar:ad"); araya eklenen ya da silinen dosyalar
+// sonraki sayfaları kaydırmaz.
+final class FileListing {
+    // Sıralama işlemci işidir; eşzamanlı sayfa sayısı çekirdek sayısıyla sınırlanır
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), Thread.ofPlatform().name("listeleme-", 0).daemon().factory());
+
+    private FileListing() {
+    }
+
+    static void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    static Page page(String cursor, int pageSize, FileSort sort, boolean descending, String prefix) {
+        int limit = pageSize <= 0 ? ServerConfig.getListPageSize() : Math.min(pageSize, ServerConfig.getListPageMax());
+        String after = cursor != null ? cursor : "";
+        String namePrefix = prefix != null ? prefix : "";
+        if (sort == FileSort.NAME) {
+            return byName(after, limit, descending, namePrefix);
+        }
+        return byMetadata(after, limit, sort, descending, namePrefix);
+    }
+
+    private static Page byName(String after, int limit, boolean descending, String prefix) {
+        List<FileEntry> entries = new ArrayList<>(limit);
+        String last = after;
+        boolean more = true;
+        // Listelenirken silinen dosyalar atlanır, sayfa dizinden tamamlanır
+        while (entries.size() < limit && more) {
+            List<String> names = FileIndex.namesAfter(last, prefix, descending, limit - entries.size() + 1);
+            more = names.size() > limit - entries.size();
+            for (String fileName : names) {
+                if (entries.size() == limit) {
+                    break;
+                }
+                last = fileName;
+                FileEntry entry = FileManager.describe(fileName);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return new Page(entries, more ? last : "");
+    }
+
+    private static Page byMetadata(String after, int limit, FileSort sort, boolean descending, String prefix) {
+        List<FileEntry> all = new ArrayList<>();
+        for (String fileName : FileIndex.namesWithPrefix(prefix)) {
+            FileEntry entry = FileManager.describe(fileName);
+            if (entry != null) {
+                all.add(entry);
+            }
+        }
+        Comparator<FileEntry> order = Comparator.comparingLong((FileEntry entry) -> key(entry, sort))
+            .thenComparing(FileEntry::getName);
+        if (descending) {
+            order = order.reversed();
+        }
+        all.sort(order);
+
+        int start = 0;
+        if (!after.isEmpty()) {
+            int separator = after.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Geçersiz imleç: " + after);
+            }
+            long markerKey = Long.parseLong(after.substring(0, separator));
+            String markerName = after.substring(separator + 1);
+            FileEntry marker = sort == FileSort.SIZE
+                ? new FileEntry(markerName, markerKey, 0, 0)
+                : new FileEntry(markerName, 0, markerKey, 0);
+            // İmleçten sonraki ilk satır ikili aramayla bulunur
+            int high = all.size();
+            while (start < high) {
+                int middle = (start + high) >>> 1;
+                if (order.compare(all.get(middle), marker) <= 0) {
+                    start = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+        }
+
+        int end = Math.min(all.size(), start + limit);
+        List<FileEntry> entries = new ArrayList<>(all.subList(start, end));
+        String next = end < all.size() && !entries.isEmpty()
+            ? key(entries.get(entries.size() - 1), sort) + ":" + entries.get(entries.size() - 1).getName() : "";
+        return new Page(entries, next);
+    }
+
+    private static long key(FileEntry entry, FileSort sort) {
+        return sort == FileSort.SIZE ? entry.getSize() : entry.getModified();
+    }
+
+    static final class Page {
+        final List<FileEntry> entries;
+        // Boşsa liste bitmiştir
+        final String nextCursor;
+
+        Page(List<FileEntry> entries, String nextCursor) {
+            this.entries = entries;
+            this.nextCursor = nextCursor;
+        }
+    }
+}
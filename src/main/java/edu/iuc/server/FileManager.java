@@ -1,107 +1,534 @@
 package edu.iuc.server;
 
-import java.io.File;
+import edu.iuc.shared.FileEntry;
+import edu.iuc.shared.TextOperation;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class FileManager {
     private static final String PATH = "files/";
-    
+    private static final Path JOURNAL_PATH = Paths.get(PATH, ".journal");
+    // Parçalı yüklemelerin tamamlanana kadar biriktiği dosyalar
+    private static final Path CHUNK_PATH = Paths.get(PATH, ".chunks");
+    // Genel kilit yok: bir dosyanın disk işleri o dosyanın DocumentActor kutusunda sırayla çalışır,
+    // farklı dosyalar birbirini beklemez
+
+    // Yazma-arkası modunda düzenlemeler sadece bu önbelleği günceller, disk yazımı arka plandadır
+    private static final WriteMode writeMode = ServerConfig.getWriteMode();
+    private static final Map<String, CachedDocument> cache = new ConcurrentHashMap<>();
+    private static final AtomicLong dirtyBytes = new AtomicLong();
+    private static final AtomicBoolean flushRequested = new AtomicBoolean();
+    private static final ScheduledExecutorService flusher;
+    // Belgelerin baytlarını saklayan depo: varsayılan her belge için bir dosya, istenirse Bitcask
+    private static final StorageType storageType = ServerConfig.getStorageType();
+    private static final DocumentStorage storage;
+    // Günlük modunda açık her belgenin günlüğü; sadece belgenin kutusundan kullanılır
+    private static final Map<String, DocumentJournal> journals = new ConcurrentHashMap<>();
+
     static {
         try {
             Files.createDirectories(Paths.get(PATH));
         } catch (IOException e) {
             System.err.println("Files klasörü oluşturulamadı: " + e.getMessage());
         }
+        deleteStaleUploads();
+
+        try {
+            storage = createStorage(storageType);
+            FileIndex.load(storage.list());
+        } catch (IOException e) {
+            throw new IllegalStateException("Belge deposu başlatılamadı: " + e.getMessage(), e);
+        }
+
+        if (writeMode == WriteMode.WRITE_BEHIND) {
+            flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("dosya-yazici").daemon().factory());
+            long interval = ServerConfig.getFlushIntervalMillis();
+            flusher.scheduleWithFixedDelay(FileManager::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(FileManager::flushAll));
+        } else {
+            flusher = null;
+        }
+    }
+
+    private static DocumentStorage createStorage(StorageType type) throws IOException {
+        if (type == StorageType.BITCASK) {
+            return new LogStructuredStorage(Paths.get(PATH, ".bitcask"),
+                ServerConfig.getBitcaskSegmentBytes(), ServerConfig.getBitcaskMergeSegments());
+        }
+        // Bütün yazımlar geçici dosya + atomik taşıma ile yapılır; SAVE_FILE toplu fsync ile onaylanır
+        return new FileSystemStorage(Paths.get(PATH), ServerConfig.isGroupCommitEnabled());
+    }
+
+    // Sunucu açılırken çağrılır; günlük modunda çökmeden kalan günlükler dosyalara işlenir.
+    // Ayrı dosyalı depoda files/ dizinine dışarıdan yapılan değişiklikler de izlenmeye başlanır.
+    public static void initialize() {
+        if (writeMode == WriteMode.JOURNAL) {
+            recoverJournals();
+        }
+        if (storageType == StorageType.FILES) {
+            FileIndex.watch(Paths.get(PATH), storage);
+        }
+    }
+
+    // SAVE_FILE: içerik ve dizin kaydı diske işlenene kadar dönmez
+    public static void saveFile(String fileName, CharSequence content) throws IOException {
+        writeDocument(fileName, PieceTable.of(content), true);
+    }
+
+    // Parçalı yüklemeyle gelen içerik
+    static void saveFile(String fileName, PieceTable content) throws IOException {
+        writeDocument(fileName, content, true);
+    }
+
+    // İçerik protokol kaçışlarından arındırılmış olarak verilir
+    public static void saveDocument(String fileName, String text) throws IOException {
+        writeDocument(fileName, PieceTable.of(text), false);
+    }
+
+    // Canlı belgenin baytları String'e çevrilmeden doğrudan dosyaya yazılır
+    static void saveDocument(String fileName, PieceTable content) throws IOException {
+        writeDocument(fileName, content, false);
+    }
+
+    // Düzenleme yolu: content, operation uygulandıktan sonraki haldir. Yazma-arkası modunda sadece önbellek
+    // güncellenir ve belge kirli işaretlenir; günlük modunda sadece değişiklik günlüğe eklenir.
+    static void updateDocument(String fileName, PieceTable content, TextOperation operation) throws IOException {
+        if (writeMode == WriteMode.WRITE_THROUGH) {
+            saveDocument(fileName, content);
+            return;
+        }
+
+        if (writeMode == WriteMode.JOURNAL) {
+            appendToJournal(fileName, content, operation);
+            return;
+        }
+
+        cache.compute(fileName, (key, previous) -> {
+            long before = previous != null && previous.dirty ? previous.content.byteLength() : 0;
+            dirtyBytes.addAndGet(content.byteLength() - before);
+            return new CachedDocument(content, true, true);
+        });
+
+        if (dirtyBytes.get() >= ServerConfig.getFlushDirtyBytes() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushAll();
+            });
+        }
+    }
+
+    // Kalıcı kontrol noktası: önbellekte bekleyen sürüm yerine verilen içerik yazılır ve fsync edilir
+    static void checkpoint(String fileName, PieceTable content) throws IOException {
+        writeDocument(fileName, content, true);
+
+        DocumentJournal journal = journals.get(fileName);
+        if (journal != null) {
+            journal.rebase(content);
+        }
+    }
+
+    // Canlı belge okunurken önbellekteki sürüm tercih edilir; yazma-arkası modunda belge önbellekte tutulur
+    static PieceTable loadDocument(String fileName) throws IOException {
+        if (writeMode == WriteMode.WRITE_THROUGH) {
+            return PieceTable.fromUtf8(loadBytes(fileName));
+        }
+
+        if (writeMode == WriteMode.JOURNAL) {
+            return openJournal(fileName);
+        }
+
+        CachedDocument cached = cache.computeIfPresent(fileName,
+            (key, entry) -> new CachedDocument(entry.content, entry.dirty, true));
+        if (cached != null) {
+            return cached.content;
+        }
+
+        PieceTable loaded = PieceTable.fromUtf8(loadBytes(fileName));
+        CachedDocument entry = cache.computeIfAbsent(fileName, key -> new CachedDocument(loaded, false, true));
+        return entry.content;
+    }
+
+    // Oda boşaldığında dosyanın kutusundan çağrılır; kirli içerik yazıldıktan sonra önbellekten düşer
+    static void evict(String fileName) {
+        if (writeMode == WriteMode.JOURNAL) {
+            closeJournal(fileName);
+            return;
+        }
+
+        CachedDocument remaining = cache.computeIfPresent(fileName,
+            (key, entry) -> entry.dirty ? new CachedDocument(entry.content, true, false) : null);
+        if (remaining != null) {
+            flushQuietly(fileName);
+        }
+    }
+
+    // Her kirli dosya kendi kutusunda yazılır; farklı dosyalar paralel yazılır, hepsi bitince dönülür
+    public static void flushAll() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (String fileName : cache.keySet()) {
+            pending.add(DocumentActor.submit(fileName, () -> {
+                flushQuietly(fileName);
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    public static WriteMode getWriteMode() {
+        return writeMode;
+    }
+
+    public static long getDirtyBytes() {
+        return dirtyBytes.get();
+    }
+
+    // ---- Günlük ----
+
+    private static void appendToJournal(String fileName, PieceTable content, TextOperation operation)
+            throws IOException {
+        DocumentJournal journal = journals.get(fileName);
+        if (journal == null) {
+            saveDocument(fileName, content);
+            return;
+        }
+
+        long start = System.nanoTime();
+        journal.append(operation);
+        ServerMetrics.journalAppend(System.nanoTime() - start);
+        cache.put(fileName, new CachedDocument(content, false, true));
+        // Sıkıştırma ayrı bir iş olarak kutuya bırakılır; bu düzenlemenin yayını beklemez
+        if (needsCompaction(journal, content)) {
+            DocumentActor.execute(fileName, () -> compactQuietly(fileName));
+        }
+    }
+
+    private static boolean needsCompaction(DocumentJournal journal, PieceTable content) {
+        return journal.getSize() >= Math.max(ServerConfig.getJournalCompactBytes(), content.byteLength());
+    }
+
+    private static PieceTable openJournal(String fileName) throws IOException {
+        CachedDocument cached = cache.get(fileName);
+        if (cached != null && journals.containsKey(fileName)) {
+            return cached.content;
+        }
+
+        PieceTable fileContent = PieceTable.fromUtf8(loadBytes(fileName));
+        long start = System.nanoTime();
+        DocumentJournal.Recovery recovery = DocumentJournal.recover(JOURNAL_PATH, fileName, fileContent);
+        // Yeni günlüğün tabanı kurtarılan içeriktir; dosya diske işlenmeden eski kayıtlar atılmamalı
+        if (recovery.replayed > 0) {
+            storage.write(fileName, recovery.content, true);
+            ServerMetrics.journalRecovery(recovery.replayed, System.nanoTime() - start);
+        }
+        journals.put(fileName, DocumentJournal.create(JOURNAL_PATH, fileName, recovery.version, recovery.content));
+        cache.put(fileName, new CachedDocument(recovery.content, false, true));
+        return recovery.content;
+    }
+
+    private static void compactQuietly(String fileName) {
+        DocumentJournal journal = journals.get(fileName);
+        CachedDocument entry = cache.get(fileName);
+        if (journal == null || entry == null || !needsCompaction(journal, entry.content)) {
+            return;
+        }
+        try {
+            // Günlük yeni tabana geçmeden anlık görüntü fsync edilir; yoksa çökmeden sonra dosya eski, günlük
+            // yeni kalır ve kurtarma sağlama toplamı tutmadığı için tabandan sonraki düzenlemeleri kaybeder
+            storage.write(fileName, entry.content, true);
+            journal.rebase(entry.content);
+        } catch (IOException e) {
+            // Günlük olduğu gibi kalır, sonraki düzenlemede yeniden denenir
+            System.err.println("Günlük sıkıştırılamadı: " + fileName + " - " + e.getMessage());
+        }
+    }
+
+    // Belge kapanınca son hali dosyaya yazılıp fsync edilir, sonra günlük silinir; yazılamazsa günlük kalır
+    private static void closeJournal(String fileName) {
+        DocumentJournal journal = journals.remove(fileName);
+        CachedDocument entry = cache.remove(fileName);
+        if (journal == null || entry == null) {
+            return;
+        }
+        try {
+            if (journal.hasOperations()) {
+                storage.write(fileName, entry.content, true);
+                DocumentJournal.snapshotWritten(entry.content.byteLength());
+            }
+            journal.delete();
+        } catch (IOException e) {
+            System.err.println("Günlük kapatılamadı: " + fileName + " - " + e.getMessage());
+        }
+    }
+
+    // Kalan günlükler dosyalara işlenip silinir
+    private static void recoverJournals() {
+        long start = System.nanoTime();
+        int documents = 0;
+        long operations = 0;
+        try {
+            Files.createDirectories(JOURNAL_PATH);
+            try (DirectoryStream<Path> logs = Files.newDirectoryStream(JOURNAL_PATH)) {
+                for (Path log : logs) {
+                    String name = log.getFileName().toString();
+                    if (!name.endsWith(".log")) {
+                        Files.deleteIfExists(log);
+                        continue;
+                    }
+                    String fileName = name.substring(0, name.length() - ".log".length());
+                    if (storage.exists(fileName)) {
+                        long documentStart = System.nanoTime();
+                        PieceTable fileContent = PieceTable.fromUtf8(storage.read(fileName));
+                        DocumentJournal.Recovery recovery =
+                            DocumentJournal.recover(JOURNAL_PATH, fileName, fileContent);
+                        if (recovery.replayed > 0) {
+                            storage.write(fileName, recovery.content, true);
+                        }
+                        ServerMetrics.journalRecovery(recovery.replayed, System.nanoTime() - documentStart);
+                        documents++;
+                        operations += recovery.replayed;
+                    }
+                    Files.deleteIfExists(log);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Günlük kurtarma başarısız: " + e.getMessage());
+        }
+        if (documents > 0) {
+            System.out.printf("Günlük kurtarma: %d belge, %d işlem yeniden oynatıldı, %.1f ms%n",
+                documents, operations, (System.nanoTime() - start) / 1e6);
+        }
     }
 
-    public static synchronized void saveFile(String fileName, String content) throws IOException {
+    private static void flushQuietly(String fileName) {
+        try {
+            flush(fileName);
+        } catch (IOException e) {
+            // Belge kirli kalır, bir sonraki turda tekrar denenir
+            System.err.println("Dosya diske yazılamadı: " + fileName + " - " + e.getMessage());
+        }
+    }
+
+    private static void flush(String fileName) throws IOException {
+        CachedDocument entry = cache.get(fileName);
+        if (entry == null || !entry.dirty) {
+            return;
+        }
+        write(fileName, entry.content, false);
+        markWritten(fileName, entry.content, false);
+    }
+
+    private static void writeDocument(String fileName, PieceTable content, boolean durable) throws IOException {
         if (fileName == null || fileName.trim().isEmpty()) {
             throw new IOException("Dosya adı boş olamaz");
         }
-        
+
         if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
             throw new IOException("Geçersiz dosya adı: " + fileName);
         }
-        
-        Path filePath = Paths.get(PATH + fileName);
-        String processedContent = content.replace("\\n", "\n");
-        Files.write(filePath, processedContent.getBytes("UTF-8"));
+
+        DocumentActor.call(fileName, () -> {
+            write(fileName, content, durable);
+            markWritten(fileName, content, true);
+            return null;
+        });
+    }
+
+    private static void write(String fileName, PieceTable content, boolean durable) throws IOException {
+        long start = System.nanoTime();
+        storage.write(fileName, content, durable);
+        ServerMetrics.fileWrite(System.nanoTime() - start);
+        // SAVE_FILE olmayan bir adla da gelebilir; yeni dosya listeye eklenir, boyutu ve zamanı güncellenir
+        FileIndex.add(fileName, storage.stat(fileName));
+    }
+
+    // Dosyanın kutusunda çağrılır. Arka plan yazımı sırasında gelen daha yeni düzenleme kirli kalır;
+    // kontrol noktası ise belgenin en güncel hali olduğu için önbellektekinin yerine geçer.
+    private static void markWritten(String fileName, PieceTable written, boolean supersedes) {
+        cache.computeIfPresent(fileName, (key, entry) -> {
+            if (entry.content != written && !supersedes) {
+                return entry;
+            }
+            if (entry.dirty) {
+                dirtyBytes.addAndGet(-entry.content.byteLength());
+            }
+            return entry.retained ? new CachedDocument(written, false, true) : null;
+        });
+    }
+
+    public static String loadFile(String fileName) throws IOException {
+        return new String(loadBytes(fileName), "UTF-8");
     }
 
-    public static synchronized String loadFile(String fileName) throws IOException {
+    public static byte[] loadBytes(String fileName) throws IOException {
         if (fileName == null || fileName.trim().isEmpty()) {
             throw new IOException("Dosya adı boş olamaz");
         }
-        
+
         if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
             throw new IOException("Geçersiz dosya adı: " + fileName);
         }
-        
-        Path filePath = Paths.get(PATH + fileName);
-        if (!Files.exists(filePath)) {
-            throw new IOException("Dosya bulunamadı: " + fileName);
+
+        CachedDocument cached = cache.get(fileName);
+        if (cached != null) {
+            return cached.content.toByteArray();
         }
-        
-        return new String(Files.readAllBytes(filePath), "UTF-8");
+
+        return DocumentActor.call(fileName, () -> {
+            long start = System.nanoTime();
+            byte[] content = storage.read(fileName);
+            ServerMetrics.fileRead(System.nanoTime() - start);
+            return content;
+        });
     }
-    
-    public static synchronized List<String> listFiles() {
-        List<String> fileList = new ArrayList<>();
-        try {
-            File dir = new File(PATH);
-            if (dir.exists() && dir.isDirectory()) {
-                File[] files = dir.listFiles((file) -> file.isFile());
-                if (files != null) {
-                    for (File file : files) {
-                        fileList.add(file.getName());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Dosyalar listelenirken hata: " + e.getMessage());
+
+    // Diskteki kopya güncelse belgenin baytlarını okumadan gönderilebilecek bölgesi; önbellekte ya da
+    // günlükte bekleyen değişiklik varsa disk geride olabileceği için null
+    static DocumentStorage.Region openStored(String fileName) throws IOException {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            throw new IOException("Dosya adı boş olamaz");
+        }
+
+        if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
+            throw new IOException("Geçersiz dosya adı: " + fileName);
+        }
+
+        if (cache.containsKey(fileName) || journals.containsKey(fileName)) {
+            return null;
         }
-        return fileList;
+        if (writeMode == WriteMode.JOURNAL && Files.exists(DocumentJournal.logPath(JOURNAL_PATH, fileName))) {
+            return null;
+        }
+        return DocumentActor.call(fileName, () -> storage.openRegion(fileName));
     }
-    
-    public static synchronized boolean createFile(String fileName) {
-        try {
-            if (fileName == null || fileName.trim().isEmpty()) {
-                return false;
-            }
-            
-            if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
-                return false;
+
+    // Bölgeyle gönderilen içeriğin sonradan değişip değişmediği bununla anlaşılır; dosya yoksa null
+    static DocumentStorage.Metadata storedMetadata(String fileName) throws IOException {
+        return storage.stat(fileName);
+    }
+
+    // Diskteki kopya hâlâ alındığı andaki gibi mi ve bekleyen değişiklik yok mu
+    static boolean isStoredCurrent(String fileName, DocumentStorage.Metadata previous) throws IOException {
+        if (previous == null || cache.containsKey(fileName) || journals.containsKey(fileName)) {
+            return false;
+        }
+        DocumentStorage.Metadata current = storage.stat(fileName);
+        return current != null && current.size == previous.size && current.modified == previous.modified;
+    }
+
+    static Path createUploadFile() throws IOException {
+        Files.createDirectories(CHUNK_PATH);
+        return Files.createTempFile(CHUNK_PATH, "yukleme", ".part");
+    }
+
+    // Sunucu kapanırken yarım kalan yüklemelere devam edilemez
+    private static void deleteStaleUploads() {
+        if (!Files.isDirectory(CHUNK_PATH)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(CHUNK_PATH)) {
+            for (Path stale : stream) {
+                Files.deleteIfExists(stale);
             }
-            
-            Path filePath = Paths.get(PATH + fileName);
-            if (Files.exists(filePath)) {
-                return false;
+        } catch (IOException e) {
+            System.err.println("Yarım kalan yüklemeler silinemedi: " + e.getMessage());
+        }
+    }
+
+    // Depo taranmaz; dizin sunucunun değişiklikleri ve dizin izleyicisiyle güncel tutulur
+    public static List<String> listFiles() {
+        return FileIndex.list();
+    }
+
+    // Listeleme satırı. Açık belgenin boyu ve sürümü bellekteki güncel halinden, diğerlerinin boyu varsa
+    // önbellekte bekleyen sürümden alınır. Dosya bu arada silinmişse null.
+    static FileEntry describe(String fileName) {
+        // Dizinde tutulan üst veri kullanılır; depo sadece hiç okunmamış dosya için sorulur
+        DocumentStorage.Metadata metadata = FileIndex.metadata(fileName);
+        if (metadata == null) {
+            try {
+                metadata = storage.stat(fileName);
+            } catch (IOException e) {
+                return null;
             }
-            
-            Files.write(filePath, "".getBytes("UTF-8"));
-            return true;
+            FileIndex.remember(fileName, metadata);
+        }
+        CachedDocument cached = cache.get(fileName);
+        LiveDocument document = DocumentManager.get(fileName);
+        if (metadata == null && cached == null && document == null) {
+            return null;
+        }
+
+        long size;
+        if (document != null) {
+            size = document.snapshot().byteLength();
+        } else if (cached != null) {
+            size = cached.content.byteLength();
+        } else {
+            size = metadata.size;
+        }
+        long modified = metadata != null ? metadata.modified : System.currentTimeMillis();
+        return new FileEntry(fileName, size, modified, document != null ? document.getVersion() : 0);
+    }
+
+    public static boolean createFile(String fileName) {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            return false;
+        }
+
+        if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
+            return false;
+        }
+
+        try {
+            return DocumentActor.call(fileName, () -> {
+                if (!storage.create(fileName)) {
+                    return false;
+                }
+                FileIndex.add(fileName, storage.stat(fileName));
+                return true;
+            });
         } catch (IOException e) {
             System.err.println("Dosya oluşturulamadı: " + fileName + " - " + e.getMessage());
             return false;
         }
     }
-    
-    public static synchronized boolean fileExists(String fileName) {
+
+    public static boolean fileExists(String fileName) {
         if (fileName == null || fileName.trim().isEmpty()) {
             return false;
         }
-        
+
         try {
-            Path filePath = Paths.get(PATH + fileName);
-            return Files.exists(filePath);
+            return cache.containsKey(fileName) || storage.exists(fileName);
         } catch (Exception e) {
             return false;
         }
     }
-}
 
+    // Değişmez kayıt: içerik, diske yazılmamış değişiklik var mı, belge hâlâ açık mı
+    private static final class CachedDocument {
+        final PieceTable content;
+        final boolean dirty;
+        final boolean retained;
+
+        CachedDocument(PieceTable content, boolean dirty, boolean retained) {
+            this.content = content;
+            this.dirty = dirty;
+            this.retained = retained;
+        }
+    }
+}
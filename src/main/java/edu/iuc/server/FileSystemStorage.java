@@ -0,0 +1,94 @@
+package edu.iuc.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+// Varsayılan depo: her belge dizinde kendi dosyasıdır. Yazımlar geçici dosya + atomik taşıma ile yapılır.
+final class FileSystemStorage implements DocumentStorage {
+    private final Path directory;
+    private final GroupCommitWriter writer;
+
+    FileSystemStorage(Path directory, boolean groupCommit) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.writer = new GroupCommitWriter(directory, groupCommit);
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        return Files.isRegularFile(directory.resolve(fileName));
+    }
+
+    @Override
+    public byte[] read(String fileName) throws IOException {
+        Path filePath = directory.resolve(fileName);
+        if (!Files.exists(filePath)) {
+            throw new IOException("Dosya bulunamadı: " + fileName);
+        }
+        return Files.readAllBytes(filePath);
+    }
+
+    @Override
+    public void write(String fileName, PieceTable content, boolean durable) throws IOException {
+        if (durable) {
+            writer.writeDurable(fileName, content);
+        } else {
+            writer.write(fileName, content);
+        }
+    }
+
+    @Override
+    public boolean create(String fileName) throws IOException {
+        // Varlık kontrolü ve oluşturma tek atomik işlemdir
+        try {
+            Files.createFile(directory.resolve(fileName));
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Metadata stat(String fileName) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(directory.resolve(fileName), BasicFileAttributes.class);
+            return attributes.isRegularFile()
+                ? new Metadata(attributes.size(), attributes.lastModifiedTime().toMillis()) : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Region openRegion(String fileName) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory.resolve(fileName), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        // Atomik taşımayla yerine yenisi gelse de açık kanal eski dosyayı okumaya devam eder
+        return new Region(channel, 0, channel.size());
+    }
+
+    @Override
+    public List<String> list() {
+        List<String> fileList = new ArrayList<>();
+        File[] files = directory.toFile().listFiles((file) -> file.isFile());
+        if (files != null) {
+            for (File file : files) {
+                fileList.add(file.getName());
+            }
+        }
+        return fileList;
+    }
+}
@@ -0,0 +1,247 @@
+package edu.iuc.server;
+
+import edu.iuc.protocol.MessageParser;
+import edu.iuc.shared.Message;
+import edu.iuc.shared.MessageType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Gelen baytları mesajlara ayırır. Her mesaj ilk baytına göre ya satır sonuna kadar okunan CTP metni ya da
+// uzunlukları önden bildirilen ikili çerçevedir (bkz. MessageParser); ikisi de açıkça UTF-8 olarak çözülür.
+// Bağlantı başına tek tampon kullanılır; mesaj eşiği aşınca gelen kısmı geçici dosyaya yazılır, yavaş gelen
+// büyük bir mesaj tamamlanana kadar yığında tutulmaz. Üst sınırı aşan mesaj FRAME_TOO_LARGE ile reddedilir
+// ve sonuna kadar okunup atılır, bağlantı açık kalır. NIO'da bağlantı başka thread'den kapatılabildiği için
+// geçici dosyaya erişim kilitlidir.
+final class FrameDecoder {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+
+    // İkili çerçevede sıradaki alan
+    private enum Field { LENGTH1, PARAMETER1, LENGTH2, PARAMETER2 }
+
+    private final ClientHandler handler;
+    private final int maxBytes;
+    private final int spillBytes;
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+    // Eşiği aşan mesajın tampondan önceki kısmı
+    private Path spillPath;
+    private FileChannel spill;
+    private long spilled;
+    private boolean discarding;
+    private boolean closed;
+
+    // Okunmakta olan ikili çerçeve; binaryType null ise sıradaki mesaj metindir
+    private MessageType binaryType;
+    private Field field;
+    private String parameter1;
+    private int varint;
+    private int varintShift;
+    private int remaining;
+    private long frameBytes;
+
+    FrameDecoder(ClientHandler handler) {
+        this.handler = handler;
+        this.maxBytes = ServerConfig.getFrameMaxBytes();
+        this.spillBytes = Math.min(maxBytes, ServerConfig.getFrameSpillBytes());
+    }
+
+    // Girdiden en fazla bir mesaj tamamlayıp döner, tamamlanmadıysa null; girdi bitmediyse çağıran tekrar
+    // çağırır
+    synchronized Message feed(ByteBuffer input) throws IOException {
+        if (closed) {
+            input.position(input.limit());
+            return null;
+        }
+        if (binaryType == null && !discarding && length == 0 && spill == null
+                && MessageParser.isBinaryFrame(input.get(input.position()))) {
+            binaryType = MessageType.fromCode(input.get() & 0x7F);
+            field = Field.LENGTH1;
+            varint = 0;
+            varintShift = 0;
+            frameBytes = 1;
+        }
+        return binaryType != null ? feedBinary(input) : feedText(input);
+    }
+
+    synchronized void close() {
+        closed = true;
+        releaseSpill();
+    }
+
+    private Message feedText(ByteBuffer input) throws IOException {
+        int start = input.position();
+        int end = input.limit();
+        int newline = -1;
+        for (int i = start; i < end; i++) {
+            if (input.get(i) == '\n') {
+                newline = i;
+                break;
+            }
+        }
+
+        int count = (newline < 0 ? end : newline) - start;
+        if (!discarding) {
+            if (spilled + length + count > maxBytes) {
+                reject();
+            } else {
+                append(input, count);
+            }
+        }
+        input.position(start + count);
+
+        if (newline < 0) {
+            return null;
+        }
+        input.get();
+        if (discarding) {
+            discarding = false;
+            return null;
+        }
+
+        return Message.fromRaw(takeString(true));
+    }
+
+    // Uzunluklar bilindiği için reddedilen çerçevenin kalanı da tam olarak atlanır
+    private Message feedBinary(ByteBuffer input) throws IOException {
+        while (true) {
+            if (field == Field.LENGTH1 || field == Field.LENGTH2) {
+                if (!readVarint(input)) {
+                    return null;
+                }
+                remaining = varint;
+                frameBytes += varint;
+                if (!discarding && frameBytes > maxBytes) {
+                    reject();
+                }
+                field = field == Field.LENGTH1 ? Field.PARAMETER1 : Field.PARAMETER2;
+            }
+
+            int count = Math.min(remaining, input.remaining());
+            if (discarding) {
+                input.position(input.position() + count);
+            } else {
+                append(input, count);
+            }
+            remaining -= count;
+            if (remaining > 0) {
+                return null;
+            }
+
+            if (field == Field.PARAMETER1) {
+                if (!discarding) {
+                    parameter1 = takeString(false);
+                }
+                field = Field.LENGTH2;
+                varint = 0;
+                varintShift = 0;
+                continue;
+            }
+
+            MessageType type = binaryType;
+            binaryType = null;
+            if (discarding) {
+                discarding = false;
+                return null;
+            }
+            return new Message.Builder(type).parameter1(parameter1).parameter2(takeString(false)).build();
+        }
+    }
+
+    // Uzunluk alanı parça parça gelebilir; tamamlanınca true
+    private boolean readVarint(ByteBuffer input) throws IOException {
+        while (input.hasRemaining()) {
+            byte b = input.get();
+            frameBytes++;
+            varint |= (b & 0x7F) << varintShift;
+            varintShift += 7;
+            if ((b & 0x80) == 0 && varint >= 0) {
+                return true;
+            }
+            if ((b & 0x80) == 0 || varintShift >= 7 * MessageParser.MAX_VARINT_BYTES) {
+                throw new IOException("Geçersiz ikili çerçeve uzunluğu");
+            }
+        }
+        return false;
+    }
+
+    private void reject() {
+        reset();
+        discarding = true;
+        handler.rejectFrame(maxBytes);
+    }
+
+    private void append(ByteBuffer input, int count) throws IOException {
+        int start = input.position();
+        if (length + count > spillBytes) {
+            writeSpill(ByteBuffer.wrap(buffer, 0, length));
+            length = 0;
+            if (count > spillBytes) {
+                writeSpill(input.slice(start, count));
+                input.position(start + count);
+                return;
+            }
+        }
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length + count, Math.min(buffer.length * 2, spillBytes)));
+        }
+        input.get(buffer, length, count);
+        length += count;
+    }
+
+    // Biriken baytları çözer ve tamponu sıradaki alana hazırlar
+    private String takeString(boolean stripCarriageReturn) throws IOException {
+        byte[] bytes = buffer;
+        int size = length;
+        if (spill != null) {
+            writeSpill(ByteBuffer.wrap(buffer, 0, length));
+            bytes = Files.readAllBytes(spillPath);
+            size = bytes.length;
+        }
+        if (stripCarriageReturn && size > 0 && bytes[size - 1] == '\r') {
+            size--;
+        }
+        String value = new String(bytes, 0, size, StandardCharsets.UTF_8);
+        reset();
+        return value;
+    }
+
+    private void writeSpill(ByteBuffer data) throws IOException {
+        if (spill == null) {
+            spillPath = FileManager.createUploadFile();
+            spill = FileChannel.open(spillPath, StandardOpenOption.WRITE);
+        }
+        while (data.hasRemaining()) {
+            spilled += spill.write(data);
+        }
+    }
+
+    private void reset() {
+        length = 0;
+        if (buffer.length > RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        releaseSpill();
+    }
+
+    private void releaseSpill() {
+        spilled = 0;
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.close();
+            Files.deleteIfExists(spillPath);
+        } catch (IOException e) {
+            System.err.println("Geçici mesaj dosyası silinemedi: " + e.getMessage());
+        }
+        spill = null;
+        spillPath = null;
+    }
+}
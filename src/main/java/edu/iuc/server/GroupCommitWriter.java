@@ -0,0 +1,200 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Dosyalar önce geçici dosyaya yazılır, sonra hedefin üzerine atomik olarak taşınır; yarıda kalan
+// yazım hedefi bozmaz. Kalıcı yazımlarda geçici dosya her kaydeden tarafından kendi thread'inde
+// fsync edilir, taşıma ve dizin fsync'i ise tek bir thread'de toplu yapılır: aynı anda bekleyen
+// bütün kayıtlar tek dizin fsync'iyle (tek günlük yazımıyla) onaylanır.
+final class GroupCommitWriter {
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final Path directory;
+    private final Path tempDirectory;
+    private final boolean grouped;
+    private final BlockingQueue<CommitRequest> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong tempSequence = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong barriers = new AtomicLong();
+    private volatile boolean directorySyncSupported = true;
+
+    GroupCommitWriter(Path directory, boolean grouped) throws IOException {
+        this.directory = directory;
+        this.tempDirectory = directory.resolve(TEMP_DIRECTORY);
+        this.grouped = grouped;
+        Files.createDirectories(tempDirectory);
+        deleteStaleTempFiles();
+
+        if (grouped) {
+            Thread.ofPlatform().name("grup-commit").daemon().start(this::commitLoop);
+        }
+    }
+
+    // Atomik ama fsync'siz yazım: düzenlemeler ve yazma-arkası boşaltmaları için
+    void write(String fileName, PieceTable content) throws IOException {
+        Path temp = writeTemp(fileName, content, false);
+        move(temp, directory.resolve(fileName));
+    }
+
+    // Döndüğünde içerik ve dizin kaydı diske işlenmiştir
+    void writeDurable(String fileName, PieceTable content) throws IOException {
+        Path temp = writeTemp(fileName, content, true);
+        Path target = directory.resolve(fileName);
+
+        if (!grouped) {
+            move(temp, target);
+            syncDirectory();
+            commits.incrementAndGet();
+            barriers.incrementAndGet();
+            return;
+        }
+
+        CommitRequest request = new CommitRequest(temp, target);
+        queue.add(request);
+        try {
+            request.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Kayıt onayı beklenirken kesildi: " + fileName);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Kayıt işlenemedi: " + fileName, cause);
+        }
+    }
+
+    long getCommitCount() {
+        return commits.get();
+    }
+
+    long getBarrierCount() {
+        return barriers.get();
+    }
+
+    private void commitLoop() {
+        List<CommitRequest> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            // fsync sürerken biriken istekler bir sonraki turda hep birlikte işlenir
+            queue.drainTo(batch);
+
+            List<CommitRequest> moved = new ArrayList<>(batch.size());
+            for (CommitRequest request : batch) {
+                try {
+                    move(request.temp, request.target);
+                    moved.add(request);
+                } catch (IOException e) {
+                    deleteQuietly(request.temp);
+                    request.result.completeExceptionally(e);
+                }
+            }
+
+            IOException failure = null;
+            if (!moved.isEmpty()) {
+                try {
+                    syncDirectory();
+                    barriers.incrementAndGet();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            for (CommitRequest request : moved) {
+                if (failure != null) {
+                    request.result.completeExceptionally(failure);
+                } else {
+                    commits.incrementAndGet();
+                    request.result.complete(null);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private Path writeTemp(String fileName, PieceTable content, boolean durable) throws IOException {
+        Path temp = tempDirectory.resolve(fileName + "." + tempSequence.incrementAndGet());
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            content.writeTo(channel);
+            if (durable) {
+                // fdatasync yeter: yeni dosyanın boyutu veriyle birlikte yazılır, diğer üst veriler gerekmez
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    private void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    // Taşımanın kendisi dizin kaydıdır; kalıcı olması için dizin de fsync edilir.
+    // Dizin açılamayan sistemlerde (Windows) atlanır.
+    private void syncDirectory() throws IOException {
+        if (!directorySyncSupported) {
+            return;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException | UnsupportedOperationException e) {
+            directorySyncSupported = false;
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    // Çökme sırasında taşınamamış geçici dosyalar başlangıçta silinir
+    private void deleteStaleTempFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tempDirectory)) {
+            for (Path stale : stream) {
+                deleteQuietly(stale);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final class CommitRequest {
+        final Path temp;
+        final Path target;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        CommitRequest(Path temp, Path target) {
+            this.temp = temp;
+            this.target = target;
+        }
+    }
+}
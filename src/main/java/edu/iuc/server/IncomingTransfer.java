@@ -0,0 +1,116 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// İstemcinin parça parça gönderdiği kayıt ya da tam içerikli düzenleme. Parçalar geldikçe geçici dosyaya
+// eklenir, aktarım sürerken bellekte bir parçadan fazlası tutulmaz. CHUNK_END'de CRC doğrulanınca belge
+// geçici dosyadan parça boyunda bloklarla PieceTable'a okunur; belge bellekte tutulduğu için içeriğin
+// kendisi yine yığına alınır, ama tek parça dizi ya da String kopyası yapılmaz.
+// Kimlik istemcinindir: bağlantı koparsa aynı kimlikle yeniden CHUNK_BEGIN gönderip kaldığı yerden sürdürür.
+final class IncomingTransfer {
+    final String id;
+    final String fileName;
+    final String owner;
+    final String kind;
+    private final long total;
+    private final Path temp;
+    private final FileChannel out;
+    private final CRC32 crc = new CRC32();
+    private long received;
+    private ClientHandler sender;
+    private volatile long lastActivity = System.currentTimeMillis();
+
+    private IncomingTransfer(String id, String fileName, String owner, String kind, long total, Path temp,
+                             FileChannel out) {
+        this.id = id;
+        this.fileName = fileName;
+        this.owner = owner;
+        this.kind = kind;
+        this.total = total;
+        this.temp = temp;
+        this.out = out;
+    }
+
+    static IncomingTransfer create(String id, String fileName, String owner, String kind, long total)
+            throws IOException {
+        Path temp = FileManager.createUploadFile();
+        try {
+            FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE);
+            return new IncomingTransfer(id, fileName, owner, kind, total, temp, out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    void attach(ClientHandler handler) {
+        sender = handler;
+        lastActivity = System.currentTimeMillis();
+    }
+
+    boolean isSender(ClientHandler handler) {
+        return sender == handler;
+    }
+
+    // Sıradaki konumda olmayan parça yok sayılır; gönderici onaydaki konumdan devam eder
+    void append(long offset, byte[] data) throws IOException {
+        lastActivity = System.currentTimeMillis();
+        if (offset != received) {
+            return;
+        }
+        if (received + data.length > total) {
+            throw new IOException("Yükleme bildirilen boydan uzun: " + fileName);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        crc.update(data);
+        received += data.length;
+    }
+
+    long getReceived() {
+        return received;
+    }
+
+    // İçerik eksiksiz ve CRC tutuyorsa belgenin kendisi
+    PieceTable finish(long expectedCrc) throws IOException {
+        if (received != total) {
+            throw new IOException("Yükleme eksik: " + received + "/" + total + " bayt");
+        }
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("Yüklenen içeriğin CRC'si tutmuyor: " + fileName);
+        }
+        out.close();
+        try (FileChannel in = FileChannel.open(temp, StandardOpenOption.READ)) {
+            return PieceTable.readUtf8(in, total, ServerConfig.getChunkBytes());
+        }
+    }
+
+    void detach(ClientHandler handler) {
+        if (sender == handler) {
+            sender = null;
+            lastActivity = System.currentTimeMillis();
+        }
+    }
+
+    boolean isExpired(long now) {
+        return now - lastActivity > ServerConfig.getChunkResumeMillis();
+    }
+
+    void release() {
+        sender = null;
+        try {
+            out.close();
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            System.err.println("Yükleme dosyası silinemedi: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+class IoWorker implements Runnable {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final int id;
+    private final Selector selector;
+    // Aynı worker'daki bağlantılar sırayla işlendiği için okuma tamponu paylaşılır
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+    private final Queue<NioConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final Queue<NioConnection> pendingCloses = new ConcurrentLinkedQueue<>();
+    private volatile Thread thread;
+
+    IoWorker(int id) throws IOException {
+        this.id = id;
+        this.selector = Selector.open();
+    }
+
+    void register(SocketChannel channel) {
+        pendingChannels.add(channel);
+        selector.wakeup();
+    }
+
+    boolean isWorkerThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    void requestWrite(NioConnection connection) {
+        if (isWorkerThread()) {
+            connection.flush();
+            return;
+        }
+        pendingWrites.add(connection);
+        selector.wakeup();
+    }
+
+    void requestClose(NioConnection connection) {
+        pendingCloses.add(connection);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                selector.select();
+                registerPendingChannels();
+                closePendingConnections();
+                flushPendingWrites();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            } catch (IOException e) {
+                System.err.println("I/O worker " + id + " hatası: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.onReadable(readBuffer);
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        } catch (CancelledKeyException e) {
+            connection.close();
+        } catch (RuntimeException e) {
+            // Tek bağlantının hatası worker'daki diğer bağlantıları düşürmesin
+            System.err.println("I/O worker " + id + " bağlantı hatası: " + e);
+            connection.close();
+        }
+    }
+
+    private void registerPendingChannels() {
+        SocketChannel channel;
+        while ((channel = pendingChannels.poll()) != null) {
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                NioConnection connection = new NioConnection(channel, key, this);
+                key.attach(connection);
+            } catch (IOException e) {
+                System.err.println("Kanal kaydedilemedi: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void closePendingConnections() {
+        NioConnection connection;
+        while ((connection = pendingCloses.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private void flushPendingWrites() {
+        NioConnection connection;
+        while ((connection = pendingWrites.poll()) != null) {
+            try {
+                connection.flush();
+            } catch (CancelledKeyException e) {
+                connection.close();
+            } catch (RuntimeException e) {
+                System.err.println("I/O worker " + id + " bağlantı hatası: " + e);
+                connection.close();
+            }
+        }
+    }
+}
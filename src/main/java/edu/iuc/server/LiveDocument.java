@@ -0,0 +1,169 @@
+package edu.iuc.server;
+
+import edu.iuc.crdt.CrdtDocument;
+import edu.iuc.crdt.CrdtOperation;
+import edu.iuc.shared.TextOperation;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Açık bir dosyanın sunucudaki sürümlü kopyası. Geride kalan düzenlemeler geçmişe göre dönüştürülür.
+// Değiştiren metotlar sadece dosyanın DocumentActor kutusundan çağrılır; okuyucular kilitsiz anlık görüntü alır.
+class LiveDocument {
+    private static final int MAX_HISTORY = 1024;
+    // CRDT işlemlerinde sunucunun kendi replika kimliği; istemcilere 1'den başlayarak atanır
+    static final int SERVER_REPLICA = 0;
+    // Bu kadar CRDT silmesi birikince mezar taşı toplama turu başlar
+    private static final int COLLECT_THRESHOLD = 1024;
+
+    private final String fileName;
+    // Değişmez; her düzenleme yeni bir sürüm üretir, eskisi anlık görüntü olarak okunabilir
+    private volatile PieceTable content;
+    private final Deque<TextOperation> history = new ArrayDeque<>();
+    private volatile long version = 0;
+    // İlk CRDT istemcisi belgeyi açınca mevcut metinle oluşturulur
+    private CrdtDocument crdt;
+    // CRDT_SYNC gönderilmiş replikalar. Tur önerisinden önceki silmeleri hepsi görmüştür; hepsi onaylayınca
+    // onaydan önce gönderdikleri işlemler de gelmiş olur ve o silmeler kararlıdır.
+    private final Set<ClientHandler> crdtReplicas = new HashSet<>();
+    private final Set<ClientHandler> awaitingCollection = new HashSet<>();
+    private int collectionRound;
+    // Süren turun işareti; tur yoksa -1
+    private int collectionMark = -1;
+
+    LiveDocument(String fileName, PieceTable initialContent) {
+        this.fileName = fileName;
+        this.content = initialContent;
+    }
+
+    // baseVersion'dan sonra uygulanmış düzenlemelere göre dönüştürüp uygular, dönüştürülmüş hali döner
+    TextOperation apply(long baseVersion, TextOperation operation) {
+        if (baseVersion > version || version - baseVersion > history.size()) {
+            throw new IllegalStateException("Sürüm uyuşmuyor: " + baseVersion + " (güncel " + version + ")");
+        }
+
+        TextOperation transformed = operation;
+        long skip = history.size() - (version - baseVersion);
+        long index = 0;
+        for (TextOperation concurrent : history) {
+            if (index++ < skip) {
+                continue;
+            }
+            transformed = TextOperation.transform(transformed, concurrent, false)[0];
+        }
+
+        if (!transformed.isApplicableTo(content.length())) {
+            throw new IllegalArgumentException("Düzenleme belge sınırlarını aşıyor");
+        }
+        content = content.apply(transformed);
+        record(transformed);
+        return transformed;
+    }
+
+    // CRDT birleştirmesinin metne etkisi zaten en güncel duruma göredir, dönüştürülmeden uygulanır
+    void applyCurrent(TextOperation operation) {
+        if (!operation.isApplicableTo(content.length())) {
+            throw new IllegalArgumentException("Düzenleme belge sınırlarını aşıyor");
+        }
+        content = content.apply(operation);
+        record(operation);
+    }
+
+    TextOperation replaceAll(String newContent) {
+        TextOperation operation = TextOperation.replaceAll(content.length(), newContent);
+        content = PieceTable.of(newContent);
+        record(operation);
+        return operation;
+    }
+
+    private void record(TextOperation operation) {
+        history.addLast(operation);
+        if (history.size() > MAX_HISTORY) {
+            history.removeFirst();
+        }
+        version++;
+    }
+
+    CrdtDocument getCrdt() {
+        if (crdt == null) {
+            crdt = new CrdtDocument(SERVER_REPLICA);
+            crdt.localInsert(0, content.toString());
+        }
+        return crdt;
+    }
+
+    // Konumsal düzenleme CRDT replikası varsa ona da sunucu adına işlenir
+    List<CrdtOperation> mirrorToCrdt(TextOperation operation) {
+        return crdt == null ? Collections.emptyList() : crdt.applyLocal(operation);
+    }
+
+    void addCrdtReplica(ClientHandler replica) {
+        crdtReplicas.add(replica);
+    }
+
+    // Yeterince silme birikmişse ve tur sürmüyorsa yeni tur başlatır; öneri gidecek replikaları döner
+    List<ClientHandler> beginCollection() {
+        if (crdt == null || collectionMark >= 0 || crdt.getDeletionsSinceMark() < COLLECT_THRESHOLD) {
+            return Collections.emptyList();
+        }
+        dropDeparted();
+        collectionRound++;
+        collectionMark = crdt.beginCollection();
+        awaitingCollection.addAll(crdtReplicas);
+        return new ArrayList<>(awaitingCollection);
+    }
+
+    void acknowledgeCollection(ClientHandler replica, int round) {
+        if (round == collectionRound) {
+            awaitingCollection.remove(replica);
+        }
+    }
+
+    // Bekleyen onay kalmadıysa turu bitirip atılan aralıkları döner, yoksa null
+    List<CrdtOperation> finishCollection() {
+        if (collectionMark < 0) {
+            return null;
+        }
+        dropDeparted();
+        if (!awaitingCollection.isEmpty()) {
+            return null;
+        }
+        List<CrdtOperation> collected = crdt.collect(collectionMark);
+        collectionMark = -1;
+        return collected;
+    }
+
+    // Odadan çıkan replikanın onayı beklenmez
+    private void dropDeparted() {
+        crdtReplicas.removeIf(replica -> !UserManager.isSubscribed(fileName, replica));
+        awaitingCollection.retainAll(crdtReplicas);
+    }
+
+    Set<ClientHandler> getCrdtReplicas() {
+        return crdtReplicas;
+    }
+
+    int getCollectionRound() {
+        return collectionRound;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    String getText() {
+        return content.toString();
+    }
+
+    PieceTable snapshot() {
+        return content;
+    }
+
+    long getVersion() {
+        return version;
+    }
+}
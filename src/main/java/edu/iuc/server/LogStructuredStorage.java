@@ -0,0 +1,561 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Bitcask tarzı depo: bütün belgeler sadece sona eklenen segment dosyalarına yazılır, her belgenin son
+// değerinin yeri bellekteki anahtar dizininde tutulur. Okuma tek konumlu okuma, listeleme dizin taraması
+// yerine anahtar dizinidir. Dolan segment mühürlenir ve yanına ipucu dosyası yazılır; açılışta mühürlü
+// segmentler taranmadan ipucundan yüklenir. Mühürlü segmentler arka planda tek segmentte birleştirilir.
+// Kayıt: [crc32 int][zaman long][anahtar uzunluğu int][değer uzunluğu int][anahtar][değer]. Zaman yazımın
+// değişme zamanıdır; açılışta ve birleştirmeden sonra belgelerin zamanı ondan gelir.
+final class LogStructuredStorage implements DocumentStorage {
+    private static final String DATA_SUFFIX = ".data";
+    private static final String HINT_SUFFIX = ".hint";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int HEADER_BYTES = 20;
+    private static final int READ_RETRIES = 3;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final int mergeThreshold;
+    private final Map<String, Entry> keydir = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    // Sona ekleme ve segment değiştirme tek yazarlıdır; okumalar kilitsizdir
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // İpucu yazımı ve birleştirme bu tek thread'de sırayla çalışır
+    private final ExecutorService background =
+        Executors.newSingleThreadExecutor(Thread.ofPlatform().name("bitcask-birlestirme").daemon().factory());
+    private Segment active;
+    private long nextId;
+
+    LogStructuredStorage(Path directory, long maxSegmentBytes, int mergeThreshold) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.mergeThreshold = Math.max(2, mergeThreshold);
+        Files.createDirectories(directory);
+
+        long start = System.nanoTime();
+        int hinted = load();
+        // Açılışta her zaman yeni segmentle başlanır; öncekiler mühürlü sayılır
+        active = Segment.create(directory, nextId++);
+        segments.put(active.id, active);
+        System.out.printf("Bitcask deposu: %d belge, %d segment (%d ipucundan), %.1f ms%n",
+            keydir.size(), segments.size() - 1, hinted, (System.nanoTime() - start) / 1e6);
+        scheduleMergeIfNeeded();
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        return keydir.containsKey(fileName);
+    }
+
+    @Override
+    public byte[] read(String fileName) throws IOException {
+        // Birleştirme eski segmenti kapatmışsa anahtar dizini yeni yeri gösteriyordur; tekrar denenir
+        for (int attempt = 0; ; attempt++) {
+            Entry entry = keydir.get(fileName);
+            if (entry == null) {
+                throw new IOException("Dosya bulunamadı: " + fileName);
+            }
+            try {
+                return entry.segment.read(entry.valueOffset, entry.valueLength);
+            } catch (ClosedChannelException e) {
+                if (attempt >= READ_RETRIES) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void write(String fileName, PieceTable content, boolean durable) throws IOException {
+        byte[] key = fileName.getBytes(StandardCharsets.UTF_8);
+        int valueLength = Math.toIntExact(content.byteLength());
+        long modified = System.currentTimeMillis();
+        ByteBuffer head = header(key, modified, valueLength, content);
+        long recordLength = HEADER_BYTES + key.length + valueLength;
+
+        Segment segment;
+        long end;
+        appendLock.lock();
+        try {
+            if (active.size > 0 && active.size + recordLength > maxSegmentBytes) {
+                rotate();
+            }
+            segment = active;
+            long offset = segment.size;
+            segment.append(head, content);
+            end = segment.size;
+            Entry entry = new Entry(segment, offset + HEADER_BYTES + key.length, valueLength, modified);
+            segment.hints.add(new Hint(fileName, entry.valueOffset, valueLength, modified));
+            keydir.put(fileName, entry);
+        } finally {
+            appendLock.unlock();
+        }
+
+        if (durable) {
+            segment.sync(end);
+        }
+    }
+
+    @Override
+    public boolean create(String fileName) throws IOException {
+        if (keydir.containsKey(fileName)) {
+            return false;
+        }
+        write(fileName, PieceTable.empty(), false);
+        return true;
+    }
+
+    @Override
+    public Metadata stat(String fileName) {
+        Entry entry = keydir.get(fileName);
+        return entry != null ? new Metadata(entry.valueLength, entry.modified) : null;
+    }
+
+    // Segmentin kendi kanalı paylaşılmaz; bölge kapanana kadar birleştirmenin silmesinden etkilenmez
+    @Override
+    public Region openRegion(String fileName) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Entry entry = keydir.get(fileName);
+            if (entry == null) {
+                return null;
+            }
+            try {
+                FileChannel channel = FileChannel.open(directory.resolve(entry.segment.id + DATA_SUFFIX),
+                                                       StandardOpenOption.READ);
+                return new Region(channel, entry.valueOffset, entry.valueLength);
+            } catch (NoSuchFileException e) {
+                // Birleştirme segmenti silmişse anahtar dizini yeni yeri gösteriyordur
+                if (attempt >= READ_RETRIES) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<String> list() {
+        return new ArrayList<>(keydir.keySet());
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    // ---- Segment değiştirme ve birleştirme ----
+
+    // appendLock altında çağrılır
+    private void rotate() throws IOException {
+        Segment sealed = active;
+        active = Segment.create(directory, nextId++);
+        segments.put(active.id, active);
+        background.execute(() -> writeHintQuietly(sealed));
+        scheduleMergeIfNeeded();
+    }
+
+    private void scheduleMergeIfNeeded() {
+        if (segments.size() - 1 >= mergeThreshold) {
+            background.execute(this::mergeQuietly);
+        }
+    }
+
+    private void mergeQuietly() {
+        try {
+            merge();
+        } catch (IOException e) {
+            System.err.println("Bitcask birleştirme başarısız: " + e.getMessage());
+        }
+    }
+
+    // Birleştirme çıktısına etkin segmentten küçük bir kimlik ayrılır; açılışta segmentler kimlik sırasıyla
+    // okunduğu için birleştirilmiş eski değerler sonradan yazılan yeni değerlerin önünde kalır
+    private void merge() throws IOException {
+        if (segments.size() - 1 < mergeThreshold) {
+            return;
+        }
+
+        long mergeId;
+        appendLock.lock();
+        try {
+            // Etkin segment de mühürlenir; birleştirmeye girdiği için ipucu yazılmaz
+            mergeId = nextId++;
+            active = Segment.create(directory, nextId++);
+            segments.put(active.id, active);
+        } finally {
+            appendLock.unlock();
+        }
+
+        List<Segment> inputs = new ArrayList<>(segments.headMap(mergeId).values());
+        Path temp = directory.resolve(mergeId + DATA_SUFFIX + TEMP_SUFFIX);
+        List<String> keys = new ArrayList<>();
+        List<Entry> previous = new ArrayList<>();
+        List<Hint> hints = new ArrayList<>();
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (Map.Entry<String, Entry> item : keydir.entrySet()) {
+                Entry entry = item.getValue();
+                if (entry.segment.id >= mergeId) {
+                    continue;
+                }
+                byte[] key = item.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] value = entry.segment.read(entry.valueOffset, entry.valueLength);
+                ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + key.length + value.length);
+                record.put(header(key, entry.modified, value)).put(value).flip();
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+                keys.add(item.getKey());
+                previous.add(entry);
+                hints.add(new Hint(item.getKey(), position + HEADER_BYTES + key.length, value.length, entry.modified));
+                position += HEADER_BYTES + key.length + value.length;
+            }
+            out.force(true);
+        }
+
+        Path dataPath = directory.resolve(mergeId + DATA_SUFFIX);
+        Files.move(temp, dataPath, StandardCopyOption.ATOMIC_MOVE);
+        Segment merged = Segment.open(directory, mergeId);
+        merged.hints.addAll(hints);
+        writeHint(merged);
+        segments.put(mergeId, merged);
+        syncDirectory();
+
+        // Birleştirme sırasında yeniden yazılmış belgelerin yeni yeri korunur
+        for (int i = 0; i < keys.size(); i++) {
+            Hint hint = hints.get(i);
+            Entry old = previous.get(i);
+            keydir.replace(keys.get(i), old, new Entry(merged, hint.valueOffset, hint.valueLength, old.modified));
+        }
+        for (Segment input : inputs) {
+            segments.remove(input.id);
+            input.close();
+            Files.deleteIfExists(directory.resolve(input.id + DATA_SUFFIX));
+            Files.deleteIfExists(directory.resolve(input.id + HINT_SUFFIX));
+        }
+    }
+
+    private void writeHintQuietly(Segment segment) {
+        // Sırası gelene kadar birleştirilmiş olabilir
+        if (segments.get(segment.id) != segment) {
+            return;
+        }
+        try {
+            writeHint(segment);
+        } catch (IOException e) {
+            // İpucu yoksa açılışta segment taranır
+            System.err.println("Bitcask ipucu yazılamadı: " + segment.id + " - " + e.getMessage());
+        }
+    }
+
+    // İpucu: [anahtar uzunluğu int][zaman long][değer konumu long][değer uzunluğu int][anahtar]... [crc32 int]
+    private void writeHint(Segment segment) throws IOException {
+        int size = 4;
+        List<byte[]> keys = new ArrayList<>(segment.hints.size());
+        for (Hint hint : segment.hints) {
+            byte[] key = hint.fileName.getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            size += 24 + key.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (int i = 0; i < keys.size(); i++) {
+            Hint hint = segment.hints.get(i);
+            buffer.putInt(keys.get(i).length).putLong(hint.modified).putLong(hint.valueOffset)
+                .putInt(hint.valueLength).put(keys.get(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, size - 4);
+        buffer.putInt((int) crc.getValue()).flip();
+
+        Path temp = directory.resolve(segment.id + HINT_SUFFIX + TEMP_SUFFIX);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, directory.resolve(segment.id + HINT_SUFFIX), StandardCopyOption.ATOMIC_MOVE,
+                   StandardCopyOption.REPLACE_EXISTING);
+        segment.hints.clear();
+    }
+
+    // ---- Açılış ----
+
+    // Segmentler kimlik sırasıyla yüklenir, sonraki kayıt öncekini ezer. İpucundan yüklenen segment sayısını döner.
+    private int load() throws IOException {
+        TreeSet<Long> ids = new TreeSet<>();
+        List<Path> hintPaths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                } else if (name.endsWith(DATA_SUFFIX)) {
+                    ids.add(Long.parseLong(name.substring(0, name.length() - DATA_SUFFIX.length())));
+                } else if (name.endsWith(HINT_SUFFIX)) {
+                    hintPaths.add(path);
+                }
+            }
+        }
+        // Segmenti silinmiş (birleştirilmiş) ipuçları atılır
+        for (Path hintPath : hintPaths) {
+            String name = hintPath.getFileName().toString();
+            if (!ids.contains(Long.parseLong(name.substring(0, name.length() - HINT_SUFFIX.length())))) {
+                Files.deleteIfExists(hintPath);
+            }
+        }
+
+        int hinted = 0;
+        for (long id : ids) {
+            if (Files.size(directory.resolve(id + DATA_SUFFIX)) == 0) {
+                Files.deleteIfExists(directory.resolve(id + DATA_SUFFIX));
+                Files.deleteIfExists(directory.resolve(id + HINT_SUFFIX));
+                continue;
+            }
+            Segment segment = Segment.open(directory, id);
+            segments.put(id, segment);
+            if (loadHint(segment)) {
+                hinted++;
+            } else {
+                scan(segment);
+                writeHint(segment);
+            }
+        }
+        nextId = ids.isEmpty() ? 0 : ids.last() + 1;
+        return hinted;
+    }
+
+    private boolean loadHint(Segment segment) throws IOException {
+        Path hintPath = directory.resolve(segment.id + HINT_SUFFIX);
+        if (!Files.exists(hintPath)) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(hintPath));
+        if (buffer.remaining() < 4) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - 4);
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            return false;
+        }
+
+        buffer.limit(buffer.limit() - 4);
+        while (buffer.hasRemaining()) {
+            int keyLength = buffer.getInt();
+            long modified = buffer.getLong();
+            long valueOffset = buffer.getLong();
+            int valueLength = buffer.getInt();
+            byte[] key = new byte[keyLength];
+            buffer.get(key);
+            keydir.put(new String(key, StandardCharsets.UTF_8), new Entry(segment, valueOffset, valueLength, modified));
+        }
+        return true;
+    }
+
+    // İpucu yoksa segment baştan okunur; yırtık ya da bozuk kayıttan sonrası kesilip atılır
+    private void scan(Segment segment) throws IOException {
+        long position = 0;
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= segment.size) {
+            head.clear();
+            segment.readFully(head, position);
+            head.flip();
+            int expected = head.getInt();
+            long modified = head.getLong();
+            int keyLength = head.getInt();
+            int valueLength = head.getInt();
+            if (keyLength <= 0 || valueLength < 0
+                    || position + HEADER_BYTES + keyLength + (long) valueLength > segment.size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(keyLength + valueLength);
+            segment.readFully(body, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(head.array(), 4, HEADER_BYTES - 4);
+            crc.update(body.array(), 0, body.capacity());
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+
+            String fileName = new String(body.array(), 0, keyLength, StandardCharsets.UTF_8);
+            long valueOffset = position + HEADER_BYTES + keyLength;
+            keydir.put(fileName, new Entry(segment, valueOffset, valueLength, modified));
+            segment.hints.add(new Hint(fileName, valueOffset, valueLength, modified));
+            position = valueOffset + valueLength;
+        }
+
+        if (position < segment.size) {
+            System.err.println("Bitcask segmenti " + segment.id + " " + position + ". bayttan sonra bozuk, kesiliyor");
+            segment.truncate(position);
+        }
+    }
+
+    // ---- Yardımcılar ----
+
+    // Başlık ve anahtar; CRC değerle birlikte hesaplanır
+    private static ByteBuffer header(byte[] key, long modified, int valueLength, PieceTable content) {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + key.length);
+        head.putInt(0).putLong(modified).putInt(key.length).putInt(valueLength).put(key);
+        CRC32 crc = new CRC32();
+        crc.update(head.array(), 4, HEADER_BYTES - 4 + key.length);
+        content.forEachPiece(crc::update);
+        head.putInt(0, (int) crc.getValue());
+        head.flip();
+        return head;
+    }
+
+    private static ByteBuffer header(byte[] key, long modified, byte[] value) {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + key.length);
+        head.putInt(0).putLong(modified).putInt(key.length).putInt(value.length).put(key);
+        CRC32 crc = new CRC32();
+        crc.update(head.array(), 4, HEADER_BYTES - 4 + key.length);
+        crc.update(value);
+        head.putInt(0, (int) crc.getValue());
+        head.flip();
+        return head;
+    }
+
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+            // Dizin açılamayan sistemlerde (Windows) atlanır
+        }
+    }
+
+    private static final class Entry {
+        final Segment segment;
+        final long valueOffset;
+        final int valueLength;
+        final long modified;
+
+        Entry(Segment segment, long valueOffset, int valueLength, long modified) {
+            this.segment = segment;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.modified = modified;
+        }
+    }
+
+    private static final class Hint {
+        final String fileName;
+        final long valueOffset;
+        final int valueLength;
+        final long modified;
+
+        Hint(String fileName, long valueOffset, int valueLength, long modified) {
+            this.fileName = fileName;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.modified = modified;
+        }
+    }
+
+    private static final class Segment {
+        final long id;
+        final FileChannel channel;
+        // Mühürlenince ipucu dosyasına yazılacak kayıtlar
+        final List<Hint> hints = new ArrayList<>();
+        volatile long size;
+        private final ReentrantLock syncLock = new ReentrantLock();
+        private long synced;
+
+        private Segment(long id, FileChannel channel, long size) {
+            this.id = id;
+            this.channel = channel;
+            this.size = size;
+            this.synced = size;
+        }
+
+        static Segment create(Path directory, long id) throws IOException {
+            FileChannel channel = FileChannel.open(directory.resolve(id + DATA_SUFFIX), StandardOpenOption.CREATE_NEW,
+                                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(id, channel, 0);
+        }
+
+        static Segment open(Path directory, long id) throws IOException {
+            Path path = directory.resolve(id + DATA_SUFFIX);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(id, channel, channel.size());
+        }
+
+        // appendLock altında; kanal konumu her zaman segment sonundadır
+        void append(ByteBuffer head, PieceTable content) throws IOException {
+            channel.position(size);
+            while (head.hasRemaining()) {
+                channel.write(head);
+            }
+            content.writeTo(channel);
+            size = channel.position();
+        }
+
+        // Eşzamanlı kalıcı yazımlar tek fsync'te birleşir: başkasının fsync'i bu kaydı kapsıyorsa beklenmez
+        void sync(long end) throws IOException {
+            syncLock.lock();
+            try {
+                if (synced >= end) {
+                    return;
+                }
+                long target = size;
+                channel.force(false);
+                synced = target;
+            } catch (ClosedChannelException e) {
+                // Segment birleştirildi; birleştirme çıktısı zaten fsync edildi
+            } finally {
+                syncLock.unlock();
+            }
+        }
+
+        byte[] read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            readFully(buffer, offset);
+            return buffer.array();
+        }
+
+        void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Bitcask segmenti beklenmedik şekilde bitti: " + id);
+                }
+                position += read;
+            }
+        }
+
+        void truncate(long length) throws IOException {
+            channel.truncate(length);
+            size = length;
+            synced = length;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
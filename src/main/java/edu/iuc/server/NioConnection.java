@@ -0,0 +1,152 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.Message;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class NioConnection implements ClientTransport {
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final IoWorker worker;
+    private final ClientHandler handler;
+    private final OutboundQueue outbound;
+    private final AtomicBoolean writeRequested = new AtomicBoolean(false);
+    // Kısmen yazılmış çerçeve, tamponu ve bölgesinin gönderilmiş kısmı; sadece worker thread'i erişir
+    private OutboundFrame pendingFrame;
+    private ByteBuffer pendingWrite;
+    private long regionSent;
+
+    // Yarım kalan mesaj bir sonraki okumaya kadar burada tutulur
+    private final FrameDecoder decoder;
+    // Kapatma bir kez yapılır; başka thread'den istenen kapatma worker'a bırakılır
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    NioConnection(SocketChannel channel, SelectionKey key, IoWorker worker) {
+        this.channel = channel;
+        this.key = key;
+        this.worker = worker;
+        this.handler = new ClientHandler(this);
+        this.outbound = handler.getOutboundQueue();
+        this.decoder = new FrameDecoder(handler);
+    }
+
+    void onReadable(ByteBuffer readBuffer) {
+        readBuffer.clear();
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+
+        if (read < 0) {
+            close();
+            return;
+        }
+
+        handler.countInbound(read);
+        readBuffer.flip();
+        try {
+            while (readBuffer.hasRemaining() && !closed.get()) {
+                Message message = decoder.feed(readBuffer);
+                if (message != null) {
+                    handler.processMessage(message);
+                }
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    @Override
+    public void onFrameQueued() {
+        if (closed.get()) {
+            return;
+        }
+        if (worker.isWorkerThread() || writeRequested.compareAndSet(false, true)) {
+            worker.requestWrite(this);
+        }
+    }
+
+    @Override
+    public boolean canBlockCurrentThread() {
+        return !worker.isWorkerThread();
+    }
+
+    // Sadece worker thread'inden çağrılır
+    void flush() {
+        writeRequested.set(false);
+        if (closed.get() || !key.isValid()) {
+            return;
+        }
+
+        try {
+            while (true) {
+                if (pendingFrame == null) {
+                    OutboundFrame frame = outbound.poll();
+                    if (frame == null) {
+                        break;
+                    }
+                    pendingFrame = frame;
+                    pendingWrite = frame.view();
+                    regionSent = 0;
+                }
+
+                channel.write(pendingWrite);
+                if (pendingWrite.hasRemaining()) {
+                    // Soket tamponu dolu, yazılabilir olunca devam edilir
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (pendingFrame.hasRegion()) {
+                    while (regionSent < pendingFrame.regionCount()) {
+                        long transferred = pendingFrame.transferRegion(regionSent, channel);
+                        if (transferred == 0) {
+                            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                            return;
+                        }
+                        regionSent += transferred;
+                    }
+                    pendingFrame.release();
+                }
+                pendingFrame = null;
+                pendingWrite = null;
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    // Yayın yapan thread'den (ör. kuyruk taşınca) çağrılırsa kuyruk hemen kapanır, kanal ve yarım yazma
+    // worker thread'inde bırakılır; worker o sırada flush() içinde olabilir
+    @Override
+    public void close() {
+        if (!worker.isWorkerThread()) {
+            outbound.close();
+            worker.requestClose(this);
+            return;
+        }
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        outbound.close();
+        if (pendingFrame != null) {
+            pendingFrame.release();
+            pendingFrame = null;
+        }
+        pendingWrite = null;
+        decoder.close();
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Cleanup sırasında hata: " + e.getMessage());
+        }
+        handler.cleanup();
+    }
+}
@@ -0,0 +1,50 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+public class NioServer {
+    private final int port;
+    private final IoWorker[] workers;
+    private int nextWorker = 0;
+
+    public NioServer(int port, int ioThreads) {
+        this.port = port;
+        this.workers = new IoWorker[ioThreads];
+    }
+
+    public void start() throws IOException {
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new IoWorker(i);
+            Thread thread = new Thread(workers[i], "nio-io-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port), ServerConfig.getAcceptBacklog());
+
+            // Kabul işlemi bloklayan modda yapılır, okuma/yazma I/O thread'lerine dağıtılır
+            while (true) {
+                SocketChannel channel = serverChannel.accept();
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    nextWorker().register(channel);
+                } catch (IOException e) {
+                    System.err.println("Bağlantı kaydedilemedi: " + e.getMessage());
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private IoWorker nextWorker() {
+        IoWorker worker = workers[nextWorker];
+        nextWorker = (nextWorker + 1) % workers.length;
+        return worker;
+    }
+}
@@ -0,0 +1,183 @@
+package edu.iuc.server;
+
+import edu.iuc.protocol.MessageParser;
+import edu.iuc.shared.Message;
+import edu.iuc.shared.MessageType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+// Değişmez, salt okunur çerçeve: bir yayında tüm alıcılar aynı tamponu paylaşır.
+// Akış çerçevesinde tamponun ardından diskteki bir bölge, yığına okunmadan transferTo ile gönderilir.
+// Metin çerçevesinin ikili istemciler için eşi ilk gerektiğinde üretilir ve o alıcılar arasında paylaşılır.
+final class OutboundFrame {
+    // Bu boyutun üstündeki çerçeveler doğrudan bellekte tutulur, kanal yazarken tekrar kopyalamaz
+    private static final int DIRECT_THRESHOLD = 16 * 1024;
+
+    private final ByteBuffer data;
+    // Tam içerikli EDIT'in dosyası: aynı dosyanın daha yeni EDIT'i bunu geçersiz kılar. Diğer çerçevelerde null
+    private final String editFile;
+    // Sadece akış çerçevesinde; tek alıcılıdır, gönderilince ya da atılınca kanalı kapatılır
+    private final DocumentStorage.Region region;
+    // İkili eşi üreten; ikili çerçevelerde null
+    private final Supplier<OutboundFrame> binarySource;
+    private volatile OutboundFrame binary;
+
+    private OutboundFrame(ByteBuffer data, String editFile, DocumentStorage.Region region,
+                          Supplier<OutboundFrame> binarySource) {
+        this.data = data;
+        this.editFile = editFile;
+        this.region = region;
+        this.binarySource = binarySource;
+    }
+
+    // Mesaj doğrudan çerçevenin tamponuna kodlanır; arada String ya da bayt dizisi oluşmaz
+    static OutboundFrame of(Message message) {
+        String editFile = message.getType() == MessageType.EDIT ? message.getFileName() : null;
+        ByteBuffer line = allocate(message.encodedLength());
+        message.encodeTo(line);
+        return new OutboundFrame(line.flip().asReadOnlyBuffer(), editFile, null, () -> ofBinary(message, editFile));
+    }
+
+    private static OutboundFrame ofBinary(Message message, String editFile) {
+        ByteBuffer frame = allocate(message.binaryLength());
+        message.encodeBinaryTo(frame);
+        return new OutboundFrame(frame.flip().asReadOnlyBuffer(), editFile, null, null);
+    }
+
+    // İçerik parçaları kaçışsız olarak başlığın arkasına kopyalanır
+    static OutboundFrame ofBinaryDocument(MessageType type, String fileName, PieceTable content) {
+        byte[] header = MessageParser.binaryHeader(type, fileName, content.byteLength());
+        ByteBuffer frame = allocate(Math.toIntExact(header.length + content.byteLength()));
+        frame.put(header);
+        content.forEachPiece(frame::put);
+        return new OutboundFrame(frame.flip().asReadOnlyBuffer(), type == MessageType.EDIT ? fileName : null, null,
+                                 null);
+    }
+
+    // Belge baytları String'e çözülmeden çerçeveye kopyalanır; satır sonları protokoldeki gibi \\n olur.
+    // 0x0A baytı çok baytlı UTF-8 dizilerinin içinde geçmediği için bayt düzeyinde kaçış güvenlidir.
+    static OutboundFrame ofDocument(MessageType type, String fileName, PieceTable content) {
+        int[] newlines = {0};
+        content.forEachPiece((buffer, offset, length) -> {
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    newlines[0]++;
+                }
+            }
+        });
+
+        String command = type.getCommand();
+        long headerLength = command.length() + 2 + MessageParser.utf8Length(fileName, 0, fileName.length(), false);
+        ByteBuffer line = allocate(Math.toIntExact(headerLength + content.byteLength() + newlines[0] + 1));
+        MessageParser.putUtf8(line, command, 0, command.length(), false);
+        line.put((byte) '#');
+        MessageParser.putUtf8(line, fileName, 0, fileName.length(), false);
+        line.put((byte) '#');
+        // Satır sonları arasındaki baytlar toplu kopyalanır
+        content.forEachPiece((buffer, offset, length) -> {
+            int start = offset;
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    line.put(buffer, start, i - start).put((byte) '\\').put((byte) 'n');
+                    start = i + 1;
+                }
+            }
+            line.put(buffer, start, offset + length - start);
+        });
+        line.put((byte) '\n');
+        return new OutboundFrame(line.flip().asReadOnlyBuffer(), type == MessageType.EDIT ? fileName : null, null,
+            () -> ofBinaryDocument(type, fileName, content));
+    }
+
+    // OPEN_FILE_STREAM#<ad>#<bayt sayısı>\n ve ardından kaçışsız ham içerik. İkili eşi aynı bölgeyi taşıyan
+    // OPEN_FILE_RESPONSE çerçevesidir; ikisinden sadece gönderilen bölgeyi bırakır.
+    static OutboundFrame ofStream(String fileName, DocumentStorage.Region region) {
+        return new OutboundFrame(ByteBuffer.wrap(streamHeader(fileName, region.count)).asReadOnlyBuffer(), null, region,
+            () -> new OutboundFrame(ByteBuffer.wrap(MessageParser.binaryHeader(MessageType.OPEN_FILE_RESPONSE, fileName,
+                region.count)).asReadOnlyBuffer(), null, region, null));
+    }
+
+    // Bellekteki belge aynı biçimde gönderilir; parçalar kaçış uygulanmadan tek tampona kopyalanır
+    static OutboundFrame ofStream(String fileName, PieceTable content) {
+        byte[] header = streamHeader(fileName, content.byteLength());
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.toIntExact(header.length + content.byteLength()));
+        buffer.put(header);
+        content.forEachPiece(buffer::put);
+        buffer.flip();
+        return new OutboundFrame(buffer.asReadOnlyBuffer(), null, null,
+            () -> ofBinaryDocument(MessageType.OPEN_FILE_RESPONSE, fileName, content));
+    }
+
+    private static byte[] streamHeader(String fileName, long byteCount) {
+        return (MessageType.OPEN_FILE_STREAM.getCommand() + "#" + fileName + "#" + byteCount + "\n")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Ham satırlar (LIST_FILES_RESPONSE vb.) hiçbir zaman atılmaz
+    static OutboundFrame ofLine(String line) {
+        ByteBuffer buffer = allocate(Math.toIntExact(MessageParser.utf8Length(line, 0, line.length(), false) + 1));
+        MessageParser.putUtf8(buffer, line, 0, line.length(), false);
+        buffer.put((byte) '\n');
+        return new OutboundFrame(buffer.flip().asReadOnlyBuffer(), null, null,
+            () -> ofBinary(Message.fromRaw(line), null));
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return size >= DIRECT_THRESHOLD ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    // İkili istemciye gönderilecek çerçeve; eşzamanlı ilk çağrılarda iki kez üretilebilir, sonuç aynıdır
+    OutboundFrame binary() {
+        if (binarySource == null) {
+            return this;
+        }
+        OutboundFrame result = binary;
+        if (result == null) {
+            result = binarySource.get();
+            binary = result;
+        }
+        return result;
+    }
+
+    // Her yazıcı kendi konumunu tutan bir görünüm alır, içerik kopyalanmaz
+    ByteBuffer view() {
+        return data.duplicate();
+    }
+
+    int size() {
+        return data.remaining();
+    }
+
+    boolean hasRegion() {
+        return region != null;
+    }
+
+    long regionCount() {
+        return region.count;
+    }
+
+    // Bölgenin offset'ten sonrasını hedefe aktarır; engellemeyen kanalda 0 dönebilir
+    long transferRegion(long offset, WritableByteChannel target) throws IOException {
+        return region.channel.transferTo(region.position + offset, region.count - offset, target);
+    }
+
+    // Bölgenin kanalını kapatır; tampon çerçevelerinde bir şey yapmaz
+    void release() {
+        if (region == null) {
+            return;
+        }
+        try {
+            region.channel.close();
+        } catch (IOException e) {
+            System.err.println("Dosya kanalı kapatılamadı: " + e.getMessage());
+        }
+    }
+
+    // Tam içerikli EDIT ise dosyası; değilse null
+    String getEditFile() {
+        return editFile;
+    }
+}
@@ -0,0 +1,246 @@
+package edu.iuc.server;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+class OutboundQueue {
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final long blockTimeoutMillis;
+    private final ArrayDeque<OutboundFrame> frames = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private boolean closed = false;
+    private int maxDepth = 0;
+    private long droppedCount = 0;
+    private long enqueuedCount = 0;
+    // Kuyruktaki EDIT'lerin dosya başına sayısı ve daha yenisi kuyrukta olan EDIT sayısı; DROP_OLDEST'te
+    // atılacak çerçeve olup olmadığı kuyruk taranmadan bilinir
+    private final Map<String, Integer> queuedEdits = new HashMap<>();
+    private int supersededEdits = 0;
+
+    OutboundQueue(int capacity, OverflowPolicy policy, long blockTimeoutMillis) {
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    // false dönerse tüketici kuyruğa yetişemiyor demektir, bağlantı kesilmelidir
+    boolean offer(OutboundFrame frame, boolean mayBlock) {
+        lock.lock();
+        try {
+            if (closed) {
+                frame.release();
+                return true;
+            }
+
+            if (frames.size() >= capacity && !makeRoom(frame, mayBlock)) {
+                return false;
+            }
+
+            frames.addLast(frame);
+            added(frame);
+            enqueuedCount++;
+            maxDepth = Math.max(maxDepth, frames.size());
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean makeRoom(OutboundFrame incoming, boolean mayBlock) {
+        switch (policy) {
+            case DROP_OLDEST:
+                return dropSuperseded(incoming.getEditFile());
+
+            case BLOCK:
+                if (!mayBlock) {
+                    // Kuyruğu boşaltan thread'in kendisi bekleyemez, kapasite geçici olarak aşılır
+                    return true;
+                }
+                try {
+                    long remaining = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+                    while (frames.size() >= capacity && !closed) {
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        remaining = notFull.awaitNanos(remaining);
+                    }
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+
+            case DISCONNECT:
+            default:
+                return false;
+        }
+    }
+
+    // Aynı dosyanın daha yeni bir EDIT'i (kuyrukta ya da gelen çerçevede) olan en eski EDIT atılır. Dosyasının
+    // tek EDIT'i atılmaz, yoksa istemci o dosyanın eski içeriğinde kalırdı; atılacak yoksa bağlantı kesilir.
+    // Tarama sadece atılacak çerçeve olduğu biliniyorsa yapılır ve ilk uyanda durur.
+    private boolean dropSuperseded(String incomingEditFile) {
+        boolean incomingSupersedes = incomingEditFile != null && queuedEdits.containsKey(incomingEditFile);
+        if (supersededEdits == 0 && !incomingSupersedes) {
+            return false;
+        }
+        Iterator<OutboundFrame> it = frames.iterator();
+        while (it.hasNext()) {
+            OutboundFrame frame = it.next();
+            String file = frame.getEditFile();
+            if (file != null && (queuedEdits.get(file) > 1 || file.equals(incomingEditFile))) {
+                it.remove();
+                removed(frame);
+                droppedCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sayaçlar kilit altında, kuyruğa her ekleme ve her çıkarmada güncellenir
+    private void added(OutboundFrame frame) {
+        String file = frame.getEditFile();
+        if (file != null && queuedEdits.merge(file, 1, Integer::sum) > 1) {
+            supersededEdits++;
+        }
+    }
+
+    private void removed(OutboundFrame frame) {
+        String file = frame.getEditFile();
+        if (file == null) {
+            return;
+        }
+        int count = queuedEdits.get(file);
+        if (count > 1) {
+            queuedEdits.put(file, count - 1);
+            supersededEdits--;
+        } else {
+            queuedEdits.remove(file);
+        }
+    }
+
+    // Kuyruk kapanıp boşaldığında null döner
+    OutboundFrame take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (frames.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+            OutboundFrame frame = frames.pollFirst();
+            if (frame != null) {
+                removed(frame);
+                notFull.signal();
+            }
+            return frame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    OutboundFrame poll() {
+        lock.lock();
+        try {
+            OutboundFrame frame = frames.pollFirst();
+            if (frame != null) {
+                removed(frame);
+                notFull.signal();
+            }
+            return frame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int drainTo(List<OutboundFrame> target, int maxFrames) {
+        lock.lock();
+        try {
+            int count = 0;
+            while (count < maxFrames && !frames.isEmpty()) {
+                OutboundFrame frame = frames.pollFirst();
+                removed(frame);
+                target.add(frame);
+                count++;
+            }
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            // Gönderilmeyecek akış çerçevelerinin dosya kanalları kapatılır
+            for (OutboundFrame frame : frames) {
+                frame.release();
+            }
+            frames.clear();
+            queuedEdits.clear();
+            supersededEdits = 0;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return frames.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getMaxDepth() {
+        lock.lock();
+        try {
+            return maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getEnqueuedCount() {
+        lock.lock();
+        try {
+            return enqueuedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    OverflowPolicy getPolicy() {
+        return policy;
+    }
+}
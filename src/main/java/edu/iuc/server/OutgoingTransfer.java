@@ -0,0 +1,162 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.Chunks;
+import edu.iuc.shared.Message;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+// Belgenin istemciye parça parça gönderimi. Kaynak canlı belgenin değişmez anlık görüntüsü ya da diskteki
+// bölgedir; her parça gönderilirken kaynaktan tek bir parça tamponuna okunur. Alıcı onaylamadıkça pencere
+// kadar parçadan fazlası kuyruğa girmez. Durum sadece dosyanın kutusunda değişir.
+final class OutgoingTransfer {
+    final String id;
+    final String fileName;
+    final String owner;
+    private final PieceTable content;
+    private final DocumentStorage.Region region;
+    // Bölge gönderiminde kesintiden sonra dosyanın değişip değişmediği bununla anlaşılır
+    private final DocumentStorage.Metadata stored;
+    private final long total;
+    private final long version;
+    private final byte[] buffer;
+    private final long windowBytes;
+
+    // crcPosition'a kadarki baytların CRC'si; devamda yeniden gönderilen baytlar tekrar eklenmez
+    private final CRC32 crc = new CRC32();
+    private long crcPosition;
+    private long sent;
+    private long acked;
+    private boolean ended;
+    private ClientHandler receiver;
+    private volatile long lastActivity = System.currentTimeMillis();
+
+    private OutgoingTransfer(String fileName, String owner, PieceTable content, DocumentStorage.Region region,
+                             DocumentStorage.Metadata stored, long total, long version) {
+        this.id = Chunks.newTransferId();
+        this.fileName = fileName;
+        this.owner = owner;
+        this.content = content;
+        this.region = region;
+        this.stored = stored;
+        this.total = total;
+        this.version = version;
+        this.buffer = new byte[(int) Math.min(ServerConfig.getChunkBytes(), Math.max(1, total))];
+        this.windowBytes = (long) ServerConfig.getChunkBytes() * ServerConfig.getChunkWindow();
+    }
+
+    static OutgoingTransfer ofDocument(String fileName, String owner, PieceTable snapshot, long version) {
+        return new OutgoingTransfer(fileName, owner, snapshot, null, null, snapshot.byteLength(), version);
+    }
+
+    // Belleğe alınmamış belge: sürüm 0, içerik diskteki haliyle
+    static OutgoingTransfer ofRegion(String fileName, String owner, DocumentStorage.Region region,
+                                     DocumentStorage.Metadata stored) {
+        return new OutgoingTransfer(fileName, owner, null, region, stored, region.count, 0);
+    }
+
+    boolean isRegion() {
+        return region != null;
+    }
+
+    void start(ClientHandler handler) throws IOException {
+        receiver = handler;
+        handler.sendMessage(Message.chunkBegin(fileName, id, Chunks.OPEN, total, version));
+        pump();
+    }
+
+    // Alıcının bildirdiği bayt sayısına kadar gönderilenler onaylanır. Her şey onaylandıysa true.
+    boolean acknowledge(ClientHandler handler, long received) throws IOException {
+        if (handler != receiver) {
+            return false;
+        }
+        lastActivity = System.currentTimeMillis();
+        acked = Math.max(acked, Math.min(received, sent));
+        if (acked == total && ended) {
+            return true;
+        }
+        pump();
+        return false;
+    }
+
+    // Yeni bağlantı alınan bayttan devam eder. Kaynak bu arada değiştiyse istemcinin kaçırdığı düzenlemeler
+    // olabilir; o zaman false döner ve belge yeniden açılmalıdır.
+    boolean resume(ClientHandler handler, long received) throws IOException {
+        if (!isCurrent()) {
+            return false;
+        }
+        receiver = handler;
+        lastActivity = System.currentTimeMillis();
+        sent = Math.max(0, Math.min(received, sent));
+        acked = sent;
+        ended = false;
+        pump();
+        return true;
+    }
+
+    void detach(ClientHandler handler) {
+        if (receiver == handler) {
+            receiver = null;
+            lastActivity = System.currentTimeMillis();
+        }
+    }
+
+    boolean isExpired(long now) {
+        return now - lastActivity > ServerConfig.getChunkResumeMillis();
+    }
+
+    void release() {
+        receiver = null;
+        if (region == null) {
+            return;
+        }
+        try {
+            region.channel.close();
+        } catch (IOException e) {
+            System.err.println("Dosya kanalı kapatılamadı: " + e.getMessage());
+        }
+    }
+
+    private void pump() throws IOException {
+        while (receiver != null && sent < total && sent - acked < windowBytes) {
+            ByteBuffer target = ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, total - sent));
+            int count = read(sent, target);
+            if (count <= 0) {
+                throw new IOException("Dosya gönderilirken beklenenden kısa çıktı: " + fileName);
+            }
+            if (sent + count > crcPosition) {
+                int skip = (int) (crcPosition - sent);
+                crc.update(buffer, skip, count - skip);
+                crcPosition = sent + count;
+            }
+            receiver.sendMessage(Message.chunkData(id, sent, Chunks.encode(buffer, 0, count)));
+            sent += count;
+        }
+        if (receiver != null && sent == total && !ended) {
+            ended = true;
+            receiver.sendMessage(Message.chunkEnd(id, crc.getValue()));
+        }
+    }
+
+    private int read(long position, ByteBuffer target) throws IOException {
+        if (content != null) {
+            return content.read(position, target);
+        }
+        int start = target.position();
+        while (target.hasRemaining()) {
+            int read = region.channel.read(target, region.position + position + (target.position() - start));
+            if (read < 0) {
+                break;
+            }
+        }
+        return target.position() - start;
+    }
+
+    private boolean isCurrent() throws IOException {
+        LiveDocument document = DocumentManager.get(fileName);
+        if (content != null) {
+            return document != null && document.snapshot() == content;
+        }
+        return document == null && FileManager.isStoredCurrent(fileName, stored);
+    }
+}
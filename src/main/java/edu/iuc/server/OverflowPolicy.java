@@ -0,0 +1,24 @@
+package edu.iuc.server;
+
+public enum OverflowPolicy {
+    // Aynı dosyanın daha yenisi gelmiş en eski EDIT anlık görüntüsü atılır; atılabilecek EDIT yoksa istemci
+    // düşürülür
+    DROP_OLDEST,
+    // Gönderen thread kuyrukta yer açılana kadar (zaman aşımına kadar) bekler
+    BLOCK,
+    // Yavaş istemcinin bağlantısı kesilir
+    DISCONNECT;
+
+    public static OverflowPolicy fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return DROP_OLDEST;
+        }
+
+        for (OverflowPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value.trim().replace('-', '_'))) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen kuyruk politikası: " + value);
+    }
+}
@@ -0,0 +1,453 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.Chunks;
+import edu.iuc.shared.TextOperation;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Belge metni UTF-8 baytları olarak parçalar halinde tutulur. Parçalar kalıcı (yol kopyalamalı)
+// bir treap'te durur: ekleme/silme O(log n), her sürüm değişmez olduğu için anlık görüntü O(1).
+// Konumlar, istemcilerle aynı olsun diye UTF-16 karakter sayısıyla verilir.
+final class PieceTable {
+    // Parça içinde karakterden bayta çevirirken taranan en fazla bayt
+    private static final int MAX_PIECE_BYTES = 4 * 1024;
+    private static final int ADD_BLOCK_SIZE = 64 * 1024;
+
+    private final Node root;
+    private final AddBuffer addBuffer;
+
+    private PieceTable(Node root, AddBuffer addBuffer) {
+        this.root = root;
+        this.addBuffer = addBuffer;
+    }
+
+    static PieceTable empty() {
+        return new PieceTable(null, new AddBuffer());
+    }
+
+    // Geçersiz UTF-8 içeren dosyalar String'e çözülürken olduğu gibi yerine koyma karakteriyle okunur
+    static PieceTable fromUtf8(byte[] bytes) {
+        if (!isValidUtf8(bytes, bytes.length)) {
+            bytes = new String(bytes, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+        }
+        return new PieceTable(buildPieces(bytes, 0, bytes.length), new AddBuffer());
+    }
+
+    // Kanaldan size bayt blok blok okunur; parçalar bloklara işaret eder, içerik tek bir büyük diziye ya da
+    // String'e kopyalanmaz. Blok sonundaki karakter sonraki bloğa taşınır ki çok baytlı karakter bölünmesin.
+    static PieceTable readUtf8(ReadableByteChannel channel, long size, int blockSize) throws IOException {
+        Node result = null;
+        byte[] carry = new byte[0];
+        long remaining = size;
+        while (remaining > 0 || carry.length > 0) {
+            int count = (int) Math.min(blockSize, remaining);
+            byte[] block = Arrays.copyOf(carry, carry.length + count);
+            ByteBuffer target = ByteBuffer.wrap(block, carry.length, count);
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new IOException("Beklenen " + size + " bayt okunamadı");
+                }
+            }
+            remaining -= count;
+
+            int end = remaining > 0 ? boundaryAtOrBefore(block, 0, block.length - 1) : block.length;
+            carry = Arrays.copyOfRange(block, end, block.length);
+            if (!isValidUtf8(block, end)) {
+                block = new String(block, 0, end, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+                end = block.length;
+            }
+            result = merge(result, buildPieces(block, 0, end));
+        }
+        return new PieceTable(result, new AddBuffer());
+    }
+
+    private static boolean isValidUtf8(byte[] bytes, int length) {
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(bytes, 0, length));
+            return true;
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+    }
+
+    // Metinden kodlanan baytlar zaten geçerli UTF-8'dir, tekrar doğrulanmaz. Görünüm (bkz.
+    // Message.getContentView) araya String kopyası girmeden tam boyutlu diziye kodlanır.
+    static PieceTable of(CharSequence text) {
+        byte[] bytes;
+        if (text instanceof String string) {
+            bytes = string.getBytes(StandardCharsets.UTF_8);
+        } else {
+            bytes = new byte[Math.toIntExact(Chunks.utf8Length(text))];
+            ByteBuffer output = ByteBuffer.wrap(bytes);
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            encoder.encode(CharBuffer.wrap(text), output, true);
+            encoder.flush(output);
+        }
+        return new PieceTable(buildPieces(bytes, 0, bytes.length), new AddBuffer());
+    }
+
+    int length() {
+        return root == null ? 0 : root.subtreeChars;
+    }
+
+    long byteLength() {
+        return root == null ? 0 : root.subtreeBytes;
+    }
+
+    PieceTable insert(int index, String text) {
+        if (index < 0 || index > length()) {
+            throw new IllegalArgumentException("Geçersiz konum: " + index);
+        }
+        if (text.isEmpty()) {
+            return this;
+        }
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Node[] parts = split(root, index);
+        Node left = parts[0];
+        int appended = 0;
+
+        // Bir önceki eklemenin hemen arkasına yazılıyorsa son parça uzatılır, yeni parça açılmaz
+        Node last = rightmost(left);
+        if (last != null && addBuffer.isTail(last.buffer, last.offset + last.byteLength)) {
+            int room = Math.min(MAX_PIECE_BYTES - last.byteLength, addBuffer.remaining());
+            int extension = boundaryAtOrBefore(bytes, 0, Math.min(room, bytes.length));
+            if (extension > 0) {
+                addBuffer.append(bytes, 0, extension);
+                left = extendLast(left, extension, countChars(bytes, 0, extension));
+                appended = extension;
+            }
+        }
+
+        Node middle = null;
+        while (appended < bytes.length) {
+            int chunk = boundaryAtOrBefore(bytes, appended, Math.min(MAX_PIECE_BYTES, bytes.length - appended));
+            int[] location = addBuffer.reserve(chunk, bytes.length - appended);
+            byte[] block = addBuffer.block;
+            System.arraycopy(bytes, appended, block, location[0], chunk);
+            addBuffer.commit(chunk);
+            middle = merge(middle, newNode(block, location[0], chunk, countChars(bytes, appended, chunk)));
+            appended += chunk;
+        }
+
+        return new PieceTable(merge(merge(left, middle), parts[1]), addBuffer);
+    }
+
+    PieceTable delete(int index, int count) {
+        if (index < 0 || count < 0 || index + count > length()) {
+            throw new IllegalArgumentException("Silme belge sınırlarını aşıyor: " + index + "+" + count);
+        }
+        if (count == 0) {
+            return this;
+        }
+        Node[] head = split(root, index);
+        Node[] tail = split(head[1], count);
+        return new PieceTable(merge(head[0], tail[1]), addBuffer);
+    }
+
+    PieceTable apply(TextOperation operation) {
+        PieceTable result = this;
+        for (TextOperation.Component component : operation.getComponents()) {
+            result = component.isInsert()
+                ? result.insert(component.getPosition(), component.getText())
+                : result.delete(component.getPosition(), component.getLength());
+        }
+        return result;
+    }
+
+    // Parçaların baytlarını belge sırasıyla verir; kopya yapılmaz, dizi değiştirilmemelidir
+    void forEachPiece(PieceConsumer consumer) {
+        forEach(root, consumer);
+    }
+
+    byte[] toByteArray() {
+        byte[] result = new byte[Math.toIntExact(byteLength())];
+        int[] position = {0};
+        forEachPiece((buffer, offset, length) -> {
+            System.arraycopy(buffer, offset, result, position[0], length);
+            position[0] += length;
+        });
+        return result;
+    }
+
+    void writeTo(WritableByteChannel channel) throws IOException {
+        IOException[] failure = {null};
+        forEachPiece((buffer, offset, length) -> {
+            if (failure[0] != null) {
+                return;
+            }
+            ByteBuffer data = ByteBuffer.wrap(buffer, offset, length);
+            try {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    // position baytından başlayarak hedefin kalan yerini doldurur; parçalı gönderimde belge kopyalanmaz.
+    // Kopyalanan bayt sayısını döner, belge sonunda hedeften az olabilir.
+    int read(long position, ByteBuffer target) {
+        int start = target.position();
+        read(root, position, target);
+        return target.position() - start;
+    }
+
+    @Override
+    public String toString() {
+        return new String(toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    interface PieceConsumer {
+        void accept(byte[] buffer, int offset, int length);
+    }
+
+    // ---- Treap ----
+
+    private static final class Node {
+        final byte[] buffer;
+        final int offset;
+        final int byteLength;
+        final int charLength;
+        final int priority;
+        final Node left;
+        final Node right;
+        final long subtreeBytes;
+        final int subtreeChars;
+
+        Node(byte[] buffer, int offset, int byteLength, int charLength, int priority, Node left, Node right) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.byteLength = byteLength;
+            this.charLength = charLength;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.subtreeBytes = bytes(left) + byteLength + bytes(right);
+            this.subtreeChars = chars(left) + charLength + chars(right);
+        }
+
+        Node withChildren(Node newLeft, Node newRight) {
+            return new Node(buffer, offset, byteLength, charLength, priority, newLeft, newRight);
+        }
+    }
+
+    private static Node newNode(byte[] buffer, int offset, int byteLength, int charLength) {
+        return new Node(buffer, offset, byteLength, charLength, ThreadLocalRandom.current().nextInt(), null, null);
+    }
+
+    private static long bytes(Node node) {
+        return node == null ? 0 : node.subtreeBytes;
+    }
+
+    private static int chars(Node node) {
+        return node == null ? 0 : node.subtreeChars;
+    }
+
+    // İlk index karakteri sola, kalanı sağa ayırır; gerekirse bir parça ikiye bölünür
+    private static Node[] split(Node node, int index) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        int leftChars = chars(node.left);
+        if (index <= leftChars) {
+            Node[] parts = split(node.left, index);
+            return new Node[]{parts[0], node.withChildren(parts[1], node.right)};
+        }
+        if (index >= leftChars + node.charLength) {
+            Node[] parts = split(node.right, index - leftChars - node.charLength);
+            return new Node[]{node.withChildren(node.left, parts[0]), parts[1]};
+        }
+
+        int charOffset = index - leftChars;
+        int byteOffset = byteOffset(node, charOffset);
+        Node head = new Node(node.buffer, node.offset, byteOffset, charOffset, node.priority, node.left, null);
+        Node tail = new Node(node.buffer, node.offset + byteOffset, node.byteLength - byteOffset,
+                             node.charLength - charOffset, node.priority, null, node.right);
+        return new Node[]{head, tail};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority >= right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    private static Node rightmost(Node node) {
+        if (node == null) {
+            return null;
+        }
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    private static Node extendLast(Node node, int extraBytes, int extraChars) {
+        if (node.right != null) {
+            return node.withChildren(node.left, extendLast(node.right, extraBytes, extraChars));
+        }
+        return new Node(node.buffer, node.offset, node.byteLength + extraBytes, node.charLength + extraChars,
+                        node.priority, node.left, null);
+    }
+
+    private static Node buildPieces(byte[] bytes, int from, int to) {
+        Node result = null;
+        int position = from;
+        while (position < to) {
+            int chunk = boundaryAtOrBefore(bytes, position, Math.min(MAX_PIECE_BYTES, to - position));
+            result = merge(result, newNode(bytes, position, chunk, countChars(bytes, position, chunk)));
+            position += chunk;
+        }
+        return result;
+    }
+
+    private static void forEach(Node node, PieceConsumer consumer) {
+        while (node != null) {
+            forEach(node.left, consumer);
+            consumer.accept(node.buffer, node.offset, node.byteLength);
+            node = node.right;
+        }
+    }
+
+    // position, node'un alt ağacının başına göredir
+    private static void read(Node node, long position, ByteBuffer target) {
+        while (node != null && target.hasRemaining()) {
+            long leftBytes = bytes(node.left);
+            if (position < leftBytes) {
+                read(node.left, position, target);
+                position = leftBytes;
+                if (!target.hasRemaining()) {
+                    return;
+                }
+            }
+            long inNode = position - leftBytes;
+            if (inNode < node.byteLength) {
+                int count = (int) Math.min(node.byteLength - inNode, target.remaining());
+                target.put(node.buffer, node.offset + (int) inNode, count);
+                position += count;
+            }
+            position -= leftBytes + node.byteLength;
+            if (position < 0) {
+                return;
+            }
+            node = node.right;
+        }
+    }
+
+    // ---- UTF-8 ----
+
+    private static int byteOffset(Node node, int charOffset) {
+        if (node.byteLength == node.charLength) {
+            return charOffset;
+        }
+        int chars = 0;
+        int position = node.offset;
+        while (chars < charOffset) {
+            int lead = node.buffer[position] & 0xFF;
+            int width = sequenceLength(lead);
+            chars += width == 4 ? 2 : 1;
+            position += width;
+        }
+        if (chars != charOffset) {
+            throw new IllegalArgumentException("Konum bir vekil çiftin ortasına denk geliyor");
+        }
+        return position - node.offset;
+    }
+
+    private static int countChars(byte[] bytes, int offset, int length) {
+        int chars = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                chars += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return chars;
+    }
+
+    // offset'ten başlayan en fazla max baytlık aralık, bir karakterin ortasında bitmeyecek şekilde kısaltılır
+    private static int boundaryAtOrBefore(byte[] bytes, int offset, int max) {
+        int end = offset + max;
+        if (end >= bytes.length) {
+            return bytes.length - offset;
+        }
+        while (end > offset && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return end - offset;
+    }
+
+    private static int sequenceLength(int lead) {
+        if (lead < 0x80) {
+            return 1;
+        }
+        if (lead >= 0xF0) {
+            return 4;
+        }
+        if (lead >= 0xE0) {
+            return 3;
+        }
+        return 2;
+    }
+
+    // Sadece sona eklenen ortak tampon; eski sürümlerin gördüğü baytlar hiç değişmez
+    private static final class AddBuffer {
+        byte[] block = new byte[0];
+        int used;
+
+        boolean isTail(byte[] buffer, int end) {
+            return buffer == block && end == used;
+        }
+
+        int remaining() {
+            return block.length - used;
+        }
+
+        void append(byte[] source, int offset, int length) {
+            System.arraycopy(source, offset, block, used, length);
+            used += length;
+        }
+
+        // chunk baytlık yer ayırır; gerekirse yeni blok açılır. Büyük yapıştırmalar kendi bloklarını alır.
+        int[] reserve(int chunk, int total) {
+            if (remaining() < chunk) {
+                block = new byte[Math.max(ADD_BLOCK_SIZE, Math.min(total, 16 * ADD_BLOCK_SIZE))];
+                used = 0;
+            }
+            return new int[]{used};
+        }
+
+        void commit(int length) {
+            used += length;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.Chunks;
+import java.util.HashSet;
+import java.util.Set;
+
+public final class ServerConfig {
+    public static final int DEFAULT_PORT = 9999;
+
+    private ServerConfig() {
+    }
+
+    public static int getPort() {
+        return Integer.getInteger("cerrahpasa.port", DEFAULT_PORT);
+    }
+
+    public static ServerMode getMode() {
+        return ServerMode.fromString(System.getProperty("cerrahpasa.server.mode"));
+    }
+
+    public static int getAcceptBacklog() {
+        return Integer.getInteger("cerrahpasa.accept.backlog", 1024);
+    }
+
+    public static int getIoThreads() {
+        int defaultThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        return Math.max(1, Integer.getInteger("cerrahpasa.io.threads", defaultThreads));
+    }
+
+    public static int getOutboundCapacity() {
+        return Integer.getInteger("cerrahpasa.outbound.capacity", 1024);
+    }
+
+    public static OverflowPolicy getOverflowPolicy() {
+        return OverflowPolicy.fromString(System.getProperty("cerrahpasa.outbound.policy"));
+    }
+
+    public static long getOutboundBlockTimeoutMillis() {
+        return Long.getLong("cerrahpasa.outbound.block.timeout.ms", 5000L);
+    }
+
+    public static WriteMode getWriteMode() {
+        return WriteMode.fromString(System.getProperty("cerrahpasa.write.mode"));
+    }
+
+    public static long getFlushIntervalMillis() {
+        return Math.max(10L, Long.getLong("cerrahpasa.flush.interval.ms", 1000L));
+    }
+
+    public static long getFlushDirtyBytes() {
+        return Long.getLong("cerrahpasa.flush.dirty.bytes", 8L * 1024 * 1024);
+    }
+
+    public static boolean isGroupCommitEnabled() {
+        return Boolean.parseBoolean(System.getProperty("cerrahpasa.commit.group", "true"));
+    }
+
+    public static long getJournalCompactBytes() {
+        return Long.getLong("cerrahpasa.journal.compact.bytes", 1024L * 1024);
+    }
+
+    public static StorageType getStorageType() {
+        return StorageType.fromString(System.getProperty("cerrahpasa.storage"));
+    }
+
+    public static long getBitcaskSegmentBytes() {
+        return Long.getLong("cerrahpasa.bitcask.segment.bytes", 64L * 1024 * 1024);
+    }
+
+    public static int getBitcaskMergeSegments() {
+        return Integer.getInteger("cerrahpasa.bitcask.merge.segments", 4);
+    }
+
+    // Tek bir gelen mesajın en fazla bayt sayısı; aşan mesaj FRAME_TOO_LARGE ile reddedilir
+    public static int getFrameMaxBytes() {
+        return Math.max(1024, Integer.getInteger("cerrahpasa.frame.max.bytes", 16 * 1024 * 1024));
+    }
+
+    // Bu boyu aşan mesajın gelen kısmı, mesaj tamamlanana kadar geçici dosyada bekler
+    public static int getFrameSpillBytes() {
+        return Math.max(1024, Integer.getInteger("cerrahpasa.frame.spill.bytes", 1024 * 1024));
+    }
+
+    public static int getListPageSize() {
+        return Math.max(1, Integer.getInteger("cerrahpasa.list.page.size", 100));
+    }
+
+    // Parçalı aktarımda sunucunun gönderdiği parçanın boyu; istemciden gelen parçalar da bunu aşamaz
+    public static int getChunkBytes() {
+        return Math.max(1024, Integer.getInteger("cerrahpasa.chunk.bytes", Chunks.CHUNK_BYTES));
+    }
+
+    // Parçalı yüklemede bildirilebilecek en fazla boy; varsayılanı tek mesaj sınırıyla aynıdır
+    public static long getChunkUploadMaxBytes() {
+        return Math.max(1024L, Long.getLong("cerrahpasa.chunk.upload.max.bytes", getFrameMaxBytes()));
+    }
+
+    public static int getChunkWindow() {
+        return Math.max(1, Integer.getInteger("cerrahpasa.chunk.window", Chunks.WINDOW));
+    }
+
+    // Bağlantısı kopan aktarımın devam ettirilebileceği süre
+    public static long getChunkResumeMillis() {
+        return Long.getLong("cerrahpasa.chunk.resume.seconds", 60L) * 1000;
+    }
+
+    public static int getListPageMax() {
+        return Math.max(1, Integer.getInteger("cerrahpasa.list.page.max", 1000));
+    }
+
+    // Yönetim komutlarını (TRACE, STATS) gönderebilecek kullanıcı adları; boşsa kimse gönderemez
+    public static Set<String> getAdminUsers() {
+        Set<String> users = new HashSet<>();
+        for (String user : System.getProperty("cerrahpasa.admin.users", "").split(",")) {
+            if (!user.trim().isEmpty()) {
+                users.add(user.trim());
+            }
+        }
+        return users;
+    }
+
+    // Verilirse sunucu açılırken bu adla trafik kaydı başlatılır (files/.traces altında)
+    public static String getTraceFile() {
+        return System.getProperty("cerrahpasa.trace.file", "").trim();
+    }
+
+    // Sunucu istatistiklerinin konsola yazılma aralığı; 0 kapatır
+    public static long getStatsIntervalSeconds() {
+        return Long.getLong("cerrahpasa.stats.interval.seconds", 60L);
+    }
+}
@@ -1,17 +1,60 @@
 package edu.iuc.server;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 public class ServerMain {
     public static void main(String[] args) throws IOException {
-        ServerSocket serverSocket = new ServerSocket(9999);
+        ServerMode mode = args.length > 0 ? ServerMode.fromString(args[0]) : ServerConfig.getMode();
+        int port = ServerConfig.getPort();
+        FileManager.initialize();
+        startTrafficRecording();
+        ServerMetrics.startDump(ServerConfig.getStatsIntervalSeconds());
+
+        switch (mode) {
+            case NIO:
+                new NioServer(port, ServerConfig.getIoThreads()).start();
+                break;
+
+            case VIRTUAL:
+                runBlocking(port, Thread.ofVirtual().factory());
+                break;
+
+            case BLOCKING:
+            default:
+                runBlocking(port, Thread.ofPlatform().factory());
+        }
+    }
+
+    // Açık kayıt (TRACE ile sonradan başlatılan da) sunucu kapanırken kapatılır; arabellektekiler kaybolmaz
+    private static void startTrafficRecording() {
+        Runtime.getRuntime().addShutdownHook(new Thread(TrafficRecorder::stop));
+        String traceName = ServerConfig.getTraceFile();
+        if (traceName.isEmpty()) {
+            return;
+        }
+        try {
+            TrafficRecorder.start(traceName);
+        } catch (IOException e) {
+            System.err.println("Trafik kaydı başlatılamadı: " + e.getMessage());
+        }
+    }
+
+    // Okuma ve yazma thread'leri aynı fabrikadan gelir; VIRTUAL modda ikisi de sanal thread'dir
+    private static void runBlocking(int port, ThreadFactory threadFactory) throws IOException {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(threadFactory);
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), ServerConfig.getAcceptBacklog());
 
         while (true) {
-            Socket clientSocket = serverSocket.accept();
-            new Thread(new ClientHandler(clientSocket)).start();
+            // Bloklayan modda kanal üzerinden kabul: soket okuması akış, yazması kanal ile yapılır
+            SocketChannel clientChannel = serverChannel.accept();
+            executor.execute(new ClientHandler(clientChannel.socket(), threadFactory));
         }
     }
 }
-
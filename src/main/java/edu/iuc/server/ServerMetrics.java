@@ -0,0 +1,156 @@
+package edu.iuc.server;
+
+import edu.iuc.shared.LatencyHistogram;
+import edu.iuc.shared.MessageType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sunucu geneli sayaçlar ve gecikme histogramları: mesaj türü başına işleme süresi, kuyrukta bekleme, gönderilen
+// hata kodları, gelen/giden bayt, yayın başına alıcı sayısı ve dosya okuma/yazma süreleri. Kayıt kilitsizdir (LongAdder
+// ve LatencyHistogram); rapor okunurken gelen kayıt bir sonrakine kalabilir. Değerler sunucu açıldığından beri birikir.
+// Rapor STATS mesajıyla istenir ve cerrahpasa.stats.interval.seconds aralığıyla konsola yazılır.
+final class ServerMetrics {
+    private static final long STARTED = System.nanoTime();
+    private static final int TOP_CONNECTIONS = 10;
+
+    private static final LatencyHistogram[] processing = new LatencyHistogram[MessageType.values().length];
+    private static final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    // Kutuya ya da listeleme thread'ine bırakılan işin kuyrukta beklediği süre
+    private static final LatencyHistogram queueWaits = new LatencyHistogram();
+    private static final LongAdder bytesIn = new LongAdder();
+    private static final LongAdder bytesOut = new LongAdder();
+    private static final LongAdder framesOut = new LongAdder();
+    // Alıcı sayısı nanosaniye yerine kaydedilir; histogram değer birimine bakmaz
+    private static final LatencyHistogram fanOut = new LatencyHistogram();
+    private static final LatencyHistogram fileReads = new LatencyHistogram();
+    private static final LatencyHistogram fileWrites = new LatencyHistogram();
+    private static final LatencyHistogram journalAppends = new LatencyHistogram();
+    // Günlüğü yeniden oynatılan belge başına kurtarma süresi (açılışta ve belge açılırken)
+    private static final LatencyHistogram journalRecoveries = new LatencyHistogram();
+    private static final LongAdder replayedOperations = new LongAdder();
+
+    static {
+        for (int i = 0; i < processing.length; i++) {
+            processing[i] = new LatencyHistogram();
+        }
+    }
+
+    private ServerMetrics() {
+    }
+
+    // Sıfır ya da negatif aralıkta dökümü yapılmaz
+    static void startDump(long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("istatistik").daemon().factory())
+            .scheduleAtFixedRate(() -> System.out.print(report()), intervalSeconds, intervalSeconds,
+                                 TimeUnit.SECONDS);
+    }
+
+    static void processed(MessageType type, long nanos) {
+        processing[type.ordinal()].record(nanos);
+    }
+
+    static void queued(long nanos) {
+        queueWaits.record(nanos);
+    }
+
+    static void error(String code) {
+        errors.computeIfAbsent(code, key -> new LongAdder()).increment();
+    }
+
+    static void received(int bytes) {
+        bytesIn.add(bytes);
+    }
+
+    static void sent(long bytes) {
+        bytesOut.add(bytes);
+        framesOut.increment();
+    }
+
+    static void broadcast(int recipients) {
+        fanOut.record(recipients);
+    }
+
+    static void fileRead(long nanos) {
+        fileReads.record(nanos);
+    }
+
+    static void fileWrite(long nanos) {
+        fileWrites.record(nanos);
+    }
+
+    static void journalAppend(long nanos) {
+        journalAppends.record(nanos);
+    }
+
+    static void journalRecovery(int operations, long nanos) {
+        journalRecoveries.record(nanos);
+        replayedOperations.add(operations);
+    }
+
+    static long getUptimeSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - STARTED);
+    }
+
+    static String report() {
+        StringBuilder report = new StringBuilder(2048);
+        report.append(String.format("Sunucu istatistikleri (%d sn, %d kullanıcı, %d bağlantı)%n",
+                                    getUptimeSeconds(), UserManager.getUserCount(), UserManager.getClients().size()));
+
+        report.append("Mesaj işleme:\n");
+        for (MessageType type : MessageType.values()) {
+            LatencyHistogram histogram = processing[type.ordinal()];
+            if (histogram.getCount() > 0) {
+                report.append(String.format("  %-20s %s%n", type, histogram.format()));
+            }
+        }
+
+        report.append("Kuyrukta bekleme: ").append(queueWaits.format()).append('\n');
+        report.append(String.format("Bayt: gelen %.1f MB, giden %.1f MB (%d çerçeve)%n", bytesIn.sum() / 1e6,
+                                    bytesOut.sum() / 1e6, framesOut.sum()));
+        report.append(String.format("Yayın alıcıları: n=%d ort=%.1f p50=%d p99=%d max=%d%n", fanOut.getCount(),
+                                    fanOut.getMean(), fanOut.percentile(0.50), fanOut.percentile(0.99),
+                                    fanOut.getMax()));
+        report.append("Dosya okuma:   ").append(fileReads.format()).append('\n');
+        report.append("Dosya yazma:   ").append(fileWrites.format()).append('\n');
+        report.append("Günlük ekleme: ").append(journalAppends.format()).append('\n');
+        if (ServerConfig.getWriteMode() == WriteMode.JOURNAL) {
+            // Büyütme: günlüğe ve anlık görüntülere yazılan baytların düzenlemelerin kendi baytlarına oranı
+            report.append(String.format("Günlük yazma büyütmesi: %.2f (günlük %.1f MB, anlık görüntü %.1f MB, "
+                                        + "düzenleme %.1f MB)%n", DocumentJournal.getWriteAmplification(),
+                                        DocumentJournal.getJournalBytes() / 1e6,
+                                        DocumentJournal.getSnapshotBytes() / 1e6,
+                                        DocumentJournal.getOperationBytes() / 1e6));
+            report.append("Günlük kurtarma: ").append(journalRecoveries.format())
+                .append(", ").append(replayedOperations.sum()).append(" işlem\n");
+        }
+
+        if (!errors.isEmpty()) {
+            report.append("Hatalar:");
+            for (Map.Entry<String, LongAdder> entry : new TreeMap<>(errors).entrySet()) {
+                report.append(' ').append(entry.getKey()).append('=').append(entry.getValue().sum());
+            }
+            report.append('\n');
+        }
+
+        // En çok veri gönderilen bağlantılar; yavaş istemci çoğunlukla kuyruğu dolu olandır
+        List<ClientHandler> clients = new ArrayList<>(UserManager.getClients());
+        clients.sort(Comparator.comparingLong(ClientHandler::getBytesOut).reversed());
+        report.append("Bağlantılar (giden bayta göre):\n");
+        for (ClientHandler client : clients.subList(0, Math.min(TOP_CONNECTIONS, clients.size()))) {
+            report.append(String.format("  #%-6d %-20s gelen %.1f KB, giden %.1f KB, kuyruk %d%n",
+                                        client.getConnectionId(), client.getUsername(), client.getBytesIn() / 1e3,
+                                        client.getBytesOut() / 1e3, client.getOutboundQueueDepth()));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package edu.iuc.server;
+
+public enum ServerMode {
+    // Her bağlantı için ayrı thread, FrameDecoder ile bloklayan okuma
+    BLOCKING,
+    // BLOCKING ile aynı model, fakat her bağlantı bir sanal thread üzerinde çalışır
+    VIRTUAL,
+    // Sabit sayıda I/O thread'i, Selector ile bloklamayan okuma/yazma
+    NIO;
+
+    public static ServerMode fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return BLOCKING;
+        }
+
+        for (ServerMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen sunucu modu: " + value);
+    }
+}
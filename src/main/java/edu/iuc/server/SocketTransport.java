@@ -0,0 +1,131 @@
+package edu.iuc.server;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+class SocketTransport implements ClientTransport {
+    private static final int MAX_BATCH = 64;
+
+    private final Socket socket;
+    private final OutboundQueue queue;
+    private final WritableByteChannel out;
+    private final Thread writerThread;
+    private final ByteBuffer[] views = new ByteBuffer[MAX_BATCH];
+    private volatile boolean closed = false;
+
+    SocketTransport(Socket socket, OutboundQueue queue, ThreadFactory writerFactory) throws IOException {
+        this.socket = socket;
+        this.queue = queue;
+        // ServerSocketChannel'dan gelen soketler paylaşılan tamponları doğrudan kanala yazar
+        this.out = socket.getChannel() != null ? socket.getChannel() : Channels.newChannel(socket.getOutputStream());
+        this.writerThread = writerFactory.newThread(this::drain);
+        writerThread.start();
+    }
+
+    // Her istemcinin kendi yazıcısı: yavaş bir istemci sadece kendi kuyruğunu doldurur
+    private void drain() {
+        List<OutboundFrame> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            OutboundFrame frame;
+            while ((frame = queue.take()) != null) {
+                batch.add(frame);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Mesaj gönderilirken hata: " + e.getMessage());
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void write(List<OutboundFrame> batch) throws IOException {
+        int count = 0;
+        long remaining = 0;
+        try {
+            for (OutboundFrame frame : batch) {
+                views[count] = frame.view();
+                remaining += views[count].remaining();
+                count++;
+                if (frame.hasRegion()) {
+                    // Bölgeden önceki tamponlar ve başlık yazılır, bölge ardından doğrudan aktarılır
+                    writeViews(count, remaining);
+                    count = 0;
+                    remaining = 0;
+                    transferRegion(frame);
+                }
+            }
+            writeViews(count, remaining);
+        } finally {
+            for (OutboundFrame frame : batch) {
+                frame.release();
+            }
+        }
+    }
+
+    private void transferRegion(OutboundFrame frame) throws IOException {
+        long sent = 0;
+        while (sent < frame.regionCount()) {
+            long transferred = frame.transferRegion(sent, out);
+            if (transferred <= 0) {
+                // Engelleyen kanalda 0 ancak dosya başlıkta bildirilenden kısaysa döner
+                throw new IOException("Dosya gönderilirken beklenenden kısa çıktı");
+            }
+            sent += transferred;
+        }
+    }
+
+    private void writeViews(int count, long remaining) throws IOException {
+        if (out instanceof GatheringByteChannel) {
+            GatheringByteChannel gathering = (GatheringByteChannel) out;
+            while (remaining > 0) {
+                remaining -= gathering.write(views, 0, count);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                while (views[i].hasRemaining()) {
+                    out.write(views[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            views[i] = null;
+        }
+    }
+
+    @Override
+    public void onFrameQueued() {
+    }
+
+    @Override
+    public boolean canBlockCurrentThread() {
+        return Thread.currentThread() != writerThread;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.close();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Cleanup sırasında hata: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package edu.iuc.server;
+
+public enum StorageType {
+    // Her belge files/ altında ayrı bir dosya
+    FILES,
+    // Bütün belgeler tek bir sadece-eklenen kayıt dosyasında (Bitcask tarzı)
+    BITCASK;
+
+    public static StorageType fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return FILES;
+        }
+
+        for (StorageType type : values()) {
+            if (type.name().equalsIgnoreCase(value.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen depo türü: " + value);
+    }
+}
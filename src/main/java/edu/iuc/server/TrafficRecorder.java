@@ -0,0 +1,188 @@
+package edu.iuc.server;
+
+import edu.iuc.protocol.MessageParser;
+import edu.iuc.protocol.TraceFormat;
+import edu.iuc.shared.Message;
+import edu.iuc.shared.MessageType;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Açıkken bütün bağlantıların gelen ve giden mesajlarını nanosaniye zamanlarıyla TraceFormat biçiminde
+// files/.traces altına yazar; TrafficReplayer kaydı yeni bir sunucuya tekrar oynatır. Kapalıyken mesaj başına
+// maliyeti tek bir volatile okumadır. Gelen mesajın ikili çerçevesi çağıran thread'de kodlanır, dosyaya
+// kilit altında sırayla eklenir; zaman da kilit altında alındığı için kayıtlar dosyada zaman sırasındadır.
+// Kayıt oturum ortasında başlarsa açık oturumlar için LOGIN ve açık dosyalar için OPEN_FILE_REQUEST eklenir.
+final class TrafficRecorder {
+    private static final Path TRACE_PATH = Paths.get("files", ".traces");
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private static volatile TrafficRecorder active;
+
+    private final Path path;
+    private final OutputStream output;
+    private final ByteBuffer header = ByteBuffer.allocate(TraceFormat.MAX_RECORD_HEADER_BYTES
+                                                          + TraceFormat.MAX_VARLONG_BYTES + 1);
+    private long lastNanos = System.nanoTime();
+    private long records;
+    private boolean closed;
+
+    private TrafficRecorder(Path path) throws IOException {
+        this.path = path;
+        this.output = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_BYTES);
+        ByteBuffer fileHeader = ByteBuffer.allocate(TraceFormat.HEADER_BYTES);
+        TraceFormat.writeHeader(fileHeader, System.currentTimeMillis());
+        output.write(fileHeader.array());
+    }
+
+    static synchronized Path start(String name) throws IOException {
+        if (active != null) {
+            throw new IOException("Trafik kaydı zaten açık: " + active.path);
+        }
+        if (name == null || name.trim().isEmpty() || name.contains("..") || name.contains("/")
+                || name.contains("\\")) {
+            throw new IOException("Geçersiz kayıt adı: " + name);
+        }
+
+        Files.createDirectories(TRACE_PATH);
+        TrafficRecorder recorder = new TrafficRecorder(TRACE_PATH.resolve(name.trim()));
+        // Açık oturumlar yazılana kadar diğer kayıtlar bekler, oturumun ilk kaydı her zaman LOGIN olur
+        synchronized (recorder) {
+            active = recorder;
+            for (ClientHandler client : UserManager.getClients()) {
+                if (!client.isLoggedIn()) {
+                    continue;
+                }
+                int connection = client.getConnectionId();
+                recorder.writeInbound(connection,
+                    MessageParser.formatBinary(Message.login(client.getUsername(), client.getCapabilityList())));
+                for (String fileName : UserManager.getSubscriptions(client)) {
+                    recorder.writeInbound(connection, MessageParser.formatBinary(Message.openFileRequest(fileName)));
+                }
+            }
+        }
+        System.out.println("Trafik kaydı başladı: " + recorder.path);
+        return recorder.path;
+    }
+
+    // Kapatılan kaydın yolu; kayıt açık değilse null
+    static synchronized Path stop() {
+        TrafficRecorder recorder = active;
+        if (recorder == null) {
+            return null;
+        }
+        active = null;
+        recorder.close();
+        System.out.println("Trafik kaydı durdu: " + recorder.path + " (" + recorder.records + " kayıt)");
+        return recorder.path;
+    }
+
+    static boolean isRecording() {
+        return active != null;
+    }
+
+    // Yönetim komutları kaydedilmez; tekrar oynatmada kaydı yeniden başlatmasınlar
+    static void inbound(int connection, Message message) {
+        TrafficRecorder recorder = active;
+        if (recorder != null && message.getType() != MessageType.TRACE && message.getType() != MessageType.STATS) {
+            recorder.writeInbound(connection, MessageParser.formatBinary(message));
+        }
+    }
+
+    static void outbound(int connection, OutboundFrame frame) {
+        TrafficRecorder recorder = active;
+        if (recorder != null) {
+            long size = frame.size() + (frame.hasRegion() ? frame.regionCount() : 0);
+            recorder.writeOutbound(connection, typeOf(frame), size);
+        }
+    }
+
+    static void closed(int connection) {
+        TrafficRecorder recorder = active;
+        if (recorder != null) {
+            recorder.write(TraceFormat.CLOSE, connection, null, 0, null);
+        }
+    }
+
+    private void writeInbound(int connection, byte[] frame) {
+        write(TraceFormat.INBOUND, connection, null, frame.length, frame);
+    }
+
+    private void writeOutbound(int connection, MessageType type, long size) {
+        write(TraceFormat.OUTBOUND, connection, type, size, null);
+    }
+
+    // INBOUND'da length çerçevenin, OUTBOUND'da giden mesajın bayt sayısıdır
+    private synchronized void write(int kind, int connection, MessageType type, long length, byte[] frame) {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        header.clear();
+        header.put((byte) kind);
+        TraceFormat.writeVarLong(header, connection);
+        TraceFormat.writeVarLong(header, Math.max(0, now - lastNanos));
+        if (type != null) {
+            header.put((byte) type.getCode());
+        }
+        if (kind != TraceFormat.CLOSE) {
+            TraceFormat.writeVarLong(header, length);
+        }
+        try {
+            output.write(header.array(), 0, header.position());
+            if (frame != null) {
+                output.write(frame);
+            }
+            lastNanos = now;
+            records++;
+        } catch (IOException e) {
+            System.err.println("Trafik kaydı yazılamadı, kayıt durduruluyor: " + e.getMessage());
+            abandon();
+        }
+    }
+
+    // Yazan thread kaydın kilidini tuttuğu için stop() ile aynı kilidi almaz; sonraki mesajlar kaydı görmez
+    private void abandon() {
+        if (active == this) {
+            active = null;
+        }
+        close();
+    }
+
+    private synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            output.close();
+        } catch (IOException e) {
+            System.err.println("Trafik kaydı kapatılamadı: " + e.getMessage());
+        }
+    }
+
+    // Metin çerçevesinde komut ilk '#'a kadar okunur; akış çerçevesinin başlığı da metindir
+    private static MessageType typeOf(OutboundFrame frame) {
+        ByteBuffer data = frame.view();
+        if (!data.hasRemaining()) {
+            return MessageType.UNKNOWN;
+        }
+        byte first = data.get(data.position());
+        if (MessageParser.isBinaryFrame(first)) {
+            return MessageType.fromCode(first & 0x7F);
+        }
+        StringBuilder command = new StringBuilder(24);
+        for (int i = data.position(); i < data.limit() && command.length() < 32; i++) {
+            byte b = data.get(i);
+            if (b == '#' || b == '\n') {
+                break;
+            }
+            command.append((char) b);
+        }
+        return MessageType.fromCommand(command.toString());
+    }
+}
@@ -1,14 +1,20 @@
 package edu.iuc.server;
 
 import edu.iuc.shared.Message;
+import java.util.ArrayList;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 public class UserManager {
     private static final Map<String, ClientHandler> connectedUsers = new ConcurrentHashMap<>();
     private static final List<ClientHandler> allClients = new CopyOnWriteArrayList<>();
+    // Dosya odaları: dosya adı -> o dosyayı açık tutan istemciler
+    private static final Map<String, Set<ClientHandler>> fileRooms = new ConcurrentHashMap<>();
     
     public static boolean addUser(String username, ClientHandler handler) {
         if (username == null || username.trim().isEmpty()) {
@@ -36,6 +42,38 @@ public class UserManager {
         }
         
         allClients.remove(handler);
+        unsubscribeAll(handler);
+    }
+    
+    public static void subscribe(String fileName, ClientHandler handler) {
+        fileRooms.computeIfAbsent(fileName, key -> ConcurrentHashMap.newKeySet()).add(handler);
+    }
+    
+    public static void unsubscribe(String fileName, ClientHandler handler) {
+        fileRooms.computeIfPresent(fileName, (key, members) -> {
+            members.remove(handler);
+            return members.isEmpty() ? null : members;
+        });
+        
+        if (!fileRooms.containsKey(fileName)) {
+            DocumentManager.release(fileName);
+        }
+    }
+    
+    public static void unsubscribeAll(ClientHandler handler) {
+        for (String fileName : fileRooms.keySet()) {
+            unsubscribe(fileName, handler);
+        }
+    }
+    
+    static boolean isSubscribed(String fileName, ClientHandler handler) {
+        Set<ClientHandler> members = fileRooms.get(fileName);
+        return members != null && members.contains(handler);
+    }
+    
+    public static int getSubscriberCount(String fileName) {
+        Set<ClientHandler> members = fileRooms.get(fileName);
+        return members != null ? members.size() : 0;
     }
     
     public static String getUsernameByHandler(ClientHandler handler) {
@@ -48,25 +86,101 @@ public class UserManager {
     }
     
     public static void broadcastToAll(String message) {
-        for (ClientHandler client : allClients) {
-            client.sendMessage(message);
-        }
+        broadcastToAll(OutboundFrame.ofLine(message));
     }
     
     public static void broadcastToAll(Message message) {
-        broadcastToAll(message.toProtocolString());
+        broadcastToAll(OutboundFrame.of(message));
     }
     
     public static void broadcastToOthers(String message, ClientHandler sender) {
+        broadcastToOthers(OutboundFrame.ofLine(message), sender);
+    }
+    
+    public static void broadcastToOthers(Message message, ClientHandler sender) {
+        broadcastToOthers(OutboundFrame.of(message), sender);
+    }
+    
+    // Mesaj bir kez UTF-8'e çevrilir; tüm alıcılar aynı salt okunur tamponu paylaşır
+    static void broadcastToAll(OutboundFrame frame) {
+        int recipients = 0;
+        for (ClientHandler client : allClients) {
+            client.sendFrame(frame);
+            recipients++;
+        }
+        ServerMetrics.broadcast(recipients);
+    }
+    
+    static void broadcastToOthers(OutboundFrame frame, ClientHandler sender) {
+        int recipients = 0;
         for (ClientHandler client : allClients) {
             if (client != sender) {
-                client.sendMessage(message);
+                client.sendFrame(frame);
+                recipients++;
             }
         }
+        ServerMetrics.broadcast(recipients);
     }
     
-    public static void broadcastToOthers(Message message, ClientHandler sender) {
-        broadcastToOthers(message.toProtocolString(), sender);
+    // Dosya listesi değişti: artımlı olayları anlayan istemcilere FILE_ADDED / FILE_REMOVED,
+    // diğerlerine eskisi gibi listeyi yeniden istemeleri için LIST_FILES_REQUEST gider
+    static void broadcastFileEvent(Message event) {
+        OutboundFrame incremental = OutboundFrame.of(event);
+        OutboundFrame legacy = null;
+        int recipients = 0;
+        for (ClientHandler client : allClients) {
+            if (client.supportsFileEvents()) {
+                client.sendFrame(incremental);
+            } else {
+                if (legacy == null) {
+                    legacy = OutboundFrame.of(Message.listFilesRequest());
+                }
+                client.sendFrame(legacy);
+            }
+            recipients++;
+        }
+        ServerMetrics.broadcast(recipients);
+    }
+    
+    public static void broadcastToRoom(Message message, String fileName, ClientHandler sender) {
+        broadcastToRoom(OutboundFrame.of(message), fileName, sender);
+    }
+    
+    static void broadcastToRoom(OutboundFrame frame, String fileName, ClientHandler sender) {
+        Set<ClientHandler> members = fileRooms.get(fileName);
+        if (members == null) {
+            return;
+        }
+        int recipients = 0;
+        for (ClientHandler client : members) {
+            if (client != sender) {
+                client.sendFrame(frame);
+                recipients++;
+            }
+        }
+        ServerMetrics.broadcast(recipients);
+    }
+    
+    // Her üye kendi biçimindeki çerçeveyi alır; her biçim odada gerçekten biri varsa ve bir kez kodlanır.
+    // Fonksiyon null dönerse o biçimdeki üyelere bir şey gönderilmez.
+    static void broadcastToRoom(String fileName, ClientHandler sender, Function<EditFormat, OutboundFrame> frames) {
+        Set<ClientHandler> members = fileRooms.get(fileName);
+        if (members == null) {
+            return;
+        }
+        Map<EditFormat, OutboundFrame> encoded = new EnumMap<>(EditFormat.class);
+        int recipients = 0;
+        for (ClientHandler client : members) {
+            if (client == sender) {
+                continue;
+            }
+            OutboundFrame frame = encoded.computeIfAbsent(client.getEditFormat(), frames);
+            if (frame != null) {
+                client.sendFrame(frame);
+                recipients++;
+            }
+        }
+        ServerMetrics.broadcast(recipients);
     }
     
     public static List<String> getConnectedUsernames() {
@@ -76,4 +190,19 @@ public class UserManager {
     public static int getUserCount() {
         return connectedUsers.size();
     }
+    
+    static List<ClientHandler> getClients() {
+        return allClients;
+    }
+    
+    // İstemcinin açık tuttuğu dosyalar
+    static List<String> getSubscriptions(ClientHandler handler) {
+        List<String> files = new ArrayList<>();
+        for (Map.Entry<String, Set<ClientHandler>> room : fileRooms.entrySet()) {
+            if (room.getValue().contains(handler)) {
+                files.add(room.getKey());
+            }
+        }
+        return files;
+    }
 } 
\ No newline at end of file
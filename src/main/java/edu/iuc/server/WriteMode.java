@@ -0,0 +1,23 @@
+package edu.iuc.server;
+
+public enum WriteMode {
+    // Her düzenleme hemen diske yazılır
+    WRITE_THROUGH,
+    // Düzenlemeler bellekteki kopyayı günceller; kirli belgeler aralıkla veya eşik aşılınca yazılır
+    WRITE_BEHIND,
+    // Düzenlemeler belgenin günlüğüne eklenir; dosya sıkıştırmada ve SAVE_FILE'da yeniden yazılır
+    JOURNAL;
+
+    public static WriteMode fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return WRITE_THROUGH;
+        }
+
+        for (WriteMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim().replace('-', '_'))) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen yazma modu: " + value);
+    }
+}
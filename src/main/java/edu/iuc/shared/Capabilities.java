@@ -0,0 +1,42 @@
+package edu.iuc.shared;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// LOGIN mesajının ikinci parametresinde istemcinin, giriş yanıtında sunucunun desteklediği özellikler
+public final class Capabilities {
+    public static final String DELTA = "delta";
+    public static final String CRDT = "crdt";
+    // Dosya eklenip silindiğinde liste isteği yerine FILE_ADDED / FILE_REMOVED alınır
+    public static final String FILES = "files";
+    // Girişte tam liste gönderilmez; istemci listeyi LIST_FILES_PAGE ile sayfa sayfa ister
+    public static final String PAGES = "pages";
+    // Belge OPEN_FILE_RESPONSE yerine OPEN_FILE_STREAM ile ham UTF-8 bayt olarak gönderilir
+    public static final String STREAM = "stream";
+    // Büyük içerik tek satır yerine CHUNK_* mesajlarıyla, onaylı ve kesintiden sonra devam ettirilebilir gönderilir
+    public static final String CHUNKS = "chunks";
+    // Girişten sonra sunucu mesajları ikili çerçeveyle (tür baytı, uzunluklar, kaçışsız UTF-8) gönderir
+    public static final String BINARY = "binary";
+
+    private Capabilities() {
+    }
+
+    public static Set<String> parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                result.add(part.trim().toLowerCase());
+            }
+        }
+        return result;
+    }
+
+    public static String join(String... capabilities) {
+        return String.join(",", capabilities);
+    }
+}
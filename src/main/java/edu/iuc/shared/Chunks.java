@@ -0,0 +1,44 @@
+package edu.iuc.shared;
+
+import edu.iuc.protocol.MessageParser;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Parçalı aktarımın iki uçta ortak kuralları. Aktarım CHUNK_BEGIN ile başlar, her CHUNK_DATA bir bayt
+// aralığını Base64 olarak taşır, alıcı her parçadan sonra o ana kadar aldığı bayt sayısını CHUNK_ACK ile
+// bildirir. Gönderici onaylanmamış en fazla WINDOW parça bekletir, böylece iki uçta da bellekte tutulan
+// aktarım verisi belgenin değil parçanın boyuna bağlıdır. CHUNK_END bütün içeriğin CRC32'sini taşır.
+public final class Chunks {
+    public static final int CHUNK_BYTES = 64 * 1024;
+    public static final int WINDOW = 4;
+
+    // Aktarımın türü: sunucudan açılan belge, istemciden kaydedilen ya da tam içerikle düzenlenen belge
+    public static final String OPEN = "open";
+    public static final String SAVE = "save";
+    public static final String EDIT = "edit";
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private Chunks() {
+    }
+
+    // Tahmin edilemez olmalı: kesintiden sonra aktarıma kimlikle devam edilir
+    public static String newTransferId() {
+        return Long.toHexString(random.nextLong() & Long.MAX_VALUE);
+    }
+
+    public static String encode(byte[] data, int offset, int length) {
+        return Base64.getEncoder().encodeToString(offset == 0 && length == data.length ? data
+            : Arrays.copyOfRange(data, offset, offset + length));
+    }
+
+    public static byte[] decode(String data) {
+        return Base64.getDecoder().decode(data.trim());
+    }
+
+    // Metnin UTF-8 bayt sayısı; BEGIN'deki toplam boy için metin kodlanmadan hesaplanır
+    public static long utf8Length(CharSequence text) {
+        return MessageParser.utf8Length(text, 0, text.length(), false);
+    }
+}
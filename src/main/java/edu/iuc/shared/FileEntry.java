@@ -0,0 +1,106 @@
+package edu.iuc.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Sayfalı dosya listesinin bir satırı: ad, bayt boyu, son değişiklik zamanı (ms) ve açık belgenin sürümü.
+// Kodlama: ad,boyut,zaman,sürüm;ad,boyut,zaman,sürüm... Adlardaki ayırıcılar %XX ile kaçırılır,
+// böylece virgül, noktalı virgül ya da # içeren adlar da taşınabilir.
+public final class FileEntry {
+    private static final String RESERVED = "%#,;\\ \n\r";
+
+    private final String name;
+    private final long size;
+    private final long modified;
+    private final long version;
+
+    public FileEntry(String name, long size, long modified, long version) {
+        this.name = name;
+        this.size = size;
+        this.modified = modified;
+        this.version = version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+
+    // Belge kimsede açık değilse 0
+    public long getVersion() {
+        return version;
+    }
+
+    public static String encode(List<FileEntry> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (FileEntry entry : entries) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(escape(entry.name)).append(',').append(entry.size).append(',')
+              .append(entry.modified).append(',').append(entry.version);
+        }
+        return sb.toString();
+    }
+
+    public static List<FileEntry> decode(String encoded) {
+        List<FileEntry> entries = new ArrayList<>();
+        if (encoded == null || encoded.trim().isEmpty()) {
+            return entries;
+        }
+        for (String row : encoded.trim().split(";")) {
+            String[] fields = row.split(",");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Geçersiz dosya satırı: " + row);
+            }
+            entries.add(new FileEntry(unescape(fields[0]), Long.parseLong(fields[1]),
+                                      Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+        }
+        return entries;
+    }
+
+    public static String escape(String value) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (RESERVED.indexOf(c) >= 0) {
+                if (sb == null) {
+                    sb = new StringBuilder(value.length() + 8).append(value, 0, i);
+                }
+                sb.append('%').append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : value;
+    }
+
+    public static String unescape(String value) {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' && i + 2 < value.length()) {
+                sb.append((char) Integer.parseInt(value.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
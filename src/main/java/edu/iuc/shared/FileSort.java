@@ -0,0 +1,43 @@
+package edu.iuc.shared;
+
+// LIST_FILES_PAGE sıralaması; azalan sıra "-" önekiyle yazılır (ör. "-modified")
+public enum FileSort {
+    NAME("name"),
+    SIZE("size"),
+    MODIFIED("modified");
+
+    private final String key;
+
+    FileSort(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String encode(boolean descending) {
+        return descending ? "-" + key : key;
+    }
+
+    public static FileSort fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NAME;
+        }
+
+        String key = value.trim().toLowerCase();
+        if (key.startsWith("-")) {
+            key = key.substring(1);
+        }
+        for (FileSort sort : values()) {
+            if (sort.key.equals(key)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen sıralama: " + value);
+    }
+
+    public static boolean isDescending(String value) {
+        return value != null && value.trim().startsWith("-");
+    }
+}
@@ -0,0 +1,117 @@
+package edu.iuc.shared;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Nanosaniye gecikmeler için kilitsiz, sabit boyutlu histogram. Değerler ikinin kuvvetlerine, her kuvvet de
+// 32 eşit alt kovaya bölünür (HDR histogram gibi): 64 ns'ye kadar kesin, sonrasında göreli hata %3'ün altında.
+// Kayıt tek bir atomik artırmadır; çok sayıda thread aynı histograma yazabilir.
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    // Kovanın üst sınırı döner; kayıt yoksa 0
+    public long percentile(double fraction) {
+        long n = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Aralık raporları için: kayıtlar yeni histograma taşınır, bu histogram sıfırlanır. Aynı anda gelen kayıt
+    // ya taşınanlarda ya da kalanlarda olur, kaybolmaz.
+    public LatencyHistogram drain() {
+        LatencyHistogram drained = new LatencyHistogram();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long value = buckets.getAndSet(i, 0);
+            if (value != 0) {
+                drained.buckets.set(i, value);
+            }
+        }
+        drained.count.set(count.getAndSet(0));
+        drained.total.set(total.getAndSet(0));
+        drained.max.set(max.getAndSet(0));
+        return drained;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long value = other.buckets.get(i);
+            if (value != 0) {
+                buckets.addAndGet(i, value);
+            }
+        }
+        count.addAndGet(other.count.get());
+        total.addAndGet(other.total.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    // "n=120 ort=0.42 p50=0.31 p99=2.10 p99.9=3.05 max=3.20 ms"
+    public String format() {
+        return String.format("n=%d ort=%.2f p50=%.2f p99=%.2f p99.9=%.2f max=%.2f ms",
+            getCount(), getMean() / 1e6, percentile(0.50) / 1e6, percentile(0.99) / 1e6,
+            percentile(0.999) / 1e6, getMax() / 1e6);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+    }
+
+    private static long upperBound(int index) {
+        int magnitude = index / SUB_COUNT;
+        long sub = index % SUB_COUNT;
+        if (magnitude == 0) {
+            return sub;
+        }
+        int shift = magnitude - 1;
+        return ((SUB_COUNT + sub + 1) << shift) - 1;
+    }
+}
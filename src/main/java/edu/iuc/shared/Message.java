@@ -1,36 +1,98 @@
 package edu.iuc.shared;
 
+import edu.iuc.crdt.CrdtOperation;
 import edu.iuc.protocol.MessageParser;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.List;
 import java.util.Objects;
 
 public final class Message {
     private final MessageType type;
     private final String parameter1;
-    private final String parameter2;
+    // Metin satırından çözülen mesajda ikinci parametre satırın contentStart'tan sonrasıdır; içerik ancak
+    // istenince String'e kopyalanır
+    private final String source;
+    private final int contentStart;
+    private String parameter2;
     private final long timestamp;
     
     private Message(MessageType type, String parameter1, String parameter2, long timestamp) {
+        this(type, parameter1, parameter2 != null ? parameter2 : "", 0, timestamp);
+    }
+    
+    private Message(MessageType type, String parameter1, String source, int contentStart, long timestamp) {
         this.type = Objects.requireNonNull(type, "MessageType null olamaz");
         this.parameter1 = parameter1 != null ? parameter1 : "";
-        this.parameter2 = parameter2 != null ? parameter2 : "";
+        this.source = source;
+        this.contentStart = contentStart;
+        this.parameter2 = contentStart == 0 ? source : null;
         this.timestamp = timestamp;
     }
     
+    // Tek geçişte çözülür: ayırıcılar indeksle bulunur, komut hazır tablodan eşlenir. Ara dizi ve büyük harfli
+    // kopya oluşmaz, içerik satırdan kopyalanmaz; kaçışlı satır sonu varsa içerik bir kez açılarak kopyalanır.
     public static Message fromRaw(String raw) {
-        if (raw == null || raw.trim().isEmpty()) {
+        int end = raw != null ? raw.length() : 0;
+        int start = MessageParser.trimStart(raw, 0, end);
+        if (start == end) {
             return new Message(MessageType.UNKNOWN, "", "", System.currentTimeMillis());
         }
         
-        String[] parts = MessageParser.parse(raw);
-        MessageType type = MessageType.fromCommand(parts[0]);
+        int first = raw.indexOf('#', start);
+        if (first < 0) {
+            MessageType type = MessageType.fromCommand(raw, start, MessageParser.trimEnd(raw, start, end));
+            return new Message(type, "", "", System.currentTimeMillis());
+        }
+        MessageType type = MessageType.fromCommand(raw, start, MessageParser.trimEnd(raw, start, first));
+        
+        int second = raw.indexOf('#', first + 1);
+        String parameter1 = MessageParser.trimmed(raw, first + 1, second < 0 ? end : second);
+        if (second < 0) {
+            return new Message(type, parameter1, "", System.currentTimeMillis());
+        }
         
-        return new Message(type, parts[1], parts[2], System.currentTimeMillis());
+        int contentStart = second + 1;
+        if (isEscaped(type)) {
+            int escape = raw.indexOf("\\n", contentStart);
+            if (escape >= 0) {
+                return new Message(type, parameter1, unescape(raw, contentStart, escape), System.currentTimeMillis());
+            }
+        }
+        return new Message(type, parameter1, raw, contentStart, System.currentTimeMillis());
+    }
+    
+    // escape, içerikteki ilk \\n'nin yeri
+    private static String unescape(String raw, int start, int escape) {
+        StringBuilder content = new StringBuilder(raw.length() - start);
+        while (escape >= 0) {
+            content.append(raw, start, escape).append('\n');
+            start = escape + 2;
+            escape = raw.indexOf("\\n", start);
+        }
+        return content.append(raw, start, raw.length()).toString();
+    }
+    
+    // İkili v2 çerçevesi; içerik kaçışsız
+    public static Message fromBinary(ByteBuffer frame) {
+        return MessageParser.parseBinary(frame);
+    }
+    
+    // Metin satırında içerikteki satır sonları \\n olarak kaçırılır; mesajın kendisi içeriği kaçışsız tutar
+    private static boolean isEscaped(MessageType type) {
+        return type == MessageType.EDIT || type == MessageType.SAVE_FILE || type == MessageType.OPEN_FILE_RESPONSE
+            || type == MessageType.EDIT_DELTA || type == MessageType.CRDT_OP || type == MessageType.CRDT_SYNC
+            || type == MessageType.STATS;
     }
     
     public static Message login(String username) {
         return new Message(MessageType.LOGIN, username, "", System.currentTimeMillis());
     }
     
+    public static Message login(String username, String capabilities) {
+        return new Message(MessageType.LOGIN, username, capabilities, System.currentTimeMillis());
+    }
+    
     public static Message listFilesRequest() {
         return new Message(MessageType.LIST_FILES_REQUEST, "", "", System.currentTimeMillis());
     }
@@ -39,6 +101,19 @@ public final class Message {
         return new Message(MessageType.LIST_FILES_RESPONSE, fileList, "", System.currentTimeMillis());
     }
     
+    // Sayfalı listeleme: imleç boşsa ilk sayfa; parametre 2 "<sayfa boyu>;<sıralama>;<önek>"
+    public static Message listFilesPage(String cursor, int pageSize, FileSort sort, boolean descending, String prefix) {
+        String options = pageSize + ";" + sort.encode(descending) + ";" + FileEntry.escape(prefix != null ? prefix : "");
+        return new Message(MessageType.LIST_FILES_PAGE, FileEntry.escape(cursor != null ? cursor : ""), options,
+                           System.currentTimeMillis());
+    }
+    
+    // Sonraki sayfanın imleci boşsa liste bitmiştir
+    public static Message listFilesPageResponse(String nextCursor, List<FileEntry> entries) {
+        return new Message(MessageType.LIST_FILES_PAGE_RESPONSE, FileEntry.escape(nextCursor != null ? nextCursor : ""),
+                           FileEntry.encode(entries), System.currentTimeMillis());
+    }
+    
     public static Message openFileRequest(String fileName) {
         return new Message(MessageType.OPEN_FILE_REQUEST, fileName, "", System.currentTimeMillis());
     }
@@ -59,10 +134,60 @@ public final class Message {
         return new Message(MessageType.SAVE_FILE, fileName, content, System.currentTimeMillis());
     }
     
+    public static Message editDelta(String fileName, long version, TextOperation operation) {
+        return new Message(MessageType.EDIT_DELTA, fileName, version + ";" + operation.encode(), System.currentTimeMillis());
+    }
+    
+    public static Message deltaAck(String fileName, long version) {
+        return new Message(MessageType.DELTA_ACK, fileName, String.valueOf(version), System.currentTimeMillis());
+    }
+    
+    public static Message crdtOperation(String fileName, List<CrdtOperation> operations) {
+        return new Message(MessageType.CRDT_OP, fileName, CrdtOperation.encode(operations), System.currentTimeMillis());
+    }
+    
+    // İstemciye atanan replika kimliği ve belgenin mezar taşları dahil tam durumu
+    public static Message crdtSync(String fileName, int replicaId, String state) {
+        return new Message(MessageType.CRDT_SYNC, fileName, replicaId + ";" + state, System.currentTimeMillis());
+    }
+    
+    // Toplama turunun önerisi (sunucudan) ve onayı (istemciden): CRDT_GC#dosya#<tur>
+    public static Message crdtCollect(String fileName, int round) {
+        return new Message(MessageType.CRDT_GC, fileName, String.valueOf(round), System.currentTimeMillis());
+    }
+    
+    // Tur sonu: CRDT_GC#dosya#<tur>:<atılan kimlik aralıkları, CRDT_OP silme biçiminde>
+    public static Message crdtCollected(String fileName, int round, List<CrdtOperation> collected) {
+        return new Message(MessageType.CRDT_GC, fileName, round + ":" + CrdtOperation.encode(collected),
+                           System.currentTimeMillis());
+    }
+    
+    public static Message closeFile(String fileName) {
+        return new Message(MessageType.CLOSE_FILE, fileName, "", System.currentTimeMillis());
+    }
+    
+    // TRACE#start#<kayıt adı> ya da TRACE#stop#
+    public static Message trace(String action, String traceName) {
+        return new Message(MessageType.TRACE, action, traceName, System.currentTimeMillis());
+    }
+    
+    public static Message statsRequest() {
+        return new Message(MessageType.STATS, "", "", System.currentTimeMillis());
+    }
+    
+    // Çok satırlı rapor içerikte taşınır, satır sonları kaçışlanır
+    public static Message stats(long uptimeSeconds, String report) {
+        return new Message(MessageType.STATS, String.valueOf(uptimeSeconds), report, System.currentTimeMillis());
+    }
+    
     public static Message success(String message) {
         return new Message(MessageType.SUCCESS, message, "", System.currentTimeMillis());
     }
     
+    public static Message success(String message, String detail) {
+        return new Message(MessageType.SUCCESS, message, detail, System.currentTimeMillis());
+    }
+    
     public static Message error(String errorType, String errorMessage) {
         return new Message(MessageType.ERROR, errorType, errorMessage, System.currentTimeMillis());
     }
@@ -75,6 +200,39 @@ public final class Message {
         return new Message(MessageType.USER_LEFT, username, "", System.currentTimeMillis());
     }
     
+    // Dosya listesinin tamamı yerine sadece değişen ad gönderilir
+    public static Message fileAdded(String fileName) {
+        return new Message(MessageType.FILE_ADDED, fileName, "", System.currentTimeMillis());
+    }
+    
+    public static Message fileRemoved(String fileName) {
+        return new Message(MessageType.FILE_REMOVED, fileName, "", System.currentTimeMillis());
+    }
+    
+    // Parçalı aktarımın başı: parametre 2 "<aktarım>;<tür>;<toplam bayt>;<sürüm>"
+    public static Message chunkBegin(String fileName, String transferId, String kind, long totalBytes, long version) {
+        return new Message(MessageType.CHUNK_BEGIN, fileName, transferId + ";" + kind + ";" + totalBytes + ";" + version,
+                           System.currentTimeMillis());
+    }
+    
+    public static Message chunkData(String transferId, long offset, String data) {
+        return new Message(MessageType.CHUNK_DATA, transferId, offset + ";" + data, System.currentTimeMillis());
+    }
+    
+    public static Message chunkEnd(String transferId, long crc) {
+        return new Message(MessageType.CHUNK_END, transferId, String.valueOf(crc), System.currentTimeMillis());
+    }
+    
+    // Alıcının baştan itibaren eksiksiz aldığı bayt sayısı
+    public static Message chunkAck(String transferId, long received) {
+        return new Message(MessageType.CHUNK_ACK, transferId, String.valueOf(received), System.currentTimeMillis());
+    }
+    
+    // Yeni bağlantıda yarım kalan indirmeye alınan bayttan devam edilmesi istenir
+    public static Message chunkResume(String transferId, long received) {
+        return new Message(MessageType.CHUNK_RESUME, transferId, String.valueOf(received), System.currentTimeMillis());
+    }
+    
     // Getter metodları
     public MessageType getType() {
         return type;
@@ -85,7 +243,19 @@ public final class Message {
     }
     
     public String getParameter2() {
-        return parameter2;
+        String value = parameter2;
+        if (value == null) {
+            // Eşzamanlı ilk çağrılarda içerik en fazla iki kez kopyalanır; String değişmez olduğu için zararsız
+            value = source.substring(contentStart);
+            parameter2 = value;
+        }
+        return value;
+    }
+    
+    // İkinci parametre, kopyalanmadan; büyük içeriği okuyup başka biçime çeviren yerler için
+    public CharSequence getContentView() {
+        String value = parameter2;
+        return value != null ? value : CharBuffer.wrap(source, contentStart, source.length());
     }
     
     public long getTimestamp() {
@@ -101,7 +271,7 @@ public final class Message {
     }
     
     public String getContent() {
-        return parameter2;
+        return getParameter2();
     }
     
     public String getUsername() {
@@ -113,7 +283,7 @@ public final class Message {
     }
     
     public String getFileContent() {
-        return parameter2;
+        return getParameter2();
     }
     
     public String getFileList() {
@@ -125,29 +295,175 @@ public final class Message {
     }
     
     public String getErrorMessage() {
-        return parameter2;
+        return getParameter2();
     }
     
     public String getSuccessMessage() {
         return parameter1;
     }
     
+    public String getCapabilities() {
+        return getParameter2();
+    }
+    
+    // EDIT_DELTA için: düzenlemenin dayandığı (istemciden) veya ulaştırdığı (sunucudan) belge sürümü
+    public long getDeltaVersion() {
+        String content = getParameter2();
+        int separator = content.indexOf(';');
+        return Long.parseLong(separator >= 0 ? content.substring(0, separator) : content.trim());
+    }
+    
+    public TextOperation getDeltaOperation() {
+        String content = getParameter2();
+        int separator = content.indexOf(';');
+        if (separator < 0) {
+            return TextOperation.empty();
+        }
+        return TextOperation.decode(content.substring(separator + 1));
+    }
+    
+    public List<CrdtOperation> getCrdtOperations() {
+        return CrdtOperation.decode(getParameter2());
+    }
+    
+    public int getCrdtReplicaId() {
+        String content = getParameter2();
+        int separator = content.indexOf(';');
+        return Integer.parseInt(separator >= 0 ? content.substring(0, separator) : content.trim());
+    }
+    
+    public String getCrdtState() {
+        String content = getParameter2();
+        int separator = content.indexOf(';');
+        return separator >= 0 ? content.substring(separator + 1) : "";
+    }
+    
+    public int getCrdtRound() {
+        String content = getParameter2();
+        int separator = content.indexOf(':');
+        return Integer.parseInt(separator >= 0 ? content.substring(0, separator) : content.trim());
+    }
+    
+    // Öneri ve onayda boş
+    public List<CrdtOperation> getCrdtCollected() {
+        String content = getParameter2();
+        int separator = content.indexOf(':');
+        return separator >= 0 ? CrdtOperation.decode(content.substring(separator + 1)) : List.of();
+    }
+    
+    // LIST_FILES_PAGE isteğinde devam edilecek yer, yanıtında sonraki sayfanın imleci
+    public String getPageCursor() {
+        return FileEntry.unescape(parameter1);
+    }
+    
+    // Verilmemişse 0; sunucu kendi varsayılanını kullanır
+    public int getPageSize() {
+        String size = pageOption(0);
+        return size.isEmpty() ? 0 : Integer.parseInt(size);
+    }
+    
+    public FileSort getPageSort() {
+        return FileSort.fromString(pageOption(1));
+    }
+    
+    public boolean isPageDescending() {
+        return FileSort.isDescending(pageOption(1));
+    }
+    
+    public String getPagePrefix() {
+        return FileEntry.unescape(pageOption(2));
+    }
+    
+    public List<FileEntry> getFileEntries() {
+        return FileEntry.decode(getParameter2());
+    }
+    
+    // CHUNK_BEGIN'de parametre 2'nin ilk alanı, diğer parça mesajlarında parametre 1
+    public String getTransferId() {
+        return type == MessageType.CHUNK_BEGIN ? chunkOption(0) : parameter1;
+    }
+    
+    public String getChunkKind() {
+        return chunkOption(1);
+    }
+    
+    public long getChunkTotal() {
+        return Long.parseLong(chunkOption(2));
+    }
+    
+    public long getChunkVersion() {
+        String version = chunkOption(3);
+        return version.isEmpty() ? 0 : Long.parseLong(version);
+    }
+    
+    // CHUNK_DATA'da parçanın konumu, CHUNK_ACK ve CHUNK_RESUME'da alınan bayt sayısı
+    public long getChunkPosition() {
+        String content = getParameter2();
+        int separator = content.indexOf(';');
+        return Long.parseLong(separator >= 0 ? content.substring(0, separator) : content.trim());
+    }
+    
+    public byte[] getChunkData() {
+        String content = getParameter2();
+        int separator = content.indexOf(';');
+        return Chunks.decode(separator >= 0 ? content.substring(separator + 1) : "");
+    }
+    
+    public long getChunkCrc() {
+        return Long.parseLong(getParameter2().trim());
+    }
+    
+    private String chunkOption(int index) {
+        String[] options = getParameter2().split(";", 4);
+        return index < options.length ? options[index].trim() : "";
+    }
+    
+    private String pageOption(int index) {
+        String[] options = getParameter2().split(";", 3);
+        return index < options.length ? options[index].trim() : "";
+    }
+    
+    private boolean hasContent() {
+        return MessageParser.trimStart(source, contentStart, source.length()) < source.length();
+    }
+    
     public boolean isValid() {
         switch (type) {
             case LOGIN:
             case OPEN_FILE_REQUEST:
             case CREATE_FILE:
+            case CLOSE_FILE:
+            case FILE_ADDED:
+            case FILE_REMOVED:
                 return !parameter1.trim().isEmpty();
                 
             case EDIT:
             case SAVE_FILE:
             case OPEN_FILE_RESPONSE:
+            case DELTA_ACK:
                 return !parameter1.trim().isEmpty();
                 
+            case EDIT_DELTA:
+            case CRDT_OP:
+            case CRDT_SYNC:
+            case CRDT_GC:
+            case CHUNK_BEGIN:
+            case CHUNK_DATA:
+            case CHUNK_END:
+            case CHUNK_ACK:
+            case CHUNK_RESUME:
+                return !parameter1.trim().isEmpty() && hasContent();
+                
             case ERROR:
                 return !parameter1.trim().isEmpty();
                 
+            case TRACE:
+                return !parameter1.trim().isEmpty();
+                
             case LIST_FILES_REQUEST:
+            case LIST_FILES_PAGE:
+            case LIST_FILES_PAGE_RESPONSE:
+            case STATS:
             case SUCCESS:
             case USER_JOINED:
             case USER_LEFT:
@@ -165,15 +481,58 @@ public final class Message {
         sb.append("#").append(parameter1);
         sb.append("#");
         
-        if (type == MessageType.EDIT || type == MessageType.SAVE_FILE || type == MessageType.OPEN_FILE_RESPONSE) {
-            sb.append(parameter2.replace("\n", "\\n"));
-        } else {
-            sb.append(parameter2);
+        // İçerik satırdan çözüldüyse String'e çevrilmeden eklenir
+        int start = contentStart;
+        if (isEscaped(type)) {
+            for (int newline = source.indexOf('\n', start); newline >= 0; newline = source.indexOf('\n', start)) {
+                sb.append(source, start, newline).append("\\n");
+                start = newline + 1;
+            }
         }
+        sb.append(source, start, source.length());
         
         return sb.toString();
     }
     
+    // toProtocolString() ve satır sonunun UTF-8 bayt sayısı
+    public int encodedLength() {
+        long length = type.getCommand().length() + 3L
+            + MessageParser.utf8Length(parameter1, 0, parameter1.length(), false)
+            + MessageParser.utf8Length(source, contentStart, source.length(), isEscaped(type));
+        return Math.toIntExact(length);
+    }
+    
+    // Satırı (sonundaki \n dahil) ara String ya da bayt dizisi oluşturmadan, kaçışlarıyla birlikte tek geçişte
+    // hedefe yazar; hedefte encodedLength() kadar yer olmalıdır
+    public void encodeTo(ByteBuffer target) {
+        String command = type.getCommand();
+        MessageParser.putUtf8(target, command, 0, command.length(), false);
+        target.put((byte) '#');
+        MessageParser.putUtf8(target, parameter1, 0, parameter1.length(), false);
+        target.put((byte) '#');
+        MessageParser.putUtf8(target, source, contentStart, source.length(), isEscaped(type));
+        target.put((byte) '\n');
+    }
+    
+    public int binaryLength() {
+        int length1 = Math.toIntExact(MessageParser.utf8Length(parameter1, 0, parameter1.length(), false));
+        int length2 = Math.toIntExact(MessageParser.utf8Length(source, contentStart, source.length(), false));
+        return 1 + MessageParser.varintLength(length1) + length1 + MessageParser.varintLength(length2) + length2;
+    }
+    
+    // İkili çerçeveyi aynı şekilde doğrudan hedefe yazar; içerik kaçırılmaz
+    public void encodeBinaryTo(ByteBuffer target) {
+        target.put((byte) (MessageParser.BINARY_FLAG | type.getCode()));
+        MessageParser.writeVarint(target, Math.toIntExact(MessageParser.utf8Length(parameter1, 0, parameter1.length(), false)));
+        MessageParser.putUtf8(target, parameter1, 0, parameter1.length(), false);
+        MessageParser.writeVarint(target, Math.toIntExact(MessageParser.utf8Length(source, contentStart, source.length(), false)));
+        MessageParser.putUtf8(target, source, contentStart, source.length(), false);
+    }
+    
+    public byte[] toBinary() {
+        return MessageParser.formatBinary(this);
+    }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -183,18 +542,18 @@ public final class Message {
         return timestamp == message.timestamp &&
                type == message.type &&
                Objects.equals(parameter1, message.parameter1) &&
-               Objects.equals(parameter2, message.parameter2);
+               Objects.equals(getParameter2(), message.getParameter2());
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(type, parameter1, parameter2, timestamp);
+        return Objects.hash(type, parameter1, getParameter2(), timestamp);
     }
     
     @Override
     public String toString() {
         return String.format("Message{type=%s, param1='%s', param2='%s', timestamp=%d}", 
-                           type, parameter1, parameter2, timestamp);
+                           type, parameter1, getParameter2(), timestamp);
     }
     
     public static class Builder {
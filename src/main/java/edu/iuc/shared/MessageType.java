@@ -1,41 +1,108 @@
 package edu.iuc.shared;
 
+import java.util.Arrays;
+
 public enum MessageType {
-    LOGIN("LOGIN"),
-    LIST_FILES_REQUEST("LIST_FILES_REQUEST"),
-    OPEN_FILE_REQUEST("OPEN_FILE_REQUEST"),
-    EDIT("EDIT"),
-    CREATE_FILE("CREATE_FILE"),
-    SAVE_FILE("SAVE_FILE"),
+    LOGIN("LOGIN", 1),
+    LIST_FILES_REQUEST("LIST_FILES_REQUEST", 2),
+    LIST_FILES_PAGE("LIST_FILES_PAGE", 3),
+    OPEN_FILE_REQUEST("OPEN_FILE_REQUEST", 4),
+    EDIT("EDIT", 5),
+    CREATE_FILE("CREATE_FILE", 6),
+    SAVE_FILE("SAVE_FILE", 7),
+    CLOSE_FILE("CLOSE_FILE", 8),
+    EDIT_DELTA("EDIT_DELTA", 9),
+    CRDT_OP("CRDT_OP", 10),
+    
+    LIST_FILES_RESPONSE("LIST_FILES_RESPONSE", 11),
+    LIST_FILES_PAGE_RESPONSE("LIST_FILES_PAGE_RESPONSE", 12),
+    OPEN_FILE_RESPONSE("OPEN_FILE_RESPONSE", 13),
+    OPEN_FILE_STREAM("OPEN_FILE_STREAM", 14),
+    SUCCESS("SUCCESS", 15),
+    ERROR("ERROR", 16),
+    DELTA_ACK("DELTA_ACK", 17),
+    CRDT_SYNC("CRDT_SYNC", 18),
+    
+    USER_JOINED("USER_JOINED", 19),
+    USER_LEFT("USER_LEFT", 20),
+    FILE_ADDED("FILE_ADDED", 21),
+    FILE_REMOVED("FILE_REMOVED", 22),
+    
+    // Parçalı aktarım; BEGIN, DATA, END ve ACK iki yönde de kullanılır
+    CHUNK_BEGIN("CHUNK_BEGIN", 23),
+    CHUNK_DATA("CHUNK_DATA", 24),
+    CHUNK_END("CHUNK_END", 25),
+    CHUNK_ACK("CHUNK_ACK", 26),
+    CHUNK_RESUME("CHUNK_RESUME", 27),
+    
+    // Yönetim komutları; sadece cerrahpasa.admin.users listesindeki kullanıcılar gönderebilir
+    TRACE("TRACE", 28),
+    // İstek STATS#, yanıt STATS#<çalışma süresi>#<rapor>
+    STATS("STATS", 29),
+    
+    // Mezar taşı toplama turu: sunucu önerir, CRDT istemcileri onaylar, sunucu atılan aralıkları bildirir
+    CRDT_GC("CRDT_GC", 30),
     
-    LIST_FILES_RESPONSE("LIST_FILES_RESPONSE"),
-    OPEN_FILE_RESPONSE("OPEN_FILE_RESPONSE"),
-    SUCCESS("SUCCESS"),
-    ERROR("ERROR"),
+    UNKNOWN("UNKNOWN", 0);
     
-    USER_JOINED("USER_JOINED"),
-    USER_LEFT("USER_LEFT"),
+    private static final MessageType[] BY_CODE = new MessageType[128];
+    // Komut uzunluğuna göre gruplanmış türler; gelen komut büyük harfe çevrilmeden bunlarla karşılaştırılır
+    private static final MessageType[][] BY_LENGTH;
     
-    UNKNOWN("UNKNOWN");
+    static {
+        int longest = 0;
+        for (MessageType type : values()) {
+            BY_CODE[type.code] = type;
+            longest = Math.max(longest, type.command.length());
+        }
+        BY_LENGTH = new MessageType[longest + 1][0];
+        for (MessageType type : values()) {
+            MessageType[] group = BY_LENGTH[type.command.length()];
+            group = Arrays.copyOf(group, group.length + 1);
+            group[group.length - 1] = type;
+            BY_LENGTH[type.command.length()] = group;
+        }
+    }
     
     private final String command;
+    // İkili protokolde türü taşıyan kod; gönderilmiş kodlar değişmez, yeni türler sıradaki kodu alır
+    private final int code;
     
-    MessageType(String command) {
+    MessageType(String command, int code) {
         this.command = command;
+        this.code = code;
     }
     
     public String getCommand() {
         return command;
     }
     
+    public int getCode() {
+        return code;
+    }
+    
+    public static MessageType fromCode(int code) {
+        MessageType type = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        return type != null ? type : UNKNOWN;
+    }
+    
     public static MessageType fromCommand(String command) {
         if (command == null) {
             return UNKNOWN;
         }
         
-        String upperCommand = command.trim().toUpperCase();
-        for (MessageType type : values()) {
-            if (type.command.equals(upperCommand)) {
+        String trimmed = command.trim();
+        return fromCommand(trimmed, 0, trimmed.length());
+    }
+    
+    // Satırın [start, end) aralığındaki, boşlukları kırpılmış komut; büyük/küçük harf ayrımı yapılmaz
+    public static MessageType fromCommand(String text, int start, int end) {
+        int length = end - start;
+        if (length <= 0 || length >= BY_LENGTH.length) {
+            return UNKNOWN;
+        }
+        for (MessageType type : BY_LENGTH[length]) {
+            if (type.command.regionMatches(true, 0, text, start, length)) {
                 return type;
             }
         }
@@ -44,16 +111,26 @@ public enum MessageType {
     
     public boolean isClientToServer() {
         return this == LOGIN || this == LIST_FILES_REQUEST || this == OPEN_FILE_REQUEST 
-            || this == EDIT || this == CREATE_FILE || this == SAVE_FILE;
+            || this == EDIT || this == CREATE_FILE || this == SAVE_FILE || this == CLOSE_FILE
+            || this == EDIT_DELTA || this == CRDT_OP || this == LIST_FILES_PAGE || isChunk() || this == TRACE
+            || this == STATS || this == CRDT_GC;
     }
     
     public boolean isServerToClient() {
-        return this == LIST_FILES_RESPONSE || this == OPEN_FILE_RESPONSE 
-            || this == SUCCESS || this == ERROR;
+        return this == LIST_FILES_RESPONSE || this == LIST_FILES_PAGE_RESPONSE || this == OPEN_FILE_RESPONSE
+            || this == OPEN_FILE_STREAM || this == STATS
+            || this == SUCCESS || this == ERROR || this == DELTA_ACK || this == CRDT_SYNC || this == CRDT_GC
+            || (isChunk() && this != CHUNK_RESUME);
     }
     
     public boolean isBroadcast() {
-        return this == USER_JOINED || this == USER_LEFT || this == EDIT;
+        return this == USER_JOINED || this == USER_LEFT || this == EDIT || this == EDIT_DELTA
+            || this == CRDT_OP || this == FILE_ADDED || this == FILE_REMOVED;
+    }
+    
+    public boolean isChunk() {
+        return this == CHUNK_BEGIN || this == CHUNK_DATA || this == CHUNK_END || this == CHUNK_ACK
+            || this == CHUNK_RESUME;
     }
     
     public boolean requiresAuth() {
@@ -0,0 +1,333 @@
+package edu.iuc.shared;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Sırayla uygulanan ekleme/silme adımlarından oluşan konumsal düzenleme
+public final class TextOperation {
+    private static final TextOperation EMPTY = new TextOperation(Collections.emptyList());
+
+    private final List<Component> components;
+
+    private TextOperation(List<Component> components) {
+        this.components = components;
+    }
+
+    public static TextOperation empty() {
+        return EMPTY;
+    }
+
+    public static TextOperation insert(int position, String text) {
+        if (text == null || text.isEmpty()) {
+            return EMPTY;
+        }
+        return new TextOperation(List.of(Component.insert(position, text)));
+    }
+
+    public static TextOperation delete(int position, int length) {
+        if (length <= 0) {
+            return EMPTY;
+        }
+        return new TextOperation(List.of(Component.delete(position, length)));
+    }
+
+    public static TextOperation replaceAll(int oldLength, String newText) {
+        return delete(0, oldLength).then(insert(0, newText));
+    }
+
+    private static TextOperation of(List<Component> components) {
+        return components.isEmpty() ? EMPTY : new TextOperation(Collections.unmodifiableList(components));
+    }
+
+    public List<Component> getComponents() {
+        return components;
+    }
+
+    public boolean isEmpty() {
+        return components.isEmpty();
+    }
+
+    // Ardışık yazım tek bir eklemede birleştirilir
+    public TextOperation then(TextOperation next) {
+        if (next.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return next;
+        }
+
+        List<Component> merged = new ArrayList<>(components.size() + next.components.size());
+        merged.addAll(components);
+        for (Component component : next.components) {
+            int last = merged.size() - 1;
+            Component previous = merged.get(last);
+            if (previous.isInsert() && component.isInsert()
+                    && component.position == previous.position + previous.text.length()) {
+                merged.set(last, Component.insert(previous.position, previous.text + component.text));
+            } else if (!previous.isInsert() && !component.isInsert() && component.position == previous.position) {
+                merged.set(last, Component.delete(previous.position, previous.length + component.length));
+            } else if (!previous.isInsert() && !component.isInsert()
+                    && component.position + component.length == previous.position) {
+                merged.set(last, Component.delete(component.position, previous.length + component.length));
+            } else {
+                merged.add(component);
+            }
+        }
+        return of(merged);
+    }
+
+    // Tüm adımların verilen uzunluktaki belgeye sınır dışına çıkmadan uygulanabildiğini denetler
+    public boolean isApplicableTo(int documentLength) {
+        long length = documentLength;
+        for (Component component : components) {
+            if (component.position > length) {
+                return false;
+            }
+            if (component.isInsert()) {
+                length += component.text.length();
+            } else {
+                if (component.length < 0 || component.position + (long) component.length > length) {
+                    return false;
+                }
+                length -= component.length;
+            }
+        }
+        return true;
+    }
+
+    public void applyTo(StringBuilder document) {
+        for (Component component : components) {
+            if (component.position < 0 || component.position > document.length()) {
+                throw new IllegalArgumentException("Geçersiz konum: " + component.position);
+            }
+            if (component.isInsert()) {
+                document.insert(component.position, component.text);
+            } else {
+                int end = component.position + component.length;
+                if (end > document.length()) {
+                    throw new IllegalArgumentException("Silme belge sonunu aşıyor: " + end);
+                }
+                document.delete(component.position, end);
+            }
+        }
+    }
+
+    public String applyTo(String document) {
+        StringBuilder sb = new StringBuilder(document);
+        applyTo(sb);
+        return sb.toString();
+    }
+
+    // a ve b aynı belge durumuna göre üretilmiştir. Dönen dizi: {b'den sonra uygulanacak a, a'dan sonra uygulanacak b}.
+    // Aynı noktaya eklemelerde aWins true ise a'nın metni önce gelir.
+    public static TextOperation[] transform(TextOperation a, TextOperation b, boolean aWins) {
+        List<List<Component>> result = transformLists(a.components, b.components, aWins);
+        return new TextOperation[]{of(result.get(0)), of(result.get(1))};
+    }
+
+    private static List<List<Component>> transformLists(List<Component> a, List<Component> b, boolean aWins) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return List.of(new ArrayList<>(a), new ArrayList<>(b));
+        }
+
+        if (a.size() == 1 && b.size() == 1) {
+            return transformComponents(a.get(0), b.get(0), aWins);
+        }
+
+        if (a.size() > 1) {
+            List<List<Component>> head = transformLists(a.subList(0, 1), b, aWins);
+            List<List<Component>> tail = transformLists(a.subList(1, a.size()), head.get(1), aWins);
+            List<Component> aPrime = new ArrayList<>(head.get(0));
+            aPrime.addAll(tail.get(0));
+            return List.of(aPrime, tail.get(1));
+        }
+
+        List<List<Component>> head = transformLists(a, b.subList(0, 1), aWins);
+        List<List<Component>> tail = transformLists(head.get(0), b.subList(1, b.size()), aWins);
+        List<Component> bPrime = new ArrayList<>(head.get(1));
+        bPrime.addAll(tail.get(1));
+        return List.of(tail.get(0), bPrime);
+    }
+
+    private static List<List<Component>> transformComponents(Component a, Component b, boolean aWins) {
+        if (a.isInsert() && b.isInsert()) {
+            if (a.position < b.position || (a.position == b.position && aWins)) {
+                return pair(a, b.shift(a.text.length()));
+            }
+            return pair(a.shift(b.text.length()), b);
+        }
+
+        if (a.isInsert()) {
+            return transformInsertDelete(a, b);
+        }
+
+        if (b.isInsert()) {
+            List<List<Component>> swapped = transformInsertDelete(b, a);
+            return List.of(swapped.get(1), swapped.get(0));
+        }
+
+        return transformDeletes(a, b);
+    }
+
+    // Dönen: {del'den sonra ins, ins'ten sonra del}
+    private static List<List<Component>> transformInsertDelete(Component ins, Component del) {
+        int deleteEnd = del.position + del.length;
+        if (ins.position <= del.position) {
+            return pair(ins, del.shift(ins.text.length()));
+        }
+        if (ins.position >= deleteEnd) {
+            return pair(ins.shift(-del.length), del);
+        }
+
+        // Ekleme silinen aralığın içinde: eklenen metin korunur, silme ikiye bölünür
+        List<Component> deletes = new ArrayList<>(2);
+        deletes.add(Component.delete(ins.position + ins.text.length(), deleteEnd - ins.position));
+        deletes.add(Component.delete(del.position, ins.position - del.position));
+        return List.of(List.of(Component.insert(del.position, ins.text)), deletes);
+    }
+
+    private static List<List<Component>> transformDeletes(Component a, Component b) {
+        int aEnd = a.position + a.length;
+        int bEnd = b.position + b.length;
+        int overlap = Math.max(0, Math.min(aEnd, bEnd) - Math.max(a.position, b.position));
+
+        Component aPrime = Component.delete(mapDeleteStart(a.position, b.position, bEnd), a.length - overlap);
+        Component bPrime = Component.delete(mapDeleteStart(b.position, a.position, aEnd), b.length - overlap);
+        return List.of(aPrime.length > 0 ? List.of(aPrime) : List.of(),
+                       bPrime.length > 0 ? List.of(bPrime) : List.of());
+    }
+
+    private static int mapDeleteStart(int start, int otherStart, int otherEnd) {
+        if (start <= otherStart) {
+            return start;
+        }
+        if (start >= otherEnd) {
+            return start - (otherEnd - otherStart);
+        }
+        return otherStart;
+    }
+
+    private static List<List<Component>> pair(Component a, Component b) {
+        return List.of(List.of(a), List.of(b));
+    }
+
+    // Biçim: i<konum>,<uzunluk>:<metin> veya d<konum>,<uzunluk>, adımlar ';' ile ayrılır.
+    // Metin uzunluğu önden yazıldığı için metin içinde ayraç karakterleri serbesttir.
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        for (Component component : components) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            if (component.isInsert()) {
+                sb.append('i').append(component.position).append(',').append(component.text.length())
+                  .append(':').append(component.text);
+            } else {
+                sb.append('d').append(component.position).append(',').append(component.length);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static TextOperation decode(String encoded) {
+        List<Component> result = new ArrayList<>();
+        int index = 0;
+        while (index < encoded.length()) {
+            char kind = encoded.charAt(index);
+            int comma = encoded.indexOf(',', index);
+            if ((kind != 'i' && kind != 'd') || comma < 0) {
+                throw new IllegalArgumentException("Geçersiz düzenleme: " + encoded);
+            }
+            int position = Integer.parseInt(encoded.substring(index + 1, comma));
+            if (position < 0) {
+                throw new IllegalArgumentException("Konum negatif olamaz: " + encoded);
+            }
+
+            if (kind == 'i') {
+                int colon = encoded.indexOf(':', comma);
+                if (colon < 0) {
+                    throw new IllegalArgumentException("Geçersiz ekleme: " + encoded);
+                }
+                int length = Integer.parseInt(encoded.substring(comma + 1, colon));
+                if (length < 0) {
+                    throw new IllegalArgumentException("Uzunluk negatif olamaz: " + encoded);
+                }
+                // Toplama taşmasın diye kalan uzunlukla karşılaştırılır
+                if (length > encoded.length() - colon - 1) {
+                    throw new IllegalArgumentException("Ekleme metni eksik: " + encoded);
+                }
+                int textEnd = colon + 1 + length;
+                result.add(Component.insert(position, encoded.substring(colon + 1, textEnd)));
+                index = textEnd;
+            } else {
+                int end = encoded.indexOf(';', comma);
+                if (end < 0) {
+                    end = encoded.length();
+                }
+                int length = Integer.parseInt(encoded.substring(comma + 1, end));
+                if (length < 0) {
+                    throw new IllegalArgumentException("Uzunluk negatif olamaz: " + encoded);
+                }
+                result.add(Component.delete(position, length));
+                index = end;
+            }
+
+            if (index < encoded.length()) {
+                if (encoded.charAt(index) != ';') {
+                    throw new IllegalArgumentException("Geçersiz ayraç: " + encoded);
+                }
+                index++;
+            }
+        }
+        return of(result);
+    }
+
+    @Override
+    public String toString() {
+        return "TextOperation{" + encode() + "}";
+    }
+
+    public static final class Component {
+        private final int position;
+        private final int length;
+        private final String text;
+
+        private Component(int position, int length, String text) {
+            if (position < 0) {
+                throw new IllegalArgumentException("Konum negatif olamaz: " + position);
+            }
+            this.position = position;
+            this.length = length;
+            this.text = text;
+        }
+
+        static Component insert(int position, String text) {
+            return new Component(position, text.length(), text);
+        }
+
+        static Component delete(int position, int length) {
+            return new Component(position, length, null);
+        }
+
+        Component shift(int offset) {
+            return new Component(position + offset, length, text);
+        }
+
+        public boolean isInsert() {
+            return text != null;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}